@@ -0,0 +1,78 @@
+package com.caching.geo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a cache key and hashing it, which every lookup pays before it reaches the cache.
+ * {@code spelCompositeKey} is the former {@code key = "{#latitude, #longitude}"} on getAddress: the expression is
+ * parsed once, as Spring caches it, but evaluated against a fresh context per call. The other reverse keys are the
+ * {@link ReverseGeocodingKeyGenerator} modes and Spring's default {@link SimpleKeyGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private double latitude = 51.523767;
+    private double longitude = -0.158555;
+    private String address = "221B Baker St, London";
+
+    private Expression compositeKey;
+    private ReverseGeocodingKeyGenerator exactKeys;
+    private ReverseGeocodingKeyGenerator geohashKeys;
+    private GeocodingKeyGenerator addressKeys;
+
+    @Setup
+    public void setUp() {
+        compositeKey = new SpelExpressionParser().parseExpression("{#latitude, #longitude}");
+        exactKeys = new ReverseGeocodingKeyGenerator("exact", 8);
+        geohashKeys = new ReverseGeocodingKeyGenerator("geohash", 8);
+        addressKeys = new GeocodingKeyGenerator(new DefaultAddressNormalizer(true));
+    }
+
+    @Benchmark
+    public int spelCompositeKey() {
+        StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+        evaluationContext.setVariable("latitude", latitude);
+        evaluationContext.setVariable("longitude", longitude);
+        return compositeKey.getValue(evaluationContext).hashCode();
+    }
+
+    @Benchmark
+    public int simpleKey() {
+        return SimpleKeyGenerator.generateKey(latitude, longitude).hashCode();
+    }
+
+    @Benchmark
+    public int exactKey() {
+        return exactKeys.keyFor(latitude, longitude).hashCode();
+    }
+
+    @Benchmark
+    public int geohashKey() {
+        return geohashKeys.keyFor(latitude, longitude).hashCode();
+    }
+
+    @Benchmark
+    public int addressKey() {
+        return addressKeys.keyFor(address).hashCode();
+    }
+}
@@ -0,0 +1,111 @@
+package com.caching.geo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency and heap footprint of the {@link Gazetteer} used by {@link GazetteerResolver}.
+ * Places are synthetic canonical names ("town 123 north 7") scattered over Europe, one in a thousand covering a 10 km
+ * radius like a city and the rest the default 200 m. Setup prints the estimated and
+ * measured heap per million records; the measured figure is indicative only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GazetteerBenchmark {
+
+    private static final String[] REGIONS = {"north", "south", "east", "west", "upper", "lower", "old", "new"};
+    private static final int QUERIES = 4096;
+
+    @Param({"1000000"})
+    private int records;
+
+    private Gazetteer gazetteer;
+    private String[] exactQueries;
+    private String[] partialQueries;
+    private String[] missQueries;
+    private double[][] points;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long before = usedHeap();
+        Gazetteer.Builder builder = Gazetteer.builder(200 / 111_320d);
+        for (int i = 0; i < records; i++) {
+            builder.add(name(i), "Town " + i, 36 + random.nextDouble() * 34, -10 + random.nextDouble() * 40,
+                    i % 1000 == 0 ? 10_000 : 200);
+        }
+        gazetteer = builder.build();
+        builder = null;
+        long measured = usedHeap() - before;
+        double perMillion = 1_000_000d / records / (1024 * 1024);
+        System.out.printf("%nGazetteer with %d records: estimated %.1f MB, measured %.1f MB per million records%n",
+                records, gazetteer.estimatedBytes() * perMillion, measured * perMillion);
+
+        exactQueries = new String[QUERIES];
+        partialQueries = new String[QUERIES];
+        missQueries = new String[QUERIES];
+        points = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            int id = random.nextInt(records);
+            exactQueries[i] = name(id);
+            partialQueries[i] = (i % 100) + " main street " + name(id);
+            missQueries[i] = (i % 100) + " main street nowhere " + id;
+            points[i] = new double[]{36 + random.nextDouble() * 34, -10 + random.nextDouble() * 40};
+        }
+    }
+
+    private static String name(int i) {
+        return "town " + (i >> 3) + " " + REGIONS[i & 7] + " " + (i % 10);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private int nextQuery() {
+        return next++ & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public Gazetteer.Match forwardExact() {
+        return gazetteer.forward(exactQueries[nextQuery()]);
+    }
+
+    @Benchmark
+    public Gazetteer.Match forwardPartial() {
+        return gazetteer.forward(partialQueries[nextQuery()]);
+    }
+
+    @Benchmark
+    public Gazetteer.Match forwardMiss() {
+        return gazetteer.forward(missQueries[nextQuery()]);
+    }
+
+    @Benchmark
+    public Gazetteer.Match reverseNearest() {
+        double[] point = points[nextQuery()];
+        return gazetteer.nearest(point[0], point[1], 200);
+    }
+}
@@ -0,0 +1,89 @@
+package com.caching.repository;
+
+import com.caching.dto.Place;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link PositionstackResponseDecoder} with the previous decoding path, which built a new
+ * {@link ObjectMapper} per call, decoded the body to a String and bound the whole payload to a Map/List tree.
+ * Payloads are ten-result Positionstack responses from src/jmh/resources/positionstack.
+ * Run with {@code -prof gc} to compare allocation rates as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionstackResponseDecoderBenchmark {
+
+    private byte[] forwardBody;
+    private byte[] reverseBody;
+    private PositionstackResponseDecoder decoder;
+
+    @Setup
+    public void setUp() throws IOException {
+        forwardBody = load("positionstack/forward.json");
+        reverseBody = load("positionstack/reverse.json");
+        decoder = new PositionstackResponseDecoder(new ObjectMapper());
+    }
+
+    @Benchmark
+    public Place forwardStreaming() throws IOException {
+        return decoder.decodePlace(forwardBody);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Double> forwardLegacy() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Object> responseBody = objectMapper.readValue(new String(forwardBody, StandardCharsets.UTF_8), Map.class);
+        List<Map<String, Object>> data = (List<Map<String, Object>>) responseBody.get("data");
+        Map<String, Object> firstResult = data.get(0);
+        Map<String, Double> coordinates = new HashMap<>();
+        coordinates.put("latitude", (Double) firstResult.get("latitude"));
+        coordinates.put("longitude", (Double) firstResult.get("longitude"));
+        return coordinates;
+    }
+
+    @Benchmark
+    public Place reverseStreaming() throws IOException {
+        return decoder.decodePlace(reverseBody);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String reverseLegacy() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Object> responseBody = objectMapper.readValue(new String(reverseBody, StandardCharsets.UTF_8), Map.class);
+        List<Map<String, Object>> data = (List<Map<String, Object>>) responseBody.get("data");
+        return (String) data.get(0).get("label");
+    }
+
+    private static byte[] load(String resource) throws IOException {
+        try (InputStream in = PositionstackResponseDecoderBenchmark.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing benchmark payload: " + resource);
+            }
+            return in.readAllBytes();
+        }
+    }
+}
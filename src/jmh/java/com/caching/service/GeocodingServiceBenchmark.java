@@ -0,0 +1,260 @@
+package com.caching.service;
+
+import com.caching.audit.MappingAuditLog;
+import com.caching.cache.NegativeResultCache;
+import com.caching.cache.StaleEntrySweeper;
+import com.caching.cluster.PeerCacheClient;
+import com.caching.config.CacheConfig;
+import com.caching.dto.GeoPoint;
+import com.caching.dto.Place;
+import com.caching.geo.DefaultAddressNormalizer;
+import com.caching.geo.GazetteerResolver;
+import com.caching.geo.GeocodingKeyGenerator;
+import com.caching.geo.ReverseGeocodingKeyGenerator;
+import com.caching.geo.SpatialGridIndex;
+import com.caching.repository.CircuitBreaker;
+import com.caching.repository.GeocodingProvider;
+import com.caching.repository.GeocodingRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-path cost of {@link GeocodingService} with the production cache configuration (application.properties,
+ * without the disk tier) and an in-memory stub in place of the Positionstack {@link GeocodingProvider}, so only our
+ * own code and the caches are measured.
+ * <ul>
+ * <li>{@code *HitT1/T8/T64}: cache-hit throughput of {@code getCoordinatesAsync}/{@code getAddressAsync}, the path
+ * the controller serves, with 1, 8 and 64 threads.</li>
+ * <li>{@code *Miss}: a miss for a never-seen key, from key generation through the loader to the cache write.</li>
+ * <li>{@code coordinatesHit*}: the same hit through the service, through the Spring {@link Cache} with a precomputed
+ * key, and on the native Caffeine cache, which separates service and key-generation cost from the cache itself.</li>
+ * </ul>
+ * Key-generation cost on its own is measured by {@code com.caching.geo.CacheKeyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeocodingServiceBenchmark {
+
+    private static final int HOT_KEYS = 10_000;
+
+    private AnnotationConfigApplicationContext context;
+    private GeocodingService service;
+    private Cache springCache;
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache;
+    private String[] addresses;
+    private String[] canonicalAddresses;
+    private double[][] coordinates;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+        private long miss;
+
+        int next() {
+            next = next == HOT_KEYS - 1 ? 0 : next + 1;
+            return next;
+        }
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        MutablePropertySources sources = context.getEnvironment().getPropertySources();
+        sources.addFirst(new MapPropertySource("benchmark", Map.of(
+                "geocoding.cache.disk.enabled", "false",
+                "geocoding.gazetteer.file", "",
+                "geocoding.audit.file", "target/jmh-audit/mappings.log")));
+        sources.addLast(new ResourcePropertySource("classpath:application.properties"));
+        context.register(BenchmarkConfiguration.class);
+        context.refresh();
+
+        service = context.getBean(GeocodingService.class);
+        springCache = context.getBean(CacheManager.class).getCache("geocoding");
+        caffeineCache = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) springCache.getNativeCache();
+        GeocodingKeyGenerator keyGenerator = context.getBean(GeocodingKeyGenerator.class);
+
+        addresses = new String[HOT_KEYS];
+        canonicalAddresses = new String[HOT_KEYS];
+        coordinates = new double[HOT_KEYS][];
+        for (int i = 0; i < HOT_KEYS; i++) {
+            addresses[i] = (i + 1) + " Baker St, London";
+            canonicalAddresses[i] = keyGenerator.keyFor(addresses[i]);
+            coordinates[i] = new double[]{51.5 + i * 1e-3, -0.15 + i * 1e-3};
+            service.getCoordinatesAsync(addresses[i]).join();
+            service.getAddressAsync(coordinates[i][0], coordinates[i][1]).join();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GeoPoint coordinatesHitT1(Cursor cursor) {
+        return service.getCoordinatesAsync(addresses[cursor.next()]).join();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GeoPoint coordinatesHitT8(Cursor cursor) {
+        return service.getCoordinatesAsync(addresses[cursor.next()]).join();
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GeoPoint coordinatesHitT64(Cursor cursor) {
+        return service.getCoordinatesAsync(addresses[cursor.next()]).join();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String addressHitT1(Cursor cursor) {
+        double[] point = coordinates[cursor.next()];
+        return service.getAddressAsync(point[0], point[1]).join();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String addressHitT8(Cursor cursor) {
+        double[] point = coordinates[cursor.next()];
+        return service.getAddressAsync(point[0], point[1]).join();
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String addressHitT64(Cursor cursor) {
+        double[] point = coordinates[cursor.next()];
+        return service.getAddressAsync(point[0], point[1]).join();
+    }
+
+    @Benchmark
+    public GeoPoint coordinatesMiss(Cursor cursor) {
+        return service.getCoordinatesAsync("miss " + Thread.currentThread().getId() + " " + cursor.miss++).join();
+    }
+
+    @Benchmark
+    public String addressMiss(Cursor cursor) {
+        // Walks a line at roughly 100m steps, so every call is a new geohash cell outside the nearest-neighbour radius
+        long n = cursor.miss++;
+        return service.getAddressAsync(-60 + (n % 100_000) * 1e-3, -170 + (n / 100_000) * 1e-3).join();
+    }
+
+    @Benchmark
+    public GeoPoint coordinatesHitService(Cursor cursor) {
+        return service.getCoordinatesAsync(addresses[cursor.next()]).join();
+    }
+
+    @Benchmark
+    public Object coordinatesHitSpringCache(Cursor cursor) {
+        Cache.ValueWrapper cached = springCache.get(canonicalAddresses[cursor.next()]);
+        return cached != null ? cached.get() : null;
+    }
+
+    @Benchmark
+    public Object coordinatesHitCaffeine(Cursor cursor) {
+        return caffeineCache.getIfPresent(canonicalAddresses[cursor.next()]);
+    }
+
+    @Configuration
+    @Import({CacheConfig.class, UpstreamCacheReloader.class, GeocodingService.class, GeocodingKeyGenerator.class,
+            DefaultAddressNormalizer.class, ReverseGeocodingKeyGenerator.class, SpatialGridIndex.class,
+            StaleEntrySweeper.class, NegativeResultCache.class, GazetteerResolver.class, PeerCacheClient.class,
+            GeocodingRepository.class, MappingAuditLog.class, CrossCachePopulator.class})
+    static class BenchmarkConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        CircuitBreaker positionstackCircuitBreaker() {
+            return new CircuitBreaker("benchmark", 50, Duration.ofSeconds(5), 100, 20, Duration.ofSeconds(30), 5,
+                    (from, to) -> { });
+        }
+
+        @Bean
+        GeocodingProvider positionstackProvider() {
+            return new StubGeocodingProvider();
+        }
+    }
+
+    /**
+     * Answers immediately with values derived from the query, without HTTP, decoding, circuit breaker or rate limit.
+     */
+    static class StubGeocodingProvider implements GeocodingProvider {
+
+        @Override
+        public String getName() {
+            return "positionstack";
+        }
+
+        @Override
+        public CompletableFuture<Place> fetchPlace(String address) {
+            int hash = address.hashCode();
+            return CompletableFuture.completedFuture(new Place((hash % 9_000) / 100d, (hash % 18_000) / 100d, address, 1,
+                    Place.Precision.POINT, "Benchmarkland", null));
+        }
+
+        @Override
+        public CompletableFuture<Place> fetchPlace(double latitude, double longitude) {
+            return CompletableFuture.completedFuture(new Place(latitude, longitude,
+                    "Somewhere near " + latitude + ", " + longitude, 1, Place.Precision.POINT, "Benchmarkland", null));
+        }
+    }
+}
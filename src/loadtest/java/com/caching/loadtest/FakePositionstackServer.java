@@ -0,0 +1,210 @@
+package com.caching.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Positionstack {@code /forward} and {@code /reverse} endpoints, for load tests that
+ * must not call the paid API. Point {@code geocoding.upstream.base-url} at {@link #getBaseUrl()}.
+ * <p>
+ * Response latency is log-normal with the given median and 99th percentile (fixed when both are equal), a share of
+ * requests fails with HTTP 500, and every response body is padded with extra results up to the given payload size.
+ * Answers are derived from the query, so the same query always gets the same coordinates or label. The first
+ * {@code places} ranks of {@link FakeWorld} are answered consistently in both directions: the address of a rank is
+ * found at its coordinate, and the coordinate is labelled with the address.
+ */
+@Slf4j
+public class FakePositionstackServer implements AutoCloseable {
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.326;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final double medianMillis;
+    private final double sigma;
+    private final double errorRate;
+    private final int payloadBytes;
+    private final int places;
+    // Reverse queries of the known places, as the application formats them, to their rank
+    private final Map<String, Integer> ranksByCoordinate = new HashMap<>();
+    private final AtomicLong forwardCalls = new AtomicLong();
+    private final AtomicLong reverseCalls = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Starts the server on a free local port.
+     *
+     * @param medianLatency median response latency
+     * @param p99Latency    99th percentile response latency, at least the median
+     * @param errorRate     share of requests answered with HTTP 500, between 0 and 1
+     * @param payloadBytes  minimum response body size; bodies are padded with extra results
+     * @param places        how many {@link FakeWorld} ranks to answer consistently in both directions
+     * @throws IOException if the server cannot be started
+     */
+    public FakePositionstackServer(Duration medianLatency, Duration p99Latency, double errorRate, int payloadBytes,
+                                   int places) throws IOException {
+        this.medianMillis = medianLatency.toNanos() / 1e6;
+        this.sigma = p99Latency.compareTo(medianLatency) > 0 && medianMillis > 0
+                ? Math.log(p99Latency.toNanos() / 1e6 / medianMillis) / Z_99 : 0;
+        this.errorRate = errorRate;
+        this.payloadBytes = payloadBytes;
+        this.places = places;
+        for (int rank = 0; rank < places; rank++) {
+            ranksByCoordinate.put(FakeWorld.latitude(rank) + "," + FakeWorld.longitude(rank), rank);
+        }
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        // Latency is simulated by sleeping, so every in-flight request needs its own thread
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-positionstack");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/v1/forward", exchange -> handle(exchange, true));
+        server.createContext("/v1/reverse", exchange -> handle(exchange, false));
+        server.setExecutor(executor);
+        server.start();
+        log.info("Fake Positionstack listening on {} (median {}, p99 {}, error rate {}, payload {} bytes)",
+                getBaseUrl(), medianLatency, p99Latency, errorRate, payloadBytes);
+    }
+
+    /**
+     * @return the value for {@code geocoding.upstream.base-url}
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    /**
+     * @return the number of requests received so far, including failed ones
+     */
+    public long getCalls() {
+        return forwardCalls.get() + reverseCalls.get();
+    }
+
+    public long getForwardCalls() {
+        return forwardCalls.get();
+    }
+
+    public long getReverseCalls() {
+        return reverseCalls.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    private void handle(HttpExchange exchange, boolean forward) throws IOException {
+        try (exchange) {
+            (forward ? forwardCalls : reverseCalls).incrementAndGet();
+            String query = query(exchange.getRequestURI().getRawQuery());
+            sleep();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            byte[] body = body(query, forward).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private void sleep() {
+        double millis = sigma > 0
+                ? medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian())
+                : medianMillis;
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MICROSECONDS.sleep((long) (millis * 1000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String query(String rawQuery) {
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                if (parameter.startsWith("query=")) {
+                    return URLDecoder.decode(parameter.substring("query=".length()), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return "";
+    }
+
+    private String body(String query, boolean forward) {
+        Random random = new Random(query.hashCode());
+        double latitude;
+        double longitude;
+        String label;
+        int rank = forward ? FakeWorld.rankOf(query) : ranksByCoordinate.getOrDefault(query, -1);
+        if (rank >= 0 && rank < places) {
+            latitude = FakeWorld.latitude(rank);
+            longitude = FakeWorld.longitude(rank);
+            label = FakeWorld.address(rank);
+        } else if (forward) {
+            latitude = random.nextDouble() * 180 - 90;
+            longitude = random.nextDouble() * 360 - 180;
+            label = query + ", Fakeland";
+        } else {
+            String[] parts = query.split(",");
+            latitude = Double.parseDouble(parts[0]);
+            longitude = Double.parseDouble(parts[1]);
+            label = "Place " + Math.abs(random.nextInt()) + ", Fakeland";
+        }
+        StringBuilder body = new StringBuilder(Math.max(payloadBytes, 512) + 512).append("{\"data\":[");
+        int index = 0;
+        do {
+            if (index > 0) {
+                body.append(',');
+            }
+            result(body, latitude, longitude, label, index++);
+        } while (body.length() < payloadBytes);
+        return body.append("]}").toString();
+    }
+
+    private static void result(StringBuilder body, double latitude, double longitude, String name, int index) {
+        String label = index == 0 ? name : name + " (" + index + ")";
+        body.append("{\"latitude\":").append(latitude)
+                .append(",\"longitude\":").append(longitude)
+                .append(",\"type\":\"address\",\"name\":\"").append(escape(label))
+                .append("\",\"number\":null,\"postal_code\":null,\"street\":null,\"confidence\":")
+                .append(index == 0 ? 1 : 0.5)
+                .append(",\"region\":\"Fake Region\",\"region_code\":\"FR\",\"county\":\"Fake County\"")
+                .append(",\"locality\":\"Fake Town\",\"administrative_area\":null,\"neighbourhood\":null")
+                .append(",\"country\":\"Fakeland\",\"country_code\":\"FKL\",\"continent\":\"Europe\"")
+                .append(",\"label\":\"").append(escape(label)).append("\"}");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
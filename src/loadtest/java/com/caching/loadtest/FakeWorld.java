@@ -0,0 +1,53 @@
+package com.caching.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The places the load driver asks about: rank {@code k} is the address "k Main Street, Springfield" at a fixed
+ * coordinate. {@link LoadDriver} sends forward lookups for the address and reverse lookups for the coordinate, and
+ * {@link FakePositionstackServer} answers both consistently, so a forward answer also answers the reverse lookup of
+ * the same rank and the other way round.
+ */
+final class FakeWorld {
+
+    // Matches the address however the application normalizes it before calling upstream
+    private static final Pattern ADDRESS = Pattern.compile("^(\\d+),? main street\\b", Pattern.CASE_INSENSITIVE);
+
+    private FakeWorld() {
+    }
+
+    static String address(int rank) {
+        return rank + " Main Street, Springfield";
+    }
+
+    // Spread over the globe in roughly 100m steps so distinct ranks rarely share a cache cell
+    static double latitude(int rank) {
+        return ((rank * 7_919L) % 150_000) / 1000d - 75;
+    }
+
+    static double longitude(int rank) {
+        return ((rank * 104_729L) % 360_000) / 1000d - 180;
+    }
+
+    /**
+     * @return the rank whose address the forward query asks for, or -1 if it is not one of ours
+     */
+    static int rankOf(String query) {
+        Matcher matcher = ADDRESS.matcher(query.trim());
+        if (!matcher.find() || matcher.group(1).length() > 9) {
+            return -1;
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    static URI uriFor(String appUrl, int rank, boolean reverse) {
+        if (reverse) {
+            return URI.create(appUrl + "/reverse-geocoding?latitude=" + latitude(rank) + "&longitude=" + longitude(rank));
+        }
+        return URI.create(appUrl + "/geocoding?address=" + URLEncoder.encode(address(rank), StandardCharsets.UTF_8));
+    }
+}
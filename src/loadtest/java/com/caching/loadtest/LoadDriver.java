@@ -0,0 +1,179 @@
+package com.caching.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop load driver: each worker thread sends the next request as soon as the previous one completes.
+ * Keys are drawn from a {@link ZipfDistribution}; rank {@code k} always maps to the same {@link FakeWorld} address or
+ * coordinate, so the hot keys repeat and the cache hit ratio reflects the skew. A replay sends a fixed number of
+ * requests drawn from a seed instead, so two runs ask the same questions in the same order.
+ */
+@RequiredArgsConstructor
+public class LoadDriver {
+
+    private final HttpClient httpClient;
+    private final String appUrl;
+    private final ZipfDistribution keys;
+    // Share of requests sent to /reverse-geocoding instead of /geocoding
+    private final double reverseShare;
+
+    /**
+     * Drives load for the given duration.
+     *
+     * @param concurrency number of worker threads
+     * @param duration    how long to send requests
+     * @return the latencies and outcomes of every completed request
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public Run run(int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        return drive(concurrency, () -> {
+            if (System.nanoTime() >= deadline) {
+                return null;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return uriFor(keys.next(random), random.nextDouble() < reverseShare);
+        });
+    }
+
+    /**
+     * Sends a fixed sequence of requests drawn from a seed, as fast as the workers complete them.
+     *
+     * @param concurrency number of worker threads
+     * @param requests    how many requests to send
+     * @param seed        seed of the request sequence
+     * @return the latencies and outcomes of every completed request
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public Run replay(int concurrency, int requests, long seed) throws InterruptedException {
+        Random random = new Random(seed);
+        URI[] uris = new URI[requests];
+        for (int i = 0; i < requests; i++) {
+            uris[i] = uriFor(keys.next(random), random.nextDouble() < reverseShare);
+        }
+        AtomicInteger next = new AtomicInteger();
+        return drive(concurrency, () -> {
+            int index = next.getAndIncrement();
+            return index < uris.length ? uris[index] : null;
+        });
+    }
+
+    private Run drive(int concurrency, Supplier<URI> requests) throws InterruptedException {
+        List<Worker> workers = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(requests);
+            worker.thread = new Thread(worker, "load-driver-" + i);
+            worker.thread.start();
+            workers.add(worker);
+        }
+        for (Worker worker : workers) {
+            worker.thread.join();
+        }
+        return new Run(workers, System.nanoTime() - started);
+    }
+
+    URI uriFor(int rank, boolean reverse) {
+        return FakeWorld.uriFor(appUrl, rank, reverse);
+    }
+
+    private class Worker implements Runnable {
+
+        // The next request to send, or null when done
+        private final Supplier<URI> requests;
+        private Thread thread;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Worker(Supplier<URI> requests) {
+            this.requests = requests;
+        }
+
+        @Override
+        public void run() {
+            URI uri;
+            while ((uri = requests.get()) != null) {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .GET()
+                        .build();
+                long sent = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors++;
+                    }
+                } catch (IOException e) {
+                    errors++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - sent;
+            }
+        }
+    }
+
+    /**
+     * Outcome of one {@link #run(int, Duration)} or {@link #replay(int, int, long)}.
+     */
+    @Getter
+    public static class Run {
+
+        private final long requests;
+        private final long errors;
+        private final long elapsedNanos;
+        // Sorted, in nanoseconds
+        private final long[] latencies;
+
+        private Run(List<Worker> workers, long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+            this.requests = workers.stream().mapToLong(worker -> worker.count).sum();
+            this.errors = workers.stream().mapToLong(worker -> worker.errors).sum();
+            this.latencies = new long[(int) requests];
+            int offset = 0;
+            for (Worker worker : workers) {
+                System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+                offset += worker.count;
+            }
+            Arrays.sort(latencies);
+        }
+
+        /**
+         * @return completed requests per second
+         */
+        public double throughput() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @param quantile between 0 and 1
+         * @return the latency at the quantile, in milliseconds
+         */
+        public double percentileMillis(double quantile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.caching.loadtest;
+
+import com.caching.GeocodingApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs load-test scenarios end to end. For every scenario it starts a {@link FakePositionstackServer}, starts the
+ * application against it with empty caches, drives a Zipf-distributed workload through {@link LoadDriver} and
+ * reports throughput, latency percentiles, cache hit ratio and upstream calls. Replay scenarios send the same seeded
+ * requests from a cold start, so their upstream calls can be compared; {@code round-trip} against
+ * {@code round-trip-baseline} shows the upstream calls saved by filling each cache from the other direction.
+ * <p>
+ * Run with {@code mvn -P loadtest test-compile exec:exec [-Dloadtest.args="..."]}. Options:
+ * <ul>
+ * <li>{@code --scenarios=steady,slow-upstream,...}: built-in scenarios to run, all by default</li>
+ * <li>{@code --duration, --warmup, --concurrency, --keys, --zipf, --reverse-share, --replay-requests}: workload
+ * overrides</li>
+ * <li>{@code --median-latency, --p99-latency, --error-rate, --payload-bytes}: fake upstream overrides</li>
+ * <li>{@code --app.<property>=<value>}: application property overrides, e.g. {@code --app.geocoding.http.max-connections=100}</li>
+ * <li>{@code --report=<file>}: JSON report, {@code target/loadtest-report.json} by default</li>
+ * </ul>
+ * Overrides apply to every selected scenario.
+ */
+@Slf4j
+public final class LoadTestRunner {
+
+    private static final Map<String, Scenario> SCENARIOS = new LinkedHashMap<>();
+    private static final long REPLAY_SEED = 42;
+
+    static {
+        register(Scenario.builder().name("steady").build());
+        register(Scenario.builder().name("slow-upstream")
+                .medianLatency(Duration.ofMillis(400)).p99Latency(Duration.ofSeconds(2)).build());
+        register(Scenario.builder().name("flaky-upstream").errorRate(0.05).build());
+        register(Scenario.builder().name("large-payload").payloadBytes(16 * 1024).build());
+        register(Scenario.builder().name("long-tail").zipfExponent(0.6).build());
+        register(Scenario.builder().name("round-trip").reverseShare(0.5).replayRequests(200_000).build());
+        register(Scenario.builder().name("round-trip-baseline").reverseShare(0.5).replayRequests(200_000)
+                .appProperty("geocoding.cache.cross-populate.enabled", "false").build());
+    }
+
+    private LoadTestRunner() {
+    }
+
+    private static void register(Scenario scenario) {
+        SCENARIOS.put(scenario.getName(), scenario);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        List<ScenarioResult> results = new ArrayList<>();
+        for (String name : options.getOrDefault("scenarios", String.join(",", SCENARIOS.keySet())).split(",")) {
+            Scenario scenario = SCENARIOS.get(name.trim());
+            if (scenario == null) {
+                throw new IllegalArgumentException("Unknown scenario '" + name + "', expected one of " + SCENARIOS.keySet());
+            }
+            results.add(run(withOverrides(scenario, options)));
+        }
+        print(results);
+        Path report = Path.of(options.getOrDefault("report", "target/loadtest-report.json"));
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), results);
+        System.out.println("Report written to " + report);
+    }
+
+    private static Scenario withOverrides(Scenario scenario, Map<String, String> options) {
+        Scenario.ScenarioBuilder builder = scenario.toBuilder();
+        options.forEach((name, value) -> {
+            switch (name) {
+                case "scenarios":
+                case "report":
+                    break;
+                case "duration":
+                    builder.duration(DurationStyle.detectAndParse(value));
+                    break;
+                case "warmup":
+                    builder.warmup(DurationStyle.detectAndParse(value));
+                    break;
+                case "concurrency":
+                    builder.concurrency(Integer.parseInt(value));
+                    break;
+                case "keys":
+                    builder.keys(Integer.parseInt(value));
+                    break;
+                case "zipf":
+                    builder.zipfExponent(Double.parseDouble(value));
+                    break;
+                case "reverse-share":
+                    builder.reverseShare(Double.parseDouble(value));
+                    break;
+                case "replay-requests":
+                    builder.replayRequests(Integer.parseInt(value));
+                    break;
+                case "median-latency":
+                    builder.medianLatency(DurationStyle.detectAndParse(value));
+                    break;
+                case "p99-latency":
+                    builder.p99Latency(DurationStyle.detectAndParse(value));
+                    break;
+                case "error-rate":
+                    builder.errorRate(Double.parseDouble(value));
+                    break;
+                case "payload-bytes":
+                    builder.payloadBytes(Integer.parseInt(value));
+                    break;
+                default:
+                    if (!name.startsWith("app.")) {
+                        throw new IllegalArgumentException("Unknown option: --" + name);
+                    }
+                    builder.appProperty(name.substring("app.".length()), value);
+            }
+        });
+        return builder.build();
+    }
+
+    private static ScenarioResult run(Scenario scenario) throws IOException, InterruptedException {
+        log.info("Running scenario {}", scenario);
+        try (FakePositionstackServer upstream = new FakePositionstackServer(scenario.getMedianLatency(),
+                scenario.getP99Latency(), scenario.getErrorRate(), scenario.getPayloadBytes(), scenario.getKeys());
+             ConfigurableApplicationContext app = startApplication(upstream, scenario)) {
+            MeterRegistry meterRegistry = app.getBean(MeterRegistry.class);
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver(HttpClient.newBuilder().build(), "http://127.0.0.1:" + port,
+                    new ZipfDistribution(scenario.getKeys(), scenario.getZipfExponent()), scenario.getReverseShare());
+
+            boolean replay = scenario.getReplayRequests() > 0;
+            if (!replay) {
+                driver.run(scenario.getConcurrency(), scenario.getWarmup());
+            }
+            double hitsBefore = cacheGets(meterRegistry, "hit");
+            double missesBefore = cacheGets(meterRegistry, "miss");
+            double crossPopulatedHitsBefore = crossPopulatedHits(meterRegistry);
+            long callsBefore = upstream.getCalls();
+            long errorsBefore = upstream.getErrors();
+
+            LoadDriver.Run run = replay
+                    ? driver.replay(scenario.getConcurrency(), scenario.getReplayRequests(), REPLAY_SEED)
+                    : driver.run(scenario.getConcurrency(), scenario.getDuration());
+            double hits = cacheGets(meterRegistry, "hit") - hitsBefore;
+            double misses = cacheGets(meterRegistry, "miss") - missesBefore;
+            return new ScenarioResult(scenario.getName(), run.getRequests(), run.getErrors(), run.throughput(),
+                    run.percentileMillis(0.5), run.percentileMillis(0.9), run.percentileMillis(0.99),
+                    run.percentileMillis(0.999), run.percentileMillis(1),
+                    hits + misses > 0 ? hits / (hits + misses) : 0,
+                    upstream.getCalls() - callsBefore, upstream.getErrors() - errorsBefore,
+                    crossPopulatedHits(meterRegistry) - crossPopulatedHitsBefore);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(FakePositionstackServer upstream, Scenario scenario) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("geocoding.upstream.base-url", upstream.getBaseUrl());
+        // The fake server has no plan quota; pass --app.geocoding.upstream.rate-limit.* to test the real one
+        properties.put("geocoding.upstream.rate-limit.requests-per-second", "100000");
+        properties.put("geocoding.upstream.rate-limit.burst", "100000");
+        // Every scenario starts cold and leaves nothing behind
+        properties.put("geocoding.cache.disk.enabled", "false");
+        properties.put("geocoding.cache.warmup.file", "");
+        properties.put("geocoding.audit.file", "target/loadtest-audit/mappings.log");
+        properties.put("logging.level.com.caching", "WARN");
+        // Tomcat reports the upstream HttpClient's idle workers as leaks when each scenario's context closes
+        properties.put("logging.level.org.apache.catalina.loader", "ERROR");
+        properties.putAll(scenario.getAppProperties());
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(GeocodingApplication.class).run(args);
+    }
+
+    // Sums the Caffeine cache.gets statistic of every cache for the given result
+    private static double cacheGets(MeterRegistry meterRegistry, String result) {
+        return meterRegistry.find("cache.gets").tag("result", result).meters().stream()
+                .map(Meter::measure)
+                .flatMap(measurements -> StreamSupport.stream(measurements.spliterator(), false))
+                .mapToDouble(measurement -> measurement.getValue())
+                .sum();
+    }
+
+    private static double crossPopulatedHits(MeterRegistry meterRegistry) {
+        return meterRegistry.find("geocoding.cache.cross-populated.hits").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static void print(List<ScenarioResult> results) {
+        System.out.printf("%n%-20s %10s %8s %10s %9s %9s %9s %9s %9s %7s %10s %9s %11s%n", "scenario", "requests",
+                "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "hit %", "upstream",
+                "up errs", "cross hits");
+        Map<String, ScenarioResult> byName = new LinkedHashMap<>();
+        for (ScenarioResult result : results) {
+            System.out.printf("%-20s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7.2f %10d %9d %11.0f%n",
+                    result.getScenario(), result.getRequests(), result.getErrors(), result.getThroughputPerSecond(),
+                    result.getP50Millis(), result.getP90Millis(), result.getP99Millis(), result.getP999Millis(),
+                    result.getMaxMillis(), result.getHitRatio() * 100, result.getUpstreamCalls(),
+                    result.getUpstreamErrors(), result.getCrossPopulatedHits());
+            byName.put(result.getScenario(), result);
+        }
+        ScenarioResult crossPopulated = byName.get("round-trip");
+        ScenarioResult baseline = byName.get("round-trip-baseline");
+        if (crossPopulated != null && baseline != null && baseline.getUpstreamCalls() > 0) {
+            long saved = baseline.getUpstreamCalls() - crossPopulated.getUpstreamCalls();
+            System.out.printf("%nCross-population saved %d of %d upstream calls (%.1f%%) on the replayed workload%n",
+                    saved, baseline.getUpstreamCalls(), saved * 100.0 / baseline.getUpstreamCalls());
+        }
+    }
+}
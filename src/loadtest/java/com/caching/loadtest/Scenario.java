@@ -0,0 +1,46 @@
+package com.caching.loadtest;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * One load-test run: how the fake upstream behaves, what the workload looks like and any application properties
+ * to override. Every scenario runs against a freshly started application with empty caches.
+ */
+@Value
+@Builder(toBuilder = true)
+public class Scenario {
+
+    String name;
+    // Fake upstream behaviour
+    @Builder.Default
+    Duration medianLatency = Duration.ofMillis(80);
+    @Builder.Default
+    Duration p99Latency = Duration.ofMillis(300);
+    @Builder.Default
+    double errorRate = 0;
+    @Builder.Default
+    int payloadBytes = 1024;
+    // Workload
+    @Builder.Default
+    int keys = 100_000;
+    @Builder.Default
+    double zipfExponent = 1.0;
+    @Builder.Default
+    double reverseShare = 0.3;
+    @Builder.Default
+    int concurrency = 32;
+    @Builder.Default
+    Duration warmup = Duration.ofSeconds(5);
+    @Builder.Default
+    Duration duration = Duration.ofSeconds(30);
+    // When positive, replay this many requests from a fixed seed instead of running for the warm-up and duration
+    @Builder.Default
+    int replayRequests = 0;
+    @Singular
+    Map<String, String> appProperties;
+}
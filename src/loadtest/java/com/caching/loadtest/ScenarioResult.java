@@ -0,0 +1,26 @@
+package com.caching.loadtest;
+
+import lombok.Value;
+
+/**
+ * Measured outcome of a {@link Scenario}, excluding its warm-up. Latencies are in milliseconds as seen by the
+ * load driver; the hit ratio is taken from the in-memory caches' own statistics.
+ */
+@Value
+public class ScenarioResult {
+
+    String scenario;
+    long requests;
+    long errors;
+    double throughputPerSecond;
+    double p50Millis;
+    double p90Millis;
+    double p99Millis;
+    double p999Millis;
+    double maxMillis;
+    double hitRatio;
+    long upstreamCalls;
+    long upstreamErrors;
+    // Lookups answered from an entry filled by an upstream answer for the opposite direction
+    double crossPopulatedHits;
+}
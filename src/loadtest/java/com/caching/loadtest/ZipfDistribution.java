@@ -0,0 +1,50 @@
+package com.caching.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipf-distributed ranks in {@code [0, keys)}: rank {@code k} is drawn with probability proportional to
+ * {@code 1 / (k + 1)^exponent}, so a few hot keys take most of the traffic, as real geocoding queries do.
+ * Sampling is a binary search over the precomputed cumulative distribution and is thread-safe.
+ */
+public class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    /**
+     * @param keys     number of distinct keys
+     * @param exponent skew; 0 is uniform, around 1 is typical of web traffic
+     */
+    public ZipfDistribution(int keys, double exponent) {
+        if (keys < 1) {
+            throw new IllegalArgumentException("keys must be positive");
+        }
+        cumulative = new double[keys];
+        double sum = 0;
+        for (int rank = 0; rank < keys; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < keys; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    /**
+     * @return the next rank, 0 being the most frequent
+     */
+    public int next() {
+        return next(ThreadLocalRandom.current());
+    }
+
+    /**
+     * @param random the source of randomness, e.g. a seeded one to replay the same sequence
+     * @return the next rank, 0 being the most frequent
+     */
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,265 @@
+package com.caching.audit;
+
+import com.caching.dto.GeoPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of every address/coordinate mapping resolved upstream, kept off the request path.
+ * <p>
+ * Request threads only allocate a small record and append it to a lock-free queue, bounded by
+ * {@code geocoding.audit.queue-capacity} through an atomic counter. A background writer drains the queue in batches
+ * of up to {@code geocoding.audit.batch-size} into a {@link RollingAuditFile}, one tab-separated line per mapping:
+ * {@code epochMillis, F|R, address, latitude, longitude}, where F marks a forward and R a reverse lookup. The writer
+ * flushes whenever the queue runs dry and then sleeps up to {@code geocoding.audit.flush-interval}, unless a full batch
+ * builds up first.
+ * <p>
+ * When the queue is full, the {@code drop} policy discards the record, and the {@code block} policy makes the request
+ * thread wait up to {@code geocoding.audit.block-timeout} for space before discarding it. Written, dropped and failed
+ * records and blocked producers are counted.
+ */
+@Slf4j
+@Component
+public class MappingAuditLog implements DisposableBean {
+
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long blockTimeoutNanos;
+    private final OverflowPolicy overflow;
+    private final Queue<MappingRecord> queue = new ConcurrentLinkedQueue<>();
+    // Records queued or being written; reserving a slot is one atomic increment
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Counter blocked;
+    private final RollingAuditFile file;
+    private final Thread writer;
+    private volatile boolean running;
+
+    public MappingAuditLog(MeterRegistry meterRegistry,
+                           @Value("${geocoding.audit.enabled:true}") boolean enabled,
+                           @Value("${geocoding.audit.file:audit/mappings.log}") String file,
+                           @Value("${geocoding.audit.max-file-size:64MB}") DataSize maxFileSize,
+                           @Value("${geocoding.audit.max-files:10}") int maxFiles,
+                           @Value("${geocoding.audit.queue-capacity:65536}") int capacity,
+                           @Value("${geocoding.audit.batch-size:512}") int batchSize,
+                           @Value("${geocoding.audit.flush-interval:1s}") Duration flushInterval,
+                           @Value("${geocoding.audit.overflow:drop}") String overflow,
+                           @Value("${geocoding.audit.block-timeout:50ms}") Duration blockTimeout) {
+        this.enabled = enabled;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, this.capacity));
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.overflow = OverflowPolicy.valueOf(overflow.trim().toUpperCase());
+        this.written = recordCounter(meterRegistry, "written");
+        this.dropped = recordCounter(meterRegistry, "dropped");
+        this.failed = recordCounter(meterRegistry, "failed");
+        this.blocked = Counter.builder("geocoding.audit.blocked")
+                .description("Mapping audit records whose request thread waited for queue space")
+                .register(meterRegistry);
+        Gauge.builder("geocoding.audit.queue.size", queued, AtomicInteger::get)
+                .description("Mapping audit records waiting to be written")
+                .register(meterRegistry);
+        if (!enabled) {
+            this.file = null;
+            this.writer = null;
+            return;
+        }
+        try {
+            this.file = new RollingAuditFile(Path.of(file), maxFileSize.toBytes(), maxFiles, 64 * 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open mapping audit file " + file, e);
+        }
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, "mapping-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Auditing mappings to {} ({} overflow policy, queue capacity {})", file, this.overflow, this.capacity);
+    }
+
+    private static Counter recordCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("geocoding.audit.records")
+                .description("Mapping audit records by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a forward mapping.
+     *
+     * @param address     the address as requested
+     * @param coordinates the coordinates it was mapped to
+     */
+    public void recordCoordinates(String address, GeoPoint coordinates) {
+        if (enabled && coordinates != null) {
+            offer(new MappingRecord(System.currentTimeMillis(), 'F', address,
+                    coordinates.getLatitude(), coordinates.getLongitude()));
+        }
+    }
+
+    /**
+     * Records a reverse mapping.
+     *
+     * @param latitude  the requested latitude
+     * @param longitude the requested longitude
+     * @param address   the address the coordinates were mapped to
+     */
+    public void recordAddress(double latitude, double longitude, String address) {
+        if (enabled && address != null && !address.isEmpty()) {
+            offer(new MappingRecord(System.currentTimeMillis(), 'R', address, latitude, longitude));
+        }
+    }
+
+    private void offer(MappingRecord record) {
+        int size = reserve();
+        if (size < 0) {
+            size = overflow == OverflowPolicy.BLOCK ? awaitSpace() : -1;
+            if (size < 0) {
+                dropped.increment();
+                return;
+            }
+        }
+        queue.offer(record);
+        if (size == batchSize) {
+            // A full batch is waiting; do not leave it until the flush interval
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * @return the queue size including the reserved slot, or -1 if the queue is full
+     */
+    private int reserve() {
+        int size = queued.incrementAndGet();
+        if (size > capacity) {
+            queued.decrementAndGet();
+            return -1;
+        }
+        return size;
+    }
+
+    private int awaitSpace() {
+        blocked.increment();
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            int size = reserve();
+            if (size >= 0) {
+                return size;
+            }
+        } while (running && System.nanoTime() - deadline < 0);
+        return -1;
+    }
+
+    private void writeLoop() {
+        StringBuilder batch = new StringBuilder(batchSize * 64);
+        while (running) {
+            if (writeBatch(batch) < batchSize) {
+                flush();
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        // Shutting down: write what is left
+        while (writeBatch(batch) > 0) {
+            // keep draining
+        }
+        flush();
+    }
+
+    private int writeBatch(StringBuilder batch) {
+        batch.setLength(0);
+        int count = 0;
+        MappingRecord record;
+        while (count < batchSize && (record = queue.poll()) != null) {
+            record.appendTo(batch);
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        queued.addAndGet(-count);
+        try {
+            byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+            file.write(bytes, bytes.length);
+            written.increment(count);
+        } catch (IOException e) {
+            failed.increment(count);
+            log.error("Failed to write {} mapping audit records: {}", count, e.getMessage());
+        }
+        return count;
+    }
+
+    private void flush() {
+        try {
+            file.flush();
+        } catch (IOException e) {
+            log.error("Failed to flush mapping audit file: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        file.close();
+    }
+
+    private static final class MappingRecord {
+
+        private final long timestamp;
+        private final char direction;
+        private final String address;
+        private final double latitude;
+        private final double longitude;
+
+        MappingRecord(long timestamp, char direction, String address, double latitude, double longitude) {
+            this.timestamp = timestamp;
+            this.direction = direction;
+            this.address = address;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        void appendTo(StringBuilder out) {
+            out.append(timestamp).append('\t').append(direction).append('\t');
+            // Keep one record per line whatever the address contains
+            for (int i = 0; i < address.length(); i++) {
+                char c = address.charAt(i);
+                out.append(c == '\t' || c == '\n' || c == '\r' ? ' ' : c);
+            }
+            out.append('\t').append(latitude).append('\t').append(longitude).append('\n');
+        }
+    }
+}
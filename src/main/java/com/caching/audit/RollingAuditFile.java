@@ -0,0 +1,100 @@
+package com.caching.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file that rolls over by size: once {@code maxBytes} have been written, {@code name} is renamed to
+ * {@code name.1} (shifting older files up to {@code name.<maxFiles>}, and deleting the oldest) and a fresh file is
+ * started. Not thread-safe; it is only written by the audit writer thread.
+ */
+@Slf4j
+class RollingAuditFile implements Closeable {
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final int bufferBytes;
+    private OutputStream out;
+    private long size;
+
+    /**
+     * @param file        the active file
+     * @param maxBytes    size after which the file is rolled
+     * @param maxFiles    how many rolled files are kept besides the active one
+     * @param bufferBytes write buffer size
+     * @throws IOException if the file cannot be opened
+     */
+    RollingAuditFile(Path file, long maxBytes, int maxFiles, int bufferBytes) throws IOException {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(0, maxFiles);
+        this.bufferBytes = bufferBytes;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        open();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                bufferBytes);
+        size = Files.size(file);
+    }
+
+    /**
+     * Appends bytes, rolling the file first if it is full.
+     *
+     * @param bytes  the buffer holding the bytes
+     * @param length how many bytes of the buffer to write
+     * @throws IOException if the bytes cannot be written
+     */
+    void write(byte[] bytes, int length) throws IOException {
+        if (size > 0 && size + length > maxBytes) {
+            roll();
+        }
+        out.write(bytes, 0, length);
+        size += length;
+    }
+
+    /**
+     * Hands buffered bytes to the operating system.
+     *
+     * @throws IOException if the bytes cannot be written
+     */
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private void roll() throws IOException {
+        out.close();
+        if (maxFiles == 0) {
+            Files.delete(file);
+        } else {
+            Files.deleteIfExists(rolled(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                if (Files.exists(rolled(i))) {
+                    Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        log.debug("Rolled mapping audit file {} at {} bytes", file, size);
+        open();
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,24 @@
+package com.caching.cache;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reloads a cached value from its source so that a hot entry can be refreshed in the background
+ * before it expires.
+ */
+public interface CacheReloader {
+
+    /**
+     * Completion value of {@link #reload(String, Object)} when the source definitely has no value for the key
+     * any more, so the cached entry is dropped instead of refreshed.
+     */
+    Object NO_RESULT = new Object();
+
+    /**
+     * @param cacheName the cache the key belongs to
+     * @param key       the cache key to reload
+     * @return a future completed with the fresh value, with null to keep the current value until it expires, or
+     * with {@link #NO_RESULT} to drop the entry
+     */
+    CompletableFuture<Object> reload(String cacheName, Object key);
+}
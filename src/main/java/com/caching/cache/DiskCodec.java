@@ -0,0 +1,134 @@
+package com.caching.cache;
+
+import com.caching.dto.GeoPoint;
+import com.caching.dto.Place;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the key and value types stored by the geocoding caches.
+ * Every value starts with a one-byte type tag, so a log written by an older version stays readable
+ * as long as tags are only ever added. Strings are written as length-prefixed UTF-8 of any size; the older
+ * {@code writeUTF} form, limited to 64 KB, is still read.
+ */
+final class DiskCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte GEO_POINT = 2;
+    private static final byte COORDINATE_PAIR = 3;
+    private static final byte UTF8_STRING = 4;
+    private static final byte PLACE = 5;
+
+    private DiskCodec() {
+    }
+
+    /**
+     * @return true if the object can be written by {@link #write(DataOutput, Object)}
+     */
+    static boolean supports(Object value) {
+        return value == null || value instanceof String || value instanceof GeoPoint || value instanceof Place
+                || isCoordinatePair(value);
+    }
+
+    static void write(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(UTF8_STRING);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        } else if (value instanceof GeoPoint) {
+            GeoPoint point = (GeoPoint) value;
+            out.writeByte(GEO_POINT);
+            out.writeDouble(point.getLatitude());
+            out.writeDouble(point.getLongitude());
+        } else if (value instanceof Place) {
+            writePlace(out, (Place) value);
+        } else if (isCoordinatePair(value)) {
+            List<?> pair = (List<?>) value;
+            out.writeByte(COORDINATE_PAIR);
+            out.writeDouble((Double) pair.get(0));
+            out.writeDouble((Double) pair.get(1));
+        } else {
+            throw new IOException("Unsupported type for disk cache: " + value.getClass().getName());
+        }
+    }
+
+    static Object read(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readUTF();
+            case UTF8_STRING:
+                int length = in.readInt();
+                if (length < 0) {
+                    throw new IOException("Negative string length in disk cache: " + length);
+                }
+                byte[] utf8 = new byte[length];
+                in.readFully(utf8);
+                return new String(utf8, StandardCharsets.UTF_8);
+            case GEO_POINT:
+                return new GeoPoint(in.readDouble(), in.readDouble());
+            case COORDINATE_PAIR:
+                return List.of(in.readDouble(), in.readDouble());
+            case PLACE:
+                return readPlace(in);
+            default:
+                throw new IOException("Unknown disk cache type tag: " + tag);
+        }
+    }
+
+    // Label and country use the tagged string form, so either may be null; precision is its ordinal, or -1
+    private static void writePlace(DataOutput out, Place place) throws IOException {
+        out.writeByte(PLACE);
+        out.writeDouble(place.getLatitude());
+        out.writeDouble(place.getLongitude());
+        write(out, place.getLabel());
+        out.writeDouble(place.getConfidence());
+        out.writeByte(place.getPrecision() != null ? place.getPrecision().ordinal() : -1);
+        write(out, place.getCountry());
+        Place.BoundingBox box = place.getBoundingBox();
+        out.writeBoolean(box != null);
+        if (box != null) {
+            out.writeDouble(box.getMinLatitude());
+            out.writeDouble(box.getMinLongitude());
+            out.writeDouble(box.getMaxLatitude());
+            out.writeDouble(box.getMaxLongitude());
+        }
+    }
+
+    private static Place readPlace(DataInput in) throws IOException {
+        double latitude = in.readDouble();
+        double longitude = in.readDouble();
+        Object label = read(in);
+        double confidence = in.readDouble();
+        byte precision = in.readByte();
+        Object country = read(in);
+        Place.BoundingBox box = in.readBoolean()
+                ? new Place.BoundingBox(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble())
+                : null;
+        if ((label != null && !(label instanceof String)) || (country != null && !(country instanceof String))
+                || precision < -1 || precision >= Place.Precision.values().length) {
+            throw new IOException("Malformed place in disk cache");
+        }
+        return new Place(latitude, longitude, (String) label, confidence,
+                precision < 0 ? null : Place.Precision.values()[precision],
+                country != null ? ((String) country).intern() : null, box);
+    }
+
+    private static boolean isCoordinatePair(Object value) {
+        if (!(value instanceof List)) {
+            return false;
+        }
+        List<?> list = (List<?>) value;
+        return list.size() == 2 && list.get(0) instanceof Double && list.get(1) instanceof Double;
+    }
+}
@@ -0,0 +1,617 @@
+package com.caching.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, disk-backed key/value log used as the second cache tier.
+ * <p>
+ * Each record is {@code [int length][int crc32][byte op][long writtenAt][key][value]}. An in-memory index maps
+ * every live key to the offset of its latest record; it is rebuilt at startup with one sequential scan. A corrupt
+ * record is skipped, scanning forward to the next record whose checksum matches, and a torn record at the tail
+ * (e.g. after a crash) is truncated. Reads are positional and run concurrently.
+ * <p>
+ * Writes are behind: {@link #put} and {@link #remove} only queue the record and note it as the key's pending write,
+ * which reads see straight away, and one background writer appends queued records in batches and moves them from
+ * the pending writes into the index. Only the writer changes the index, so it can also compact the log: once
+ * superseded records outnumber live ones it copies the live records into a new file while reads go on, then swaps
+ * file and index in one step. Past {@code queueCapacity} queued records a put is dropped, leaving the disk tier
+ * with the key's previous value; removals are always queued.
+ * <p>
+ * Records past their TTL are no longer returned by {@link #get(Object)}, but stay indexed until the stale retention
+ * has passed so {@link #getStale(Object)} can still serve them while upstream is unavailable. Past the stale
+ * retention they are not returned at all, and are dropped from the index by the next compaction or restart.
+ */
+@Slf4j
+public class DiskStore implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int HEADER_BYTES = 8;
+    // Larger lengths are treated as corruption when scanning the log
+    private static final int MAX_RECORD_BYTES = 16 << 20;
+    private static final int MIN_RECORDS_FOR_COMPACTION = 10_000;
+    private static final int BATCH_SIZE = 512;
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final Path file;
+    private final long ttlMillis;
+    private final long staleRetentionMillis;
+    private final int queueCapacity;
+    // Held for reading by lookups; held for writing to append a batch, swap a compacted log or clear
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Map<Object, Long> index = new ConcurrentHashMap<>();
+    // The latest queued write of every key whose record the writer has not appended yet
+    private final Map<Object, Write> pending = new ConcurrentHashMap<>();
+    private final Queue<Write> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // Bumped by clear(), so writes queued before it are discarded
+    private volatile long generation;
+    private final Thread writer;
+    private volatile boolean running;
+    private FileChannel channel;
+    private long end;
+    private long totalRecords;
+
+    /**
+     * Opens or creates the log, rebuilds its index and starts its writer.
+     *
+     * @param file           the log file
+     * @param ttl            how long a record stays readable after it was written
+     * @param staleRetention how long after it was written a record can still be read through {@link #getStale}
+     * @param queueCapacity  how many writes can wait for the writer before puts are dropped
+     * @throws IOException if the file cannot be opened
+     */
+    public DiskStore(Path file, Duration ttl, Duration staleRetention, int queueCapacity) throws IOException {
+        this.file = file;
+        this.ttlMillis = ttl.toMillis();
+        this.staleRetentionMillis = Math.max(ttlMillis, staleRetention.toMillis());
+        this.queueCapacity = Math.max(1, queueCapacity);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = open(file);
+        long started = System.nanoTime();
+        rebuildIndex();
+        log.info("Loaded {} entries from {} in {} ms", index.size(), file, (System.nanoTime() - started) / 1_000_000);
+        compactIfNeeded();
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, "disk-cache-writer-" + file.getFileName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * A value read from the log.
+     */
+    public static final class Entry {
+        private final Object value;
+        private final long writtenAt;
+
+        Entry(Object value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public long getWrittenAt() {
+            return writtenAt;
+        }
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the latest value for the key, or null if there is none or it has expired
+     */
+    public Entry get(Object key) {
+        return read(key, false);
+    }
+
+    /**
+     * Reads a value even if it is past its TTL, for use as a fallback when it cannot be refreshed.
+     *
+     * @param key the key to look up
+     * @return the latest value for the key, or null if there is none or it is past the stale retention
+     */
+    public Entry getStale(Object key) {
+        return read(key, true);
+    }
+
+    private Entry read(Object key, boolean allowExpired) {
+        Write write = pending.get(key);
+        if (write != null) {
+            return write.op == PUT ? new Entry(write.value, write.writtenAt) : null;
+        }
+        lock.readLock().lock();
+        try {
+            // Looked up under the lock so compaction cannot move the record in between
+            Long offset = index.get(key);
+            if (offset == null) {
+                return null;
+            }
+            DataInputStream record = readRecord(offset);
+            if (record == null) {
+                return null;
+            }
+            byte op = record.readByte();
+            long writtenAt = record.readLong();
+            Object storedKey = DiskCodec.read(record);
+            if (op != PUT || !key.equals(storedKey) || isDiscardable(writtenAt)) {
+                return null;
+            }
+            if (!allowExpired && isExpired(writtenAt)) {
+                return null;
+            }
+            return new Entry(DiskCodec.read(record), writtenAt);
+        } catch (IOException e) {
+            log.warn("Failed to read disk cache entry for {} from {}: {}", key, file, e.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Queues a value for the key; it is readable at once and appended by the writer. Keys or values of unsupported
+     * types are skipped, and so is the write if the queue is full.
+     *
+     * @param key   the key
+     * @param value the value, may be null
+     */
+    public void put(Object key, Object value) {
+        if (!DiskCodec.supports(key) || key == null || !DiskCodec.supports(value)) {
+            log.debug("Skipping disk cache write for unsupported key or value type: {}", key);
+            return;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            log.debug("Disk cache write queue of {} is full, skipping write for {}", file, key);
+            return;
+        }
+        enqueue(new Write(PUT, key, value, System.currentTimeMillis(), generation));
+    }
+
+    /**
+     * Removes the key at once and queues a tombstone for it.
+     *
+     * @param key the key
+     * @return true if the key was present
+     */
+    public boolean remove(Object key) {
+        Write write = pending.get(key);
+        boolean present = write != null ? write.op == PUT : index.containsKey(key);
+        if (!present) {
+            return false;
+        }
+        // Tombstones are never dropped, or the removed value would come back after a restart
+        queued.incrementAndGet();
+        enqueue(new Write(REMOVE, key, null, System.currentTimeMillis(), generation));
+        return true;
+    }
+
+    private void enqueue(Write write) {
+        pending.put(write.key, write);
+        queue.offer(write);
+        if (queued.get() >= BATCH_SIZE) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Removes every entry and truncates the log. Writes still queued are discarded.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            pending.clear();
+            channel.truncate(0);
+            index = new ConcurrentHashMap<>();
+            end = 0;
+            totalRecords = 0;
+        } catch (IOException e) {
+            log.warn("Failed to clear disk cache {}: {}", file, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed keys, including expired ones kept for {@link #getStale}; writes still queued
+     * are not counted
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Visits every live, unexpired entry.
+     *
+     * @param visitor receives each key and its entry
+     */
+    public void forEach(BiConsumer<Object, Entry> visitor) {
+        Set<Object> keys = new HashSet<>(index.keySet());
+        keys.addAll(pending.keySet());
+        for (Object key : keys) {
+            Entry entry = get(key);
+            if (entry != null) {
+                visitor.accept(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Stops the writer once every queued write is appended, then closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void writeLoop() {
+        List<Write> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            if (writeBatch(batch) < BATCH_SIZE) {
+                LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+            }
+        }
+        // Closing: append what is left
+        while (writeBatch(batch) > 0) {
+            // keep draining
+        }
+    }
+
+    /**
+     * Appends up to one batch of queued writes with a single write call, then compacts if it is due.
+     *
+     * @return how many writes were taken from the queue
+     */
+    private int writeBatch(List<Write> batch) {
+        batch.clear();
+        Write next;
+        while (batch.size() < BATCH_SIZE && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        queued.addAndGet(-batch.size());
+        ByteArrayOutputStream records = new ByteArrayOutputStream(batch.size() * 64);
+        List<Write> encoded = new ArrayList<>(batch.size());
+        long[] offsets = new long[batch.size()];
+        lock.writeLock().lock();
+        try {
+            for (Write write : batch) {
+                if (write.generation != generation) {
+                    // Queued before a clear()
+                    pending.remove(write.key, write);
+                    continue;
+                }
+                try {
+                    byte[] record = encode(write.op, write.key, write.value, write.writtenAt);
+                    offsets[encoded.size()] = end + records.size();
+                    records.write(record);
+                    encoded.add(write);
+                } catch (IOException e) {
+                    log.warn("Failed to encode disk cache entry for {}: {}", write.key, e.getMessage());
+                    pending.remove(write.key, write);
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, end + buffer.position());
+            }
+            end += records.size();
+            totalRecords += encoded.size();
+            // Index and pending writes change together, under the lock, so a lookup always sees one of them
+            for (int i = 0; i < encoded.size(); i++) {
+                Write write = encoded.get(i);
+                if (write.op == PUT) {
+                    index.put(write.key, offsets[i]);
+                } else {
+                    index.remove(write.key);
+                }
+                pending.remove(write.key, write);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write {} disk cache entries to {}: {}", batch.size(), file, e.getMessage());
+            batch.forEach(write -> pending.remove(write.key, write));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            compactIfNeeded();
+        } catch (IOException e) {
+            log.warn("Failed to compact disk cache {}: {}", file, e.getMessage());
+        }
+        return batch.size();
+    }
+
+    private static byte[] encode(byte op, Object key, Object value, long writtenAt) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeByte(op);
+        payload.writeLong(writtenAt);
+        DiskCodec.write(payload, key);
+        if (op == PUT) {
+            DiskCodec.write(payload, value);
+        }
+        byte[] body = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + body.length);
+        record.putInt(body.length).putInt((int) crc.getValue()).put(body);
+        return record.array();
+    }
+
+    private DataInputStream readRecord(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, offset);
+        header.flip();
+        int length = header.getInt();
+        header.getInt();
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(body, offset + HEADER_BYTES);
+        return new DataInputStream(new ByteArrayInputStream(body.array()));
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of disk cache file " + file);
+            }
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        long offset = 0;
+        long size = channel.size();
+        long corruptBytes = 0;
+        DataInputStream in = sequentialReader(0);
+        while (offset + HEADER_BYTES <= size) {
+            Record record = decode(in, offset, size);
+            if (record == null) {
+                // Corrupt: fall back to positional reads to find where valid records resume
+                long next = nextValidRecord(offset + 1, size);
+                if (next < 0) {
+                    break;
+                }
+                log.warn("Skipping {} bytes of corrupt records at offset {} in {}", next - offset, offset, file);
+                corruptBytes += next - offset;
+                offset = next;
+                in = sequentialReader(offset);
+                continue;
+            }
+            if (record.op == PUT && !isDiscardable(record.writtenAt)) {
+                index.put(record.key, offset);
+            } else {
+                index.remove(record.key);
+            }
+            totalRecords++;
+            offset += HEADER_BYTES + record.length;
+        }
+        if (offset < size) {
+            log.warn("Truncating {} bytes of incomplete records at the end of {}", size - offset, file);
+            channel.truncate(offset);
+        }
+        end = offset;
+        if (corruptBytes > 0) {
+            // Counts towards compaction, which rewrites the log without the corrupt bytes
+            totalRecords += Math.max(1, corruptBytes / 64);
+        }
+    }
+
+    private DataInputStream sequentialReader(long offset) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(offset)), 1 << 16));
+    }
+
+    /**
+     * @return the first offset from {@code from} holding a record whose checksum matches, or -1 if there is none
+     */
+    private long nextValidRecord(long from, long size) throws IOException {
+        for (long offset = from; offset + HEADER_BYTES <= size; offset++) {
+            if (readValidRecord(offset, size) != null) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the record at the offset with positional reads, for scanning past corruption.
+     */
+    private Record readValidRecord(long offset, long size) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, offset);
+        int length = header.getInt(0);
+        if (length <= 0 || length > MAX_RECORD_BYTES || offset + HEADER_BYTES + length > size) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+        readFully(record, offset);
+        return decode(new DataInputStream(new ByteArrayInputStream(record.array())), offset, size);
+    }
+
+    /**
+     * Reads the record starting at the offset from a stream positioned there.
+     *
+     * @return the record, or null if its length is out of range, its checksum does not match or its key cannot be
+     * decoded; the stream is then left at an unspecified position
+     */
+    private Record decode(DataInputStream records, long offset, long size) throws IOException {
+        int length = records.readInt();
+        int expectedCrc = records.readInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES || offset + HEADER_BYTES + length > size) {
+            return null;
+        }
+        byte[] body = new byte[length];
+        records.readFully(body);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        try {
+            byte op = in.readByte();
+            long writtenAt = in.readLong();
+            Object key = DiskCodec.read(in);
+            return op == PUT || op == REMOVE ? new Record(length, op, writtenAt, key) : null;
+        } catch (IOException e) {
+            log.warn("Unreadable record at offset {} in {}: {}", offset, file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Rewrites the log with only its live records. Runs on the writer thread (or before it starts), the only
+     * thread that appends or changes the index, so the copy needs no lock: lookups keep reading the old file, and
+     * the write lock is only taken to swap in the new file and index. Records past the stale retention are left
+     * out. A clear() during the copy cancels it.
+     */
+    private void compactIfNeeded() throws IOException {
+        if (totalRecords < MIN_RECORDS_FOR_COMPACTION || totalRecords < 2L * index.size()) {
+            return;
+        }
+        long startedGeneration = generation;
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        Map<Object, Long> newIndex = new ConcurrentHashMap<>();
+        long newEnd = 0;
+        try (FileChannel out = open(compacted)) {
+            out.truncate(0);
+            for (Map.Entry<Object, Long> live : index.entrySet()) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                readFully(header, live.getValue());
+                int length = header.getInt(0);
+                ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+                readFully(record, live.getValue());
+                // The body starts with the op byte and the write time
+                if (isDiscardable(record.getLong(HEADER_BYTES + 1))) {
+                    continue;
+                }
+                record.flip();
+                while (record.hasRemaining()) {
+                    out.write(record, newEnd + record.position());
+                }
+                newIndex.put(live.getKey(), newEnd);
+                newEnd += HEADER_BYTES + length;
+            }
+            out.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(compacted);
+            if (generation != startedGeneration) {
+                return;
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            if (generation != startedGeneration) {
+                Files.deleteIfExists(compacted);
+                return;
+            }
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = open(file);
+            log.info("Compacted {} from {} to {} records", file, totalRecords, newIndex.size());
+            index = newIndex;
+            end = newEnd;
+            totalRecords = newIndex.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isExpired(long writtenAt) {
+        return System.currentTimeMillis() - writtenAt > ttlMillis;
+    }
+
+    private boolean isDiscardable(long writtenAt) {
+        return System.currentTimeMillis() - writtenAt > staleRetentionMillis;
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * The decoded header of a record found while scanning the log.
+     */
+    private static final class Record {
+        private final int length;
+        private final byte op;
+        private final long writtenAt;
+        private final Object key;
+
+        Record(int length, byte op, long writtenAt, Object key) {
+            this.length = length;
+            this.op = op;
+            this.writtenAt = writtenAt;
+            this.key = key;
+        }
+    }
+
+    /**
+     * A queued put or tombstone.
+     */
+    private static final class Write {
+        private final byte op;
+        private final Object key;
+        private final Object value;
+        private final long writtenAt;
+        private final long generation;
+
+        Write(byte op, Object key, Object value, long writtenAt, long generation) {
+            this.op = op;
+            this.key = key;
+            this.value = value;
+            this.writtenAt = writtenAt;
+            this.generation = generation;
+        }
+    }
+}
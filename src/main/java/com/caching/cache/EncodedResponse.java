@@ -0,0 +1,23 @@
+package com.caching.cache;
+
+import lombok.Value;
+
+/**
+ * Final HTTP body of a lookup answer, encoded once and written as-is on every hit.
+ */
+@Value
+public class EncodedResponse {
+    // The body exactly as it would be written without the encoded-response mode
+    byte[] body;
+    // Gzip-compressed body, or null if compression is off or would not make the body smaller
+    byte[] gzipBody;
+    // Strong entity tag of the uncompressed body, quoted
+    String etag;
+
+    /**
+     * @return the entity tag of the gzip-compressed body, which is a different representation of the same answer
+     */
+    public String getGzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+}
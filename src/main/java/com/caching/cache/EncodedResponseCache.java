@@ -0,0 +1,95 @@
+package com.caching.cache;
+
+import com.caching.dto.GeoPoint;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the final response body of cached lookup answers, so cache hits skip Jackson serialization and body
+ * allocation. Bodies are held alongside the cached values rather than instead of them: entries are keyed by the
+ * identity of the value instance the 'geocoding' and 'reverse-geocoding' caches hold, with weak keys, so a body lives
+ * exactly as long as its cached value and evictions, refreshes and policy changes need no extra invalidation.
+ * <p>
+ * Each body carries a strong ETag (an MD5 of the uncompressed bytes, as Spring's ShallowEtagHeaderFilter computes it)
+ * and, with {@code geocoding.response-cache.gzip}, a gzip-compressed copy when that is smaller.
+ */
+@Component
+public class EncodedResponseCache {
+
+    @Getter
+    private final boolean enabled;
+    private final boolean gzip;
+    private final int gzipMinBytes;
+    private final ObjectMapper objectMapper;
+    private final Cache<Object, EncodedResponse> responses;
+
+    public EncodedResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${geocoding.response-cache.enabled:false}") boolean enabled,
+                                @Value("${geocoding.response-cache.gzip:false}") boolean gzip,
+                                @Value("${geocoding.response-cache.gzip-min-bytes:256}") int gzipMinBytes) {
+        this.enabled = enabled;
+        this.gzip = gzip;
+        this.gzipMinBytes = gzipMinBytes;
+        this.objectMapper = objectMapper;
+        // Weak keys compare by identity, which is what ties a body to one cached value instance
+        this.responses = Caffeine.newBuilder()
+                .weakKeys()
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "encoded-responses");
+    }
+
+    /**
+     * @param coordinates a forward geocoding answer, preferably the instance held by the 'geocoding' cache
+     * @return its JSON body, encoded on first use
+     */
+    public EncodedResponse forCoordinates(GeoPoint coordinates) {
+        return responses.get(coordinates, value -> encode(toJson(value)));
+    }
+
+    /**
+     * @param address a reverse geocoding answer, preferably the instance held by the 'reverse-geocoding' cache
+     * @return its UTF-8 plain-text body, encoded on first use
+     */
+    public EncodedResponse forAddress(String address) {
+        return responses.get(address, value -> encode(((String) value).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + value, e);
+        }
+    }
+
+    private EncodedResponse encode(byte[] body) {
+        String etag = "\"0" + DigestUtils.md5DigestAsHex(body) + "\"";
+        byte[] compressed = gzip && body.length >= gzipMinBytes ? compress(body) : null;
+        return new EncodedResponse(body, compressed != null && compressed.length < body.length ? compressed : null, etag);
+    }
+
+    private static byte[] compress(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
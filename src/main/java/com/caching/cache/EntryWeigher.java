@@ -0,0 +1,62 @@
+package com.caching.cache;
+
+import com.caching.dto.GeoPoint;
+import com.caching.dto.Place;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.util.List;
+
+/**
+ * Weighs cache entries by their approximate retained heap size in bytes, so a cache can be bounded by memory
+ * rather than by entry count. Estimates assume a 64-bit JVM with compressed oops and compact strings.
+ */
+public class EntryWeigher implements Weigher<Object, Object> {
+
+    // Caffeine node with write/access order links and the refresh timestamp
+    private static final int NODE_OVERHEAD = 64;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = NODE_OVERHEAD + estimateBytes(key) + estimateBytes(value);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param value a cache key or value
+     * @return its estimated retained size in bytes
+     */
+    static long estimateBytes(Object value) {
+        if (value instanceof String) {
+            String string = (String) value;
+            // String object plus its backing byte[]; one byte per char for Latin-1, two otherwise
+            return 24 + 16 + (long) string.length() * (isLatin1(string) ? 1 : 2);
+        }
+        if (value instanceof GeoPoint) {
+            return 32;
+        }
+        if (value instanceof Place) {
+            Place place = (Place) value;
+            // Country names are interned and shared between places, so they are not counted
+            return 56 + (place.getLabel() != null ? estimateBytes(place.getLabel()) : 0)
+                    + (place.getBoundingBox() != null ? 48 : 0);
+        }
+        if (value instanceof List) {
+            long bytes = 24;
+            for (Object element : (List<?>) value) {
+                bytes += element instanceof Double ? 16 : estimateBytes(element);
+            }
+            return bytes;
+        }
+        // NullValue placeholder or an unknown type
+        return 16;
+    }
+
+    private static boolean isLatin1(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
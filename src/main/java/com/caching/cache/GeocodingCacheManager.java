@@ -0,0 +1,129 @@
+package com.caching.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * {@link CaffeineCacheManager} for the geocoding caches.
+ * <ul>
+ * <li>With a Caffeine factory, every cache is built from its own builder, so caches can be sized and expired
+ * independently.</li>
+ * <li>With a {@link CacheReloader}, every cache is built with a {@link RefreshAheadLoader}, so entries past
+ * {@code refreshAfterWrite} are served stale while they are reloaded in the background. Lookups still only read
+ * the cache; the loader is used for refresh alone.</li>
+ * <li>With a disk directory, every Caffeine cache is wrapped in a {@link TieredCache} backed by a {@link DiskStore},
+ * one log file per cache name, so entries survive restarts.</li>
+ * </ul>
+ * The annotations on the services keep working unchanged.
+ */
+@Slf4j
+public class GeocodingCacheManager extends CaffeineCacheManager implements DisposableBean {
+
+    private final Path diskDirectory;
+    private final Duration diskTtl;
+    private final Duration diskStaleRetention;
+    private final int diskWriteQueueCapacity;
+    private final CacheReloader reloader;
+    private Function<String, Caffeine<Object, Object>> caffeineFactory = name -> Caffeine.newBuilder();
+    // Stores outlive cache re-creation when the Caffeine spec changes
+    private final Map<String, DiskStore> stores = new ConcurrentHashMap<>();
+
+    /**
+     * @param diskDirectory          directory for the disk tier, or null to keep the caches in memory only
+     * @param diskTtl                how long disk entries stay readable
+     * @param diskStaleRetention     how long disk entries stay available as a fallback while upstream is unavailable
+     * @param diskWriteQueueCapacity how many disk writes can wait for each store's background writer
+     * @param reloader               source used to refresh entries ahead of expiry, or null to disable refresh-ahead
+     */
+    public GeocodingCacheManager(Path diskDirectory, Duration diskTtl, Duration diskStaleRetention,
+                                 int diskWriteQueueCapacity, CacheReloader reloader) {
+        this.diskDirectory = diskDirectory;
+        this.diskTtl = diskTtl;
+        this.diskStaleRetention = diskStaleRetention;
+        this.diskWriteQueueCapacity = diskWriteQueueCapacity;
+        this.reloader = reloader;
+    }
+
+    @Override
+    public void setCaffeine(Caffeine<Object, Object> caffeine) {
+        setCaffeineFactory(name -> caffeine);
+    }
+
+    /**
+     * Sets the builder used for each cache, keyed by cache name, and re-creates the existing caches with it.
+     *
+     * @param caffeineFactory returns a fresh Caffeine builder for the given cache name
+     */
+    public void setCaffeineFactory(Function<String, Caffeine<Object, Object>> caffeineFactory) {
+        this.caffeineFactory = caffeineFactory;
+        rebuildCaches();
+    }
+
+    /**
+     * Re-creates every existing cache from the current Caffeine factory. Entries held in memory are dropped; the disk
+     * tier is kept.
+     */
+    public void rebuildCaches() {
+        for (String name : getCacheNames()) {
+            registerCustomCache(name, createNativeCaffeineCache(name));
+        }
+    }
+
+    @Override
+    protected com.github.benmanes.caffeine.cache.Cache<Object, Object> createNativeCaffeineCache(String name) {
+        Caffeine<Object, Object> caffeine = caffeineFactory.apply(name);
+        if (reloader == null) {
+            return caffeine.build();
+        }
+        DiskStore store = diskDirectory != null ? stores.computeIfAbsent(name, this::openStore) : null;
+        return caffeine.build(new RefreshAheadLoader(name, reloader, store));
+    }
+
+    @Override
+    protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        CaffeineCache l1 = new CaffeineCache(name, cache, isAllowNullValues()) {
+            @Override
+            protected Object lookup(Object key) {
+                // The native cache is a LoadingCache only so Caffeine can refresh ahead; a lookup must not load,
+                // or every miss would be recorded as a load failure
+                return getNativeCache().getIfPresent(key);
+            }
+        };
+        if (diskDirectory == null) {
+            return l1;
+        }
+        return new TieredCache(l1, stores.computeIfAbsent(name, this::openStore));
+    }
+
+    private DiskStore openStore(String name) {
+        try {
+            return new DiskStore(diskDirectory.resolve(name + ".log"), diskTtl, diskStaleRetention,
+                    diskWriteQueueCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open disk cache for '" + name + "' in " + diskDirectory, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        stores.forEach((name, store) -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                log.warn("Failed to close disk cache for '{}': {}", name, e.getMessage());
+            }
+        });
+    }
+}
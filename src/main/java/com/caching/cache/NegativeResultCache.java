@@ -0,0 +1,83 @@
+package com.caching.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Remembers queries that upstream answered with no result, so repeating them does not cost an upstream call.
+ * Entries hold the "no data" message to answer with and live in their own memory-only Caffeine cache with a short
+ * TTL, bounded by {@link EntryWeigher} weight, apart from the positive caches. Only definite "no result" answers
+ * belong here; transient failures (transport errors, non-200 statuses, unparseable bodies) must never be recorded.
+ */
+@Slf4j
+@Component
+public class NegativeResultCache {
+
+    @Getter
+    private final boolean enabled;
+    private final Cache<List<Object>, String> results;
+
+    public NegativeResultCache(MeterRegistry meterRegistry,
+                               @Value("${geocoding.cache.negative.enabled:true}") boolean enabled,
+                               @Value("${geocoding.cache.negative.ttl:10m}") Duration ttl,
+                               @Value("${geocoding.cache.negative.maximum-weight:4MB}") DataSize maximumWeight) {
+        this.enabled = enabled;
+        this.results = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maximumWeight.toBytes())
+                .weigher(new EntryWeigher())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "negative-results");
+    }
+
+    /**
+     * @param cacheName the positive cache the query belongs to
+     * @param key       the query's cache key
+     * @return the message upstream's "no result" was reported with, or null if the query is not known to be empty
+     */
+    public String get(String cacheName, Object key) {
+        return enabled ? results.getIfPresent(List.of(cacheName, key)) : null;
+    }
+
+    /**
+     * Records that upstream has no result for a query.
+     *
+     * @param cacheName the positive cache the query belongs to
+     * @param key       the query's cache key
+     * @param message   the message to answer repeated queries with
+     */
+    public void put(String cacheName, Object key, String message) {
+        if (enabled) {
+            log.debug("Caching no-result outcome in '{}' for {}", cacheName, key);
+            results.put(List.of(cacheName, key), message);
+        }
+    }
+
+    /**
+     * @param cacheName the positive cache the query belongs to
+     * @param key       the query's cache key
+     */
+    public void evict(String cacheName, Object key) {
+        results.invalidate(List.of(cacheName, key));
+    }
+
+    /**
+     * Forgets every recorded query of one positive cache.
+     *
+     * @param cacheName the positive cache
+     */
+    public void clear(String cacheName) {
+        results.asMap().keySet().removeIf(key -> key.get(0).equals(cacheName));
+    }
+}
@@ -0,0 +1,65 @@
+package com.caching.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Caffeine loader that only refreshes: once an entry is older than {@code refreshAfterWrite} the next read still
+ * returns the cached value immediately while one asynchronous reload replaces it in the background. Misses are never
+ * loaded here; the cache manager reads the native cache with {@code getIfPresent}, so a miss goes through the regular
+ * coalesced upstream path. A reload that cannot get a fresh value is abandoned, so the current value is kept with its
+ * original write time and still expires on schedule; a reload that finds no result any more drops the entry from
+ * both tiers.
+ */
+@Slf4j
+class RefreshAheadLoader implements CacheLoader<Object, Object> {
+
+    private final String cacheName;
+    private final CacheReloader reloader;
+    // Disk tier kept in step with refreshed entries, or null when the cache is in memory only
+    private final DiskStore store;
+
+    RefreshAheadLoader(String cacheName, CacheReloader reloader, DiskStore store) {
+        this.cacheName = cacheName;
+        this.reloader = reloader;
+        this.store = store;
+    }
+
+    @Override
+    public Object load(Object key) {
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<Object> asyncReload(Object key, Object oldValue, Executor executor) {
+        log.debug("Refreshing '{}' cache entry for {}", cacheName, key);
+        CompletableFuture<Object> refreshed = new CompletableFuture<>();
+        reloader.reload(cacheName, key).whenComplete((value, ex) -> {
+            if (ex != null) {
+                refreshed.completeExceptionally(ex);
+            } else if (value == null) {
+                // Returning oldValue would count as a fresh write and postpone expiry for as long as upstream is
+                // down; a cancelled refresh leaves the entry and its write time alone, and Caffeine does not log it
+                log.debug("Abandoning refresh of '{}' cache entry for {}", cacheName, key);
+                refreshed.cancel(false);
+            } else if (value == CacheReloader.NO_RESULT) {
+                log.debug("Dropping '{}' cache entry for {}: no result any more", cacheName, key);
+                if (store != null) {
+                    store.remove(key);
+                }
+                // Caffeine removes the entry when a reload completes with null
+                refreshed.complete(null);
+            } else {
+                if (store != null) {
+                    store.put(key, value);
+                }
+                refreshed.complete(value);
+            }
+        });
+        return refreshed;
+    }
+}
@@ -0,0 +1,173 @@
+package com.caching.cache;
+
+import com.caching.config.CachePolicyProperties;
+import com.caching.dto.EvictionReport;
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Removes stale and idle cache entries incrementally.
+ * <p>
+ * An entry is stale once it was written more than {@code geocoding.cache.stale.max-age} ago. The max-age must lie
+ * between every cache's soft and hard TTL: past the soft TTL so refresh-ahead gets to reload hot entries first, and
+ * before the hard TTL, at which Caffeine expires the entry anyway. The sweeper removes entries refresh-ahead did not
+ * replace in that window, i.e. ones not read since they turned stale. An entry is idle once it has not been read for
+ * {@code geocoding.cache.stale.max-idle}.
+ * Either kind is only dropped from memory: the disk tier keeps its own TTL, and a disk hit past the soft TTL is
+ * refreshed when it is promoted again.
+ * <p>
+ * A background task scans at most {@code batch-size} keys per cache on every tick and resumes where it stopped on
+ * the next one. Keys are read through the weakly consistent map view and ages through Caffeine's policy, so readers
+ * are never blocked and the scan does not count as an access.
+ */
+@Slf4j
+@Component
+public class StaleEntrySweeper {
+
+    private final CacheManager cacheManager;
+    private final Duration maxAge;
+    private final Duration maxIdle;
+    private final int batchSize;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Pass> passes = new ConcurrentHashMap<>();
+
+    public StaleEntrySweeper(CacheManager cacheManager, MeterRegistry meterRegistry,
+                             CachePolicyProperties policyProperties,
+                             @Value("${geocoding.cache.stale.max-age:50m}") Duration maxAge,
+                             @Value("${geocoding.cache.stale.max-idle:30m}") Duration maxIdle,
+                             @Value("${geocoding.cache.stale.batch-size:1000}") int batchSize) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.maxAge = maxAge;
+        this.maxIdle = maxIdle;
+        this.batchSize = batchSize;
+        for (String cacheName : cacheManager.getCacheNames()) {
+            CachePolicyProperties.Policy policy = policyProperties.policyFor(cacheName);
+            if (maxAge.compareTo(policy.getSoftTtl()) <= 0 || maxAge.compareTo(policy.getHardTtl()) >= 0) {
+                throw new IllegalStateException("geocoding.cache.stale.max-age (" + maxAge + ") must be longer than the"
+                        + " soft TTL (" + policy.getSoftTtl() + ") and shorter than the hard TTL ("
+                        + policy.getHardTtl() + ") of cache '" + cacheName + "'");
+            }
+        }
+    }
+
+    /**
+     * Scans the next batch of keys of every cache.
+     */
+    @Scheduled(fixedDelayString = "${geocoding.cache.stale.interval:60000}", initialDelayString = "${geocoding.cache.stale.interval:60000}")
+    public void sweepIncrementally() {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            Pass pass = passes.computeIfAbsent(cacheName, name -> new Pass(name, cache));
+            if (pass.scan(batchSize)) {
+                EvictionReport report = pass.report();
+                log.debug("Stale sweep of '{}' finished: {}", cacheName, report);
+                passes.remove(cacheName, pass);
+            }
+        }
+    }
+
+    /**
+     * Runs a complete pass over one cache on the calling thread.
+     *
+     * @param cacheName the cache to sweep
+     * @return how many entries were scanned and removed, or null if there is no such cache
+     */
+    public EvictionReport sweep(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return null;
+        }
+        Pass pass = new Pass(cacheName, cache);
+        boolean finished = false;
+        while (!finished) {
+            finished = pass.scan(batchSize);
+        }
+        EvictionReport report = pass.report();
+        log.info("Evicted stale entries from '{}' cache: {}", cacheName, report);
+        return report;
+    }
+
+    /**
+     * One pass over the keys of a cache, resumable across ticks.
+     */
+    private final class Pass {
+        private final String cacheName;
+        private final com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache;
+        private final Iterator<Object> keys;
+        private final long startedAt = System.currentTimeMillis();
+        private final Counter removedByAgeCounter;
+        private final Counter removedByIdleCounter;
+        private long scanned;
+        private long removedByAge;
+        private long removedByIdle;
+
+        @SuppressWarnings("unchecked")
+        private Pass(String cacheName, Cache cache) {
+            this.cacheName = cacheName;
+            this.nativeCache = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+            this.keys = nativeCache.asMap().keySet().iterator();
+            this.removedByAgeCounter = removedCounter(cacheName, "age");
+            this.removedByIdleCounter = removedCounter(cacheName, "idle");
+        }
+
+        /**
+         * @return true once every key has been scanned
+         */
+        private boolean scan(int limit) {
+            Policy<Object, Object> policy = nativeCache.policy();
+            Optional<Policy.FixedExpiration<Object, Object>> writePolicy = policy.expireAfterWrite();
+            Optional<Policy.FixedExpiration<Object, Object>> accessPolicy = policy.expireAfterAccess();
+            // The soft TTL can be raised at runtime; entries refresh-ahead would still reload are left to it
+            boolean refreshedFirst = policy.refreshAfterWrite()
+                    .map(refresh -> refresh.getRefreshesAfter().compareTo(maxAge) >= 0)
+                    .orElse(false);
+            Duration staleAfter = refreshedFirst ? null : maxAge;
+            for (int i = 0; i < limit && keys.hasNext(); i++) {
+                Object key = keys.next();
+                scanned++;
+                Optional<Duration> age = writePolicy.flatMap(expiration -> expiration.ageOf(key));
+                Optional<Duration> idle = accessPolicy.flatMap(expiration -> expiration.ageOf(key));
+                if (staleAfter != null && age.isPresent() && age.get().compareTo(staleAfter) > 0) {
+                    nativeCache.asMap().remove(key);
+                    removedByAge++;
+                    removedByAgeCounter.increment();
+                } else if (idle.isPresent() && idle.get().compareTo(maxIdle) > 0) {
+                    nativeCache.asMap().remove(key);
+                    removedByIdle++;
+                    removedByIdleCounter.increment();
+                }
+            }
+            nativeCache.cleanUp();
+            return !keys.hasNext();
+        }
+
+        private EvictionReport report() {
+            return new EvictionReport(cacheName, scanned, removedByAge, removedByIdle, System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    private Counter removedCounter(String cacheName, String reason) {
+        return Counter.builder("geocoding.cache.stale.removed")
+                .description("Cache entries removed by the stale entry sweeper")
+                .tag("cache", cacheName)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,182 @@
+package com.caching.cache;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Two-tier {@link Cache}: an in-memory Caffeine cache (L1) in front of a {@link DiskStore} (L2).
+ * Reads that miss L1 check L2 and promote hits back into L1; writes and evictions go through to both tiers,
+ * so entries survive restarts and a fresh instance starts warm. An L2 hit older than the refresh threshold is
+ * still served, and is reloaded in the background when L1 supports refresh-ahead.
+ */
+public class TieredCache implements Cache {
+
+    private final CaffeineCache l1;
+    private final DiskStore l2;
+
+    /**
+     * Entries promoted from disk are refreshed once older than L1's {@code refreshAfterWrite}, read on each
+     * promotion so runtime policy changes apply.
+     *
+     * @param l1 the in-memory tier
+     * @param l2 the disk tier
+     */
+    public TieredCache(CaffeineCache l1, DiskStore l2) {
+        this.l1 = l1;
+        this.l2 = l2;
+    }
+
+    /**
+     * @return the in-memory tier
+     */
+    public CaffeineCache getL1() {
+        return l1;
+    }
+
+    /**
+     * @return the disk tier
+     */
+    public DiskStore getL2() {
+        return l2;
+    }
+
+    @Override
+    public String getName() {
+        return l1.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1.getNativeCache();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = l1.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        DiskStore.Entry stored = l2.get(key);
+        if (stored == null) {
+            return null;
+        }
+        l1.put(key, stored.getValue());
+        if (System.currentTimeMillis() - stored.getWrittenAt() > refreshAfterMillis()
+                && l1.getNativeCache() instanceof LoadingCache) {
+            ((LoadingCache<Object, Object>) l1.getNativeCache()).refresh(key);
+        }
+        return new SimpleValueWrapper(stored.getValue());
+    }
+
+    /**
+     * Looks up a value for use as a fallback when it cannot be loaded from upstream: the in-memory value if there is
+     * one, otherwise the disk value even if it is past the disk TTL. Nothing is promoted or refreshed.
+     *
+     * @param key the key to look up
+     * @return the value, or null if neither tier has one
+     */
+    public ValueWrapper getStale(Object key) {
+        ValueWrapper cached = l1.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        DiskStore.Entry stored = l2.getStale(key);
+        return stored != null ? new SimpleValueWrapper(stored.getValue()) : null;
+    }
+
+    private long refreshAfterMillis() {
+        return l1.getNativeCache().policy().refreshAfterWrite()
+                .map(policy -> policy.getRefreshesAfter().toMillis())
+                .orElse(Long.MAX_VALUE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        return l1.get(key, () -> {
+            T value = valueLoader.call();
+            l2.put(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l1.put(key, value);
+        l2.put(key, value);
+    }
+
+    /**
+     * Stores the value unless either tier has one. A disk value is promoted first, so it wins; then L1 decides
+     * atomically, and only the caller whose value L1 took writes it to disk.
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        ValueWrapper previous = l1.putIfAbsent(key, value);
+        if (previous == null) {
+            l2.put(key, value);
+        }
+        return previous;
+    }
+
+    /**
+     * Stores the value in L1 only, unless either tier has one. Meant for values whose age is unknown, such as
+     * warm-up records: written to disk they would be stamped as fresh and outlive the disk TTL across restarts.
+     *
+     * @return the existing value, or null if the value was stored
+     */
+    public ValueWrapper putIfAbsentInMemory(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        return existing != null ? existing : l1.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        l1.evict(key);
+        l2.remove(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean inMemory = l1.evictIfPresent(key);
+        boolean onDisk = l2.remove(key);
+        return inMemory || onDisk;
+    }
+
+    @Override
+    public void clear() {
+        l1.clear();
+        l2.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean inMemory = l1.invalidate();
+        l2.clear();
+        return inMemory;
+    }
+}
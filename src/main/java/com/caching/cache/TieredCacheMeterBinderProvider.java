@@ -0,0 +1,17 @@
+package com.caching.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * Lets Actuator bind the standard Caffeine cache meters for the in-memory tier of a {@link TieredCache}.
+ */
+public class TieredCacheMeterBinderProvider implements CacheMeterBinderProvider<TieredCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TieredCache cache, Iterable<Tag> tags) {
+        return new CaffeineCacheMetrics<>(cache.getL1().getNativeCache(), cache.getName(), tags);
+    }
+}
@@ -0,0 +1,37 @@
+package com.caching.cluster;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Guards the internal peer endpoints: they answer 404 unless peer mode is enabled, and 403 unless the request
+ * carries the shared {@code geocoding.peers.secret} in {@link PeerCacheClient#TOKEN_HEADER}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PeerAccessInterceptor implements HandlerInterceptor {
+
+    private final PeerCacheClient peerCacheClient;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!peerCacheClient.isEnabled()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return false;
+        }
+        if (!peerCacheClient.isAuthorized(request.getHeader(PeerCacheClient.TOKEN_HEADER))) {
+            log.warn("Rejected peer request to {} from {}", request.getRequestURI(), request.getRemoteAddr());
+            response.sendError(HttpStatus.FORBIDDEN.value());
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,251 @@
+package com.caching.cluster;
+
+import com.caching.dto.GeoPoint;
+import com.caching.exceptions.InvalidAddressException;
+import com.caching.exceptions.InvalidCoordinateException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Shares the caches of several instances. Each instance owns the keys the {@link ConsistentHashRing} over
+ * {@code geocoding.peers.members} assigns to it; on a local miss for a key owned by another instance,
+ * {@code GeocodingService} asks the owner through its internal peer endpoint, and the owner coalesces, loads and
+ * caches the entry. Every key is then fetched upstream once for the whole cluster, and cache capacity grows with
+ * the number of instances.
+ * <p>
+ * A peer that cannot be connected to within {@code geocoding.peers.connect-timeout}, or does not answer within
+ * {@code geocoding.peers.timeout}, is skipped for {@code geocoding.peers.down-for}, and its keys are loaded locally
+ * in the meantime, so a peer going down only costs extra upstream calls. The answer timeout has to cover the
+ * owner's own upstream call on a miss.
+ * <p>
+ * Only a 404 carrying {@link #NO_RESULT_HEADER} is taken as the owner knowing there is no result; any other
+ * non-200 answer is treated like an unavailable owner and the key is loaded locally. Peer requests carry the shared
+ * {@code geocoding.peers.secret} in {@link #TOKEN_HEADER}, and the internal endpoints reject requests without it.
+ */
+@Slf4j
+@Component
+public class PeerCacheClient {
+
+    // Header carrying the shared secret on requests to /internal/peers
+    public static final String TOKEN_HEADER = "X-Peer-Token";
+    // Header marking a 404 from /internal/peers as an authoritative "upstream has no result"
+    public static final String NO_RESULT_HEADER = "X-Geocoding-No-Result";
+
+    @Getter
+    private final boolean enabled;
+    private final String self;
+    private final ConsistentHashRing ring;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final Duration downFor;
+    private final byte[] secret;
+    // Peers that recently failed, with the System.nanoTime() after which they are tried again
+    private final Map<String, Long> downUntil = new ConcurrentHashMap<>();
+    // geocoding.peer.requests by cache and outcome, registered once rather than looked up on every request
+    private final Map<String, Map<String, Counter>> requestCounters;
+
+    public PeerCacheClient(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${geocoding.peers.enabled:false}") boolean enabled,
+                           @Value("${geocoding.peers.self:http://localhost:${server.port:8080}}") String self,
+                           @Value("${geocoding.peers.members:}") String members,
+                           @Value("${geocoding.peers.virtual-nodes:160}") int virtualNodes,
+                           @Value("${geocoding.peers.connect-timeout:250ms}") Duration connectTimeout,
+                           @Value("${geocoding.peers.timeout:6s}") Duration timeout,
+                           @Value("${geocoding.peers.down-for:10s}") Duration downFor,
+                           @Value("${geocoding.peers.secret:}") String secret) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.downFor = downFor;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        if (enabled && secret.isBlank()) {
+            throw new IllegalStateException("geocoding.peers.secret must be set when peer mode is enabled");
+        }
+        this.self = normalize(self);
+        List<String> memberList = Arrays.stream(members.split(","))
+                .map(PeerCacheClient::normalize)
+                .filter(member -> !member.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        if (enabled && !memberList.contains(this.self)) {
+            throw new IllegalStateException("geocoding.peers.self (" + this.self
+                    + ") must be one of geocoding.peers.members " + memberList);
+        }
+        this.ring = enabled ? new ConsistentHashRing(memberList, virtualNodes) : null;
+        this.requestCounters = Map.of("geocoding", outcomeCounters(meterRegistry, "geocoding"),
+                "reverse-geocoding", outcomeCounters(meterRegistry, "reverse-geocoding"));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        if (enabled) {
+            log.info("Peer cache sharing enabled as {} with members {}", this.self, memberList);
+        }
+    }
+
+    private static Map<String, Counter> outcomeCounters(MeterRegistry meterRegistry, String cacheName) {
+        return Stream.of("hit", "no-result", "error", "skipped").collect(Collectors.toMap(Function.identity(),
+                outcome -> Counter.builder("geocoding.peer.requests")
+                        .description("Lookups sent to the peer owning a key, by outcome")
+                        .tag("cache", cacheName)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)));
+    }
+
+    private static String normalize(String member) {
+        String trimmed = member.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    /**
+     * @param cacheName the cache the key belongs to
+     * @param key       the cache key
+     * @return the base URL of the peer owning the key, or null if this instance owns it or peer mode is disabled
+     */
+    public String ownerOf(String cacheName, Object key) {
+        if (!enabled) {
+            return null;
+        }
+        String owner = ring.ownerOf(cacheName + ":" + key);
+        return owner.equals(self) ? null : owner;
+    }
+
+    /**
+     * @param token the {@link #TOKEN_HEADER} of a request to the internal peer endpoints, may be null
+     * @return true if peer mode is enabled and the token is the shared secret
+     */
+    public boolean isAuthorized(String token) {
+        return enabled && token != null
+                && MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Asks the owning peer for the coordinates of an address.
+     *
+     * @param owner            the peer returned by {@link #ownerOf(String, Object)}
+     * @param canonicalAddress the canonical address
+     * @return a future completed with the peer's coordinates, or with null if the peer could not answer; completed
+     * exceptionally with {@link InvalidAddressException} if the peer knows there is no result
+     */
+    public CompletableFuture<GeoPoint> fetchCoordinates(String owner, String canonicalAddress) {
+        String path = "/internal/peers/geocoding?address=" + URLEncoder.encode(canonicalAddress, StandardCharsets.UTF_8);
+        return fetch(owner, "geocoding", path, this::parseCoordinates, InvalidAddressException::new);
+    }
+
+    /**
+     * Asks the owning peer for the address at a coordinate.
+     *
+     * @param owner     the peer returned by {@link #ownerOf(String, Object)}
+     * @param latitude  the latitude of the coordinates
+     * @param longitude the longitude of the coordinates
+     * @return a future completed with the peer's address, or with null if the peer could not answer; completed
+     * exceptionally with {@link InvalidCoordinateException} if the peer knows there is no result
+     */
+    public CompletableFuture<String> fetchAddress(String owner, double latitude, double longitude) {
+        String path = "/internal/peers/reverse-geocoding?latitude=" + latitude + "&longitude=" + longitude;
+        return fetch(owner, "reverse-geocoding", path, body -> body, InvalidCoordinateException::new);
+    }
+
+    private <T> CompletableFuture<T> fetch(String owner, String cacheName, String path, Function<String, T> parser,
+                                           Function<String, RuntimeException> noResult) {
+        if (isDown(owner)) {
+            count(cacheName, "skipped");
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(owner + path))
+                .timeout(timeout)
+                .header(TOKEN_HEADER, new String(secret, StandardCharsets.UTF_8))
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, ex) -> {
+            if (ex != null) {
+                markDown(owner, ex);
+                count(cacheName, "error");
+                return null;
+            }
+            if (response.statusCode() == HttpStatus.OK.value()) {
+                count(cacheName, "hit");
+                return parser.apply(response.body());
+            }
+            if (response.statusCode() == HttpStatus.NOT_FOUND.value()
+                    && response.headers().firstValue(NO_RESULT_HEADER).isPresent()) {
+                count(cacheName, "no-result");
+                throw noResult.apply(errorMessage(response.body()));
+            }
+            // The owner is up but could not answer (its upstream circuit is open, it failed, or it rejected the
+            // request); only a marked 404 is authoritative, so load locally
+            log.debug("Peer {} answered {} with HTTP {}", owner, path, response.statusCode());
+            count(cacheName, "error");
+            return null;
+        });
+    }
+
+    private boolean isDown(String owner) {
+        Long until = downUntil.get(owner);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        downUntil.remove(owner, until);
+        log.info("Retrying peer {}", owner);
+        return false;
+    }
+
+    private void markDown(String owner, Throwable ex) {
+        if (downUntil.put(owner, System.nanoTime() + downFor.toNanos()) == null) {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            log.warn("Peer {} is unavailable, loading its keys locally for {}: {}", owner, downFor, cause.toString());
+        }
+    }
+
+    private void count(String cacheName, String outcome) {
+        requestCounters.get(cacheName).get(outcome).increment();
+    }
+
+    private GeoPoint parseCoordinates(String body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            return new GeoPoint(node.path("latitude").asDouble(), node.path("longitude").asDouble());
+        } catch (IOException e) {
+            log.debug("Unreadable peer response: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String errorMessage(String body) {
+        try {
+            return objectMapper.readTree(body).path("message").asText("No data found.");
+        } catch (IOException e) {
+            return "No data found.";
+        }
+    }
+}
@@ -1,41 +1,93 @@
 package com.caching.config;
 
+import com.caching.cache.CacheReloader;
+import com.caching.cache.EntryWeigher;
+import com.caching.cache.GeocodingCacheManager;
+import com.caching.cache.TieredCacheMeterBinderProvider;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CachePolicyProperties.class)
 public class CacheConfig {
 
 
+    private static final List<String> CACHE_NAMES = List.of("geocoding", "reverse-geocoding", "places");
+
+    @Value("${geocoding.cache.disk.enabled:true}")
+    private boolean diskEnabled;
+
+    @Value("${geocoding.cache.disk.directory:cache-data}")
+    private Path diskDirectory;
+
+    @Value("${geocoding.cache.disk.ttl:7d}")
+    private Duration diskTtl;
+
+    // Expired disk entries are kept this long to be served while Positionstack is unavailable
+    @Value("${geocoding.cache.disk.stale-retention:30d}")
+    private Duration diskStaleRetention;
+
+    // Disk writes waiting for the background writer; puts beyond it are skipped
+    @Value("${geocoding.cache.disk.write-queue-capacity:65536}")
+    private int diskWriteQueueCapacity;
+
     /**
-     * Create a cache manager using the caffeine cache builder.
+     * Create a cache manager that builds every cache from its own policy in {@code geocoding.cache.policies}.
+     * Entries are refreshed ahead of expiry through the given reloader. When the disk tier is enabled, every cache is
+     * backed by an on-disk log in {@code geocoding.cache.disk.directory} so entries survive restarts.
      *
-     * @return a cache manager using the caffeine cache builder
+     * @param cacheReloader    reloads entries from upstream once they pass the soft TTL
+     * @param policyProperties the per-cache sizing and expiry
+     * @return a cache manager with one Caffeine cache per configured policy
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+    public CacheManager cacheManager(CacheReloader cacheReloader, CachePolicyProperties policyProperties) {
+        GeocodingCacheManager cacheManager = new GeocodingCacheManager(diskEnabled ? diskDirectory : null, diskTtl,
+                diskStaleRetention, diskWriteQueueCapacity, cacheReloader);
+        cacheManager.setCaffeineFactory(name -> caffeineCacheBuilder(policyProperties.policyFor(name)));
+        // Creating the caches up front lets Actuator bind their hit/miss statistics at startup
+        cacheManager.setCacheNames(CACHE_NAMES);
         return cacheManager;
     }
 
     /**
-     * Builds a Caffeine cache builder to be used by the cache manager.
-     * The cache builder is configured to expire cache entries after 1 hour and to hold a maximum of 1000 entries.
+     * Binds the Caffeine statistics of the in-memory tier when the disk tier is enabled.
      *
-     * @return a {@link Caffeine} cache builder
+     * @return a meter binder provider for tiered caches
      */
     @Bean
-    public Caffeine<Object, Object> caffeineCacheBuilder() {
+    public TieredCacheMeterBinderProvider tieredCacheMeterBinderProvider() {
+        return new TieredCacheMeterBinderProvider();
+    }
+
+    /**
+     * Builds a Caffeine cache builder for one cache.
+     * The cache is bounded by the estimated heap size of its entries, expires them after the hard TTL or once idle,
+     * refreshes them in the background after the soft TTL and records hit/miss/eviction statistics. All bounds can
+     * be changed later through the cache policy; the initial capacity only applies when the cache is created.
+     *
+     * @param policy the cache's policy
+     * @return a {@link Caffeine} cache builder
+     */
+    static Caffeine<Object, Object> caffeineCacheBuilder(CachePolicyProperties.Policy policy) {
         return Caffeine.newBuilder()
-                .expireAfterWrite(1, TimeUnit.HOURS) // Cache entries expire after 1 hour
-                .maximumSize(1000); // Maximum number of entries in the cache
+                .initialCapacity(policy.getInitialCapacity())
+                .maximumWeight(policy.getMaximumWeight().toBytes()) // Estimated bytes held by the cache
+                .weigher(new EntryWeigher())
+                .expireAfterWrite(policy.getHardTtl())
+                .expireAfterAccess(policy.getIdleTtl())
+                // Always set so it can be tuned at runtime; a soft TTL at or past the hard TTL never fires
+                .refreshAfterWrite(policy.getSoftTtl())
+                .recordStats();
     }
 }
@@ -0,0 +1,40 @@
+package com.caching.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache sizing and expiry, bound from {@code geocoding.cache.policies.<cache-name>.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geocoding.cache")
+public class CachePolicyProperties {
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    /**
+     * @param cacheName the cache name
+     * @return the configured policy, or the defaults if the cache has none
+     */
+    public Policy policyFor(String cacheName) {
+        return policies.computeIfAbsent(cacheName, name -> new Policy());
+    }
+
+    @Data
+    public static class Policy {
+        // Upper bound on the estimated heap used by the cache's entries
+        private DataSize maximumWeight = DataSize.ofMegabytes(32);
+        // Entries older than this are expired and the next caller waits for upstream
+        private Duration hardTtl = Duration.ofHours(1);
+        // Entries older than this are served while being refreshed in the background
+        private Duration softTtl = Duration.ofMinutes(45);
+        // Entries not read for this long are expired
+        private Duration idleTtl = Duration.ofHours(1);
+        private int initialCapacity = 1024;
+    }
+}
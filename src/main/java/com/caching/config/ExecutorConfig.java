@@ -0,0 +1,28 @@
+package com.caching.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Builds the executor that starts queued geocoding work, such as batch items waiting for a concurrency permit,
+     * so it neither runs on the common ForkJoinPool nor deepens the stack of the thread that released the permit.
+     * The work it runs only starts non-blocking lookups, so a small fixed pool is enough.
+     *
+     * @param threads the number of worker threads
+     * @return the geocoding executor, shut down with the context
+     */
+    @Bean
+    public ThreadPoolTaskExecutor geocodingExecutor(@Value("${geocoding.executor.threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("geocoding-");
+        executor.setDaemon(true);
+        return executor;
+    }
+}
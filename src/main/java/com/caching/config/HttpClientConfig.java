@@ -0,0 +1,29 @@
+package com.caching.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Builds the shared HTTP client used for upstream geocoding calls.
+     * The client keeps connections alive in its internal pool and sends requests asynchronously,
+     * so no servlet thread is held while Positionstack is responding.
+     *
+     * @param connectTimeout the maximum time to establish a connection
+     * @return a shared {@link HttpClient}
+     */
+    @Bean
+    public HttpClient geocodingHttpClient(@Value("${geocoding.http.connect-timeout:2s}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+}
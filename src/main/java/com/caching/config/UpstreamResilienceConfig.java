@@ -0,0 +1,67 @@
+package com.caching.config;
+
+import com.caching.repository.CircuitBreaker;
+import com.caching.repository.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class UpstreamResilienceConfig {
+
+    /**
+     * Builds the circuit breaker guarding Positionstack calls. Its current state is exported as
+     * {@code geocoding.upstream.circuit.state} (1 for the current state, 0 otherwise) and every transition is counted
+     * in {@code geocoding.upstream.circuit.transitions}.
+     *
+     * @return the Positionstack circuit breaker
+     */
+    @Bean
+    public CircuitBreaker positionstackCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${geocoding.upstream.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${geocoding.upstream.circuit-breaker.slow-call-threshold:3s}") Duration slowCallThreshold,
+            @Value("${geocoding.upstream.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${geocoding.upstream.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${geocoding.upstream.circuit-breaker.open-duration:30s}") Duration openDuration,
+            @Value("${geocoding.upstream.circuit-breaker.half-open-calls:5}") int halfOpenCalls) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("positionstack", failureRateThreshold, slowCallThreshold,
+                windowSize, minimumCalls, openDuration, halfOpenCalls,
+                (from, to) -> Counter.builder("geocoding.upstream.circuit.transitions")
+                        .description("Circuit breaker state changes")
+                        .tag("from", from.name())
+                        .tag("to", to.name())
+                        .register(meterRegistry)
+                        .increment());
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("geocoding.upstream.circuit.state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                    .description("1 if the Positionstack circuit breaker is in this state, 0 otherwise")
+                    .tag("state", state.name())
+                    .register(meterRegistry);
+        }
+        return circuitBreaker;
+    }
+
+    /**
+     * Builds the rate limiter that keeps Positionstack calls within the API plan quota. Its current, adapted rate is
+     * exported as {@code geocoding.upstream.rate-limit.rate}.
+     *
+     * @return the Positionstack rate limiter
+     */
+    @Bean
+    public TokenBucketRateLimiter positionstackRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${geocoding.upstream.rate-limit.requests-per-second:25}") double requestsPerSecond,
+            @Value("${geocoding.upstream.rate-limit.burst:25}") int burst) {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(requestsPerSecond, burst);
+        Gauge.builder("geocoding.upstream.rate-limit.rate", rateLimiter, TokenBucketRateLimiter::getRate)
+                .description("Current Positionstack request rate limit in requests per second")
+                .register(meterRegistry);
+        return rateLimiter;
+    }
+}
@@ -0,0 +1,19 @@
+package com.caching.config;
+
+import com.caching.cluster.PeerAccessInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final PeerAccessInterceptor peerAccessInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(peerAccessInterceptor).addPathPatterns("/internal/peers/**");
+    }
+}
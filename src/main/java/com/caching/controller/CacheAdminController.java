@@ -0,0 +1,89 @@
+package com.caching.controller;
+
+import com.caching.dto.CachePolicyUpdate;
+import com.caching.dto.CachePolicyView;
+import com.caching.service.CacheAdminService;
+import com.caching.service.CacheWarmupService;
+import com.caching.service.WarmupFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/admin/caches")
+@RequiredArgsConstructor
+public class CacheAdminController {
+
+    private final CacheAdminService cacheAdminService;
+    private final CacheWarmupService cacheWarmupService;
+
+    /**
+     * Lists the policy, occupancy and statistics of every cache.
+     *
+     * @return a ResponseEntity with one entry per cache
+     */
+    @GetMapping
+    public ResponseEntity<List<CachePolicyView>> listCaches() {
+        return ResponseEntity.ok(cacheAdminService.describeAll());
+    }
+
+    /**
+     * Returns the policy, occupancy and statistics of one cache.
+     *
+     * @param name the cache name
+     * @return a ResponseEntity with the cache's policy, or HttpStatus.NOT_FOUND if there is no such cache
+     */
+    @GetMapping("/{name}")
+    public ResponseEntity<CachePolicyView> getCache(@PathVariable("name") String name) {
+        CachePolicyView view = cacheAdminService.describe(name);
+        return view != null ? ResponseEntity.ok(view) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Changes the sizing and expiry of a running cache without a restart.
+     *
+     * @param name   the cache name
+     * @param update the fields to change; absent fields are kept
+     * @return a ResponseEntity with the cache's policy after the change, HttpStatus.NOT_FOUND if there is no such
+     * cache, or HttpStatus.BAD_REQUEST if a value is invalid
+     */
+    @PutMapping("/{name}")
+    public ResponseEntity<CachePolicyView> updateCache(@PathVariable("name") String name,
+                                                       @RequestBody CachePolicyUpdate update) {
+        log.debug("Updating policy of cache '{}': {}", name, update);
+        CachePolicyView view = cacheAdminService.update(name, update);
+        return view != null ? ResponseEntity.ok(view) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Exports the hottest entries of both caches in the warm-up file format, so they can be replayed at startup
+     * through {@code geocoding.cache.warmup.file}.
+     *
+     * @param format {@code csv} or {@code jsonl}
+     * @param limit  the maximum number of entries per cache
+     * @return a ResponseEntity streaming the entries as a file download
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportHotSet(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                                              @RequestParam(value = "limit", defaultValue = "100000") int limit) {
+        WarmupFormat warmupFormat = WarmupFormat.valueOf(format.trim().toUpperCase());
+        log.debug("Exporting up to {} hot entries per cache as {}", limit, warmupFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(warmupFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cache-warmup." + warmupFormat.extension() + "\"")
+                .body(out -> cacheWarmupService.export(warmupFormat, Math.max(0, limit), out));
+    }
+}
@@ -1,46 +1,152 @@
 package com.caching.controller;
 
+import com.caching.cache.EncodedResponse;
+import com.caching.cache.EncodedResponseCache;
+import com.caching.dto.BatchResponse;
+import com.caching.dto.Coordinate;
+import com.caching.dto.EvictionReport;
+import com.caching.dto.GeoPoint;
+import com.caching.dto.Place;
+import com.caching.service.BatchGeocodingService;
 import com.caching.service.GeocodingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class GeocodingController {
 
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
     private final GeocodingService geocodingService;
+    private final BatchGeocodingService batchGeocodingService;
+    private final EncodedResponseCache encodedResponseCache;
 
+    @Value("${geocoding.batch.max-size:5000}")
+    private int maxBatchSize;
 
     /**
      * Handles HTTP GET requests for forward geocoding to convert an address into geographic coordinates.
+     * With {@code geocoding.response-cache.enabled}, the JSON body is written from pre-encoded bytes with a strong
+     * ETag, and a request whose If-None-Match matches it is answered with HttpStatus.NOT_MODIFIED.
      *
-     * @param address The address to be converted into latitude and longitude.
-     * @return A ResponseEntity containing a Map with latitude and longitude if the address is valid,
+     * @param address        The address to be converted into latitude and longitude.
+     * @param acceptEncoding The Accept-Encoding header, used to send a gzip-compressed pre-encoded body.
+     * @return A future of a ResponseEntity containing the latitude and longitude if the address is valid,
      * HttpStatus.BAD_REQUEST if the address is null or blank, or HttpStatus.NOT_FOUND if no coordinates are found.
      */
     @GetMapping("/geocoding")
-    public ResponseEntity<Map<String, Double>> forwardGeocoding(@RequestParam("address") String address) {
+    public CompletableFuture<ResponseEntity<?>> forwardGeocoding(@RequestParam("address") String address,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.debug("Forward geocoding request received for address: {}", address);
         //validating the address
         if (address == null || address.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null); // Handle empty or null input
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null)); // Handle empty or null input
         }
-        Map<String, Double> coordinates = geocodingService.getCoordinates(address);
-        //validating the coordinates
-        if (coordinates == null || coordinates.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null); // Handle invalid address
+        // The request thread is released while the upstream call is pending
+        return geocodingService.getCoordinatesAsync(address).thenApply(coordinates -> {
+            //validating the coordinates
+            if (coordinates == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null); // Handle invalid address
+            }
+            if (encodedResponseCache.isEnabled()) {
+                return encoded(encodedResponseCache.forCoordinates(coordinates), MediaType.APPLICATION_JSON, acceptEncoding);
+            }
+            return ResponseEntity.ok(coordinates);
+        });
+    }
+
+    /**
+     * Handles HTTP GET requests for the whole place an address resolves to: coordinates, label, confidence,
+     * precision, country and bounding box, each null (or "NaN" for confidence) when upstream did not report it.
+     *
+     * @param address The address to be resolved.
+     * @return A future of a ResponseEntity containing the place if the address is valid, HttpStatus.BAD_REQUEST if
+     * the address is null or blank, or HttpStatus.NOT_FOUND if no place is found.
+     */
+    @GetMapping("/geocoding/place")
+    public CompletableFuture<ResponseEntity<Place>> place(@RequestParam("address") String address) {
+        log.debug("Place request received for address: {}", address);
+        if (address == null || address.isBlank()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null));
         }
-        return ResponseEntity.ok(coordinates);
+        return geocodingService.getPlaceAsync(address).thenApply(place -> place == null
+                ? ResponseEntity.status(HttpStatus.NOT_FOUND).body(null)
+                : ResponseEntity.ok(place));
     }
+
+    /**
+     * Answers with a pre-encoded body. Spring MVC compares the ETag with If-None-Match and sends
+     * HttpStatus.NOT_MODIFIED without a body when they match.
+     */
+    private static ResponseEntity<byte[]> encoded(EncodedResponse response, MediaType contentType, String acceptEncoding) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(contentType);
+        if (response.getGzipBody() != null) {
+            // The representation depends on Accept-Encoding whenever a compressed copy exists
+            builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .eTag(response.getGzipEtag())
+                        .contentLength(response.getGzipBody().length)
+                        .body(response.getGzipBody());
+            }
+        }
+        return builder.eTag(response.getEtag())
+                .contentLength(response.getBody().length)
+                .body(response.getBody());
+    }
+
+    /**
+     * Handles HTTP POST requests for batch forward geocoding.
+     * Cache hits are answered directly and only the misses are sent upstream with bounded concurrency.
+     *
+     * @param addresses The addresses to be converted into latitude and longitude.
+     * @return A future of a ResponseEntity containing per-address results and errors in request order, or
+     * HttpStatus.BAD_REQUEST if the list is empty or larger than the configured maximum batch size.
+     */
+    @PostMapping("/geocoding/batch")
+    public CompletableFuture<ResponseEntity<BatchResponse<String, GeoPoint>>> batchForwardGeocoding(@RequestBody List<String> addresses) {
+        log.debug("Batch forward geocoding request received for {} addresses", addresses == null ? 0 : addresses.size());
+        if (addresses == null || addresses.isEmpty() || addresses.size() > maxBatchSize) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null));
+        }
+        return batchGeocodingService.getCoordinatesBatch(addresses).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Handles HTTP POST requests for batch reverse geocoding.
+     * Cache hits are answered directly and only the misses are sent upstream with bounded concurrency.
+     *
+     * @param coordinates The coordinates to be converted into addresses.
+     * @return A future of a ResponseEntity containing per-coordinate results and errors in request order, or
+     * HttpStatus.BAD_REQUEST if the list is empty or larger than the configured maximum batch size.
+     */
+    @PostMapping("/reverse-geocoding/batch")
+    public CompletableFuture<ResponseEntity<BatchResponse<Coordinate, String>>> batchReverseGeocoding(@RequestBody List<Coordinate> coordinates) {
+        log.debug("Batch reverse geocoding request received for {} coordinates", coordinates == null ? 0 : coordinates.size());
+        if (coordinates == null || coordinates.isEmpty() || coordinates.size() > maxBatchSize) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null));
+        }
+        return batchGeocodingService.getAddressBatch(coordinates).thenApply(ResponseEntity::ok);
+    }
+
     @GetMapping("/")
     public ResponseEntity<String> home() {
 
@@ -49,35 +155,42 @@ public class GeocodingController {
 
     /**
      * Handles HTTP GET requests for reverse geocoding to convert geographic coordinates into an address.
+     * With {@code geocoding.response-cache.enabled}, the address is written from pre-encoded bytes with a strong
+     * ETag, and a request whose If-None-Match matches it is answered with HttpStatus.NOT_MODIFIED.
      *
-     * @param latitude  The latitude of the coordinates to be converted into an address.
-     * @param longitude The longitude of the coordinates to be converted into an address.
-     * @return A ResponseEntity containing the resolved address if the coordinates are valid, or
+     * @param latitude       The latitude of the coordinates to be converted into an address.
+     * @param longitude      The longitude of the coordinates to be converted into an address.
+     * @param acceptEncoding The Accept-Encoding header, used to send a gzip-compressed pre-encoded body.
+     * @return A future of a ResponseEntity containing the resolved address if the coordinates are valid, or
      * ResponseEntity.status(HttpStatus.BAD_REQUEST) if the coordinates are invalid, or
      * ResponseEntity.status(HttpStatus.NOT_FOUND) if no address is found for the coordinates.
      */
     @GetMapping("/reverse-geocoding")
-    public ResponseEntity<String> reverseGeocoding(@RequestParam("latitude") Double latitude,
-                                                   @RequestParam("longitude") Double longitude) {
+    public CompletableFuture<ResponseEntity<?>> reverseGeocoding(@RequestParam("latitude") Double latitude,
+                                                                 @RequestParam("longitude") Double longitude,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.debug("Reverse geocoding request received for coordinates: {}, {}", latitude, longitude);
 
         // Validate latitude and longitude values
         if (latitude == null || longitude == null || latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body("Invalid latitude or longitude. Latitude must be between -90 and 90, and longitude between -180 and 180.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid latitude or longitude. Latitude must be between -90 and 90, and longitude between -180 and 180."));
         }
 
-        // Call the service to get the address
-        String address = geocodingService.getAddress(latitude, longitude);
+        // Call the service to get the address; the request thread is released while the upstream call is pending
+        return geocodingService.getAddressAsync(latitude, longitude).thenApply(address -> {
+            // Check if the service returned a valid address
+            if (address == null || address.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("No address found for the provided coordinates.");
+            }
 
-        // Check if the service returned a valid address
-        if (address == null || address.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body("No address found for the provided coordinates.");
-        }
-
-        // Return the resolved address
-        return ResponseEntity.ok(address);
+            // Return the resolved address
+            if (encodedResponseCache.isEnabled()) {
+                return encoded(encodedResponseCache.forAddress(address), TEXT_PLAIN_UTF8, acceptEncoding);
+            }
+            return ResponseEntity.ok(address);
+        });
     }
 
 
@@ -130,20 +243,24 @@ public class GeocodingController {
     /**
      * Handles HTTP DELETE requests to evict stale cache entries from the 'geocoding' cache.
      * This endpoint is useful for maintaining cache efficiency by removing outdated geocoding data.
+     *
+     * @return A ResponseEntity reporting how many entries were scanned and removed.
      */
     @DeleteMapping("/evict-stale-geocoding-entries")
-    public void evictStaleGeocodingEntries() {
+    public ResponseEntity<EvictionReport> evictStaleGeocodingEntries() {
         log.debug("Evicting stale entries from 'geocoding' cache.");
-        geocodingService.evictStaleGeocodingEntries();
+        return ResponseEntity.ok(geocodingService.evictStaleGeocodingEntries());
     }
 
     /**
      * Handles HTTP DELETE requests to evict stale cache entries from the 'reverse-geocoding' cache.
      * This endpoint is useful for maintaining cache efficiency by removing outdated reverse geocoding data.
+     *
+     * @return A ResponseEntity reporting how many entries were scanned and removed.
      */
     @DeleteMapping("/evict-stale-reverse-geocoding-entries")
-    public void evictStaleReverseGeocodingEntries() {
+    public ResponseEntity<EvictionReport> evictStaleReverseGeocodingEntries() {
         log.debug("Evicting stale entries from 'reverse-geocoding' cache.");
-        geocodingService.evictStaleReverseGeocodingEntries();
+        return ResponseEntity.ok(geocodingService.evictStaleReverseGeocodingEntries());
     }
 }
@@ -0,0 +1,78 @@
+package com.caching.controller;
+
+import com.caching.cluster.PeerCacheClient;
+import com.caching.dto.ErrorResponse;
+import com.caching.dto.GeoPoint;
+import com.caching.exceptions.InvalidAddressException;
+import com.caching.exceptions.InvalidCoordinateException;
+import com.caching.service.GeocodingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Internal endpoints other instances call when this instance owns a key in peer mode. Lookups are answered from
+ * this instance's caches or loaded upstream, but never forwarded to another peer, so a request makes at most one hop.
+ * Requests must carry the shared secret in {@link PeerCacheClient#TOKEN_HEADER} (checked by
+ * {@link com.caching.cluster.PeerAccessInterceptor}). A genuine "no result" is answered with a 404 marked by
+ * {@link PeerCacheClient#NO_RESULT_HEADER}; every other failure keeps its own status, so the caller loads locally.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/peers")
+@RequiredArgsConstructor
+public class PeerController {
+
+    private final GeocodingService geocodingService;
+
+    /**
+     * @param address the canonical address
+     * @return the coordinates, HttpStatus.BAD_GATEWAY if upstream's response could not be parsed, or a marked
+     * HttpStatus.NOT_FOUND if upstream has no result for the address
+     */
+    @GetMapping("/geocoding")
+    public CompletableFuture<ResponseEntity<GeoPoint>> geocoding(@RequestParam("address") String address) {
+        log.debug("Peer geocoding request received for address: {}", address);
+        return geocodingService.getCoordinatesForPeer(address).thenApply(coordinates -> coordinates == null
+                ? ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(null)
+                : ResponseEntity.ok(coordinates));
+    }
+
+    /**
+     * @param latitude  the latitude of the coordinates
+     * @param longitude the longitude of the coordinates
+     * @return the address as plain text, HttpStatus.BAD_GATEWAY if upstream's response could not be parsed, or a
+     * marked HttpStatus.NOT_FOUND if upstream has no result for the coordinates
+     */
+    @GetMapping("/reverse-geocoding")
+    public CompletableFuture<ResponseEntity<String>> reverseGeocoding(@RequestParam("latitude") double latitude,
+                                                                      @RequestParam("longitude") double longitude) {
+        log.debug("Peer reverse geocoding request received for coordinates: {}, {}", latitude, longitude);
+        return geocodingService.getAddressForPeer(latitude, longitude).thenApply(address -> address == null || address.isEmpty()
+                ? ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(null)
+                : ResponseEntity.ok(address));
+    }
+
+    // Upstream has no result: the only answer the calling peer takes as final
+    @ExceptionHandler({InvalidAddressException.class, InvalidCoordinateException.class})
+    public ResponseEntity<ErrorResponse> handleNoResult(RuntimeException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .header(PeerCacheClient.NO_RESULT_HEADER, "true")
+                .body(errorResponse);
+    }
+}
@@ -0,0 +1,31 @@
+package com.caching.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single query inside a batch request. Exactly one of {@code result} or {@code error} is set.
+ *
+ * @param <Q> the query type
+ * @param <R> the result type
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult<Q, R> {
+    private Q query;
+    private R result;
+    private String error;
+    private boolean cached;
+
+    public static <Q, R> BatchItemResult<Q, R> success(Q query, R result, boolean cached) {
+        return new BatchItemResult<>(query, result, null, cached);
+    }
+
+    public static <Q, R> BatchItemResult<Q, R> failure(Q query, String error) {
+        return new BatchItemResult<>(query, null, error, false);
+    }
+}
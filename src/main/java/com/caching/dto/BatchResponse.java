@@ -0,0 +1,18 @@
+package com.caching.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse<Q, R> {
+    private int cacheHits;
+    // Distinct queries not found in the cache; some may still be answered without a provider call
+    private int cacheMisses;
+    private int errors;
+    private List<BatchItemResult<Q, R>> results;
+}
@@ -0,0 +1,17 @@
+package com.caching.dto;
+
+import lombok.Data;
+
+/**
+ * A partial change to one cache's policy. Absent fields keep their current value; sizes and durations use the same
+ * syntax as the properties, e.g. {@code 64MB} or {@code 30m}.
+ */
+@Data
+public class CachePolicyUpdate {
+    private String maximumWeight;
+    private String hardTtl;
+    private String softTtl;
+    private String idleTtl;
+    // Only applies when the cache is next created
+    private Integer initialCapacity;
+}
@@ -0,0 +1,23 @@
+package com.caching.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachePolicyView {
+    private String cache;
+    private long maximumWeightBytes;
+    private long weightedSizeBytes;
+    private long estimatedSize;
+    private String hardTtl;
+    private String softTtl;
+    private String idleTtl;
+    private int initialCapacity;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long evictionWeight;
+}
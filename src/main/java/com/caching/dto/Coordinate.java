@@ -0,0 +1,13 @@
+package com.caching.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Coordinate {
+    private Double latitude;
+    private Double longitude;
+}
@@ -0,0 +1,16 @@
+package com.caching.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvictionReport {
+    private String cache;
+    private long scanned;
+    private long removedByAge;
+    private long removedByIdle;
+    private long durationMillis;
+}
@@ -0,0 +1,13 @@
+package com.caching.dto;
+
+import lombok.Value;
+
+/**
+ * Immutable latitude/longitude pair returned by forward geocoding.
+ * Serializes to the same {@code {"latitude": ..., "longitude": ...}} shape the API has always returned.
+ */
+@Value
+public class GeoPoint {
+    double latitude;
+    double longitude;
+}
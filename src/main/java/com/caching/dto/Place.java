@@ -0,0 +1,52 @@
+package com.caching.dto;
+
+import lombok.Value;
+
+/**
+ * The first result of an upstream forward or reverse lookup: where the place is, how upstream labels it and how sure
+ * upstream is of the match. Both directions answer with a whole place, so one lookup can fill the other cache too.
+ * Forward results are also kept in the 'places' cache as they are, so a follow-up lookup of the details does not
+ * call upstream again; only these few fields are held, never the response they were read from.
+ */
+@Value
+public class Place {
+    double latitude;
+    double longitude;
+    // Upstream's display label, e.g. "10 Downing Street, London, England, United Kingdom"; null if it had none
+    String label;
+    // Match confidence between 0 and 1, or NaN if upstream does not report one
+    double confidence;
+    // What the coordinates stand for, or null if upstream does not say
+    Precision precision;
+    // Country name, interned since few distinct ones exist; null if upstream had none
+    String country;
+    // Extent of the place, or null if upstream did not report one
+    BoundingBox boundingBox;
+
+    /**
+     * How much ground a place covers, and so how well its coordinates stand for its label.
+     */
+    public enum Precision {
+        // A building, address or venue
+        POINT,
+        // A street; the coordinates are a point along it
+        STREET,
+        // A neighbourhood, town, region or country; the coordinates are roughly its centre
+        AREA
+    }
+
+    @Value
+    public static class BoundingBox {
+        double minLatitude;
+        double minLongitude;
+        double maxLatitude;
+        double maxLongitude;
+    }
+
+    /**
+     * @return the coordinates of the place
+     */
+    public GeoPoint toGeoPoint() {
+        return new GeoPoint(latitude, longitude);
+    }
+}
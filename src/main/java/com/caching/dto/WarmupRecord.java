@@ -0,0 +1,27 @@
+package com.caching.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a cache warm-up file: an address and its coordinates ({@code forward}), or coordinates and their
+ * label ({@code reverse}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"kind", "latitude", "longitude", "text"})
+public class WarmupRecord {
+    public static final String FORWARD = "forward";
+    public static final String REVERSE = "reverse";
+
+    private String kind;
+    private Double latitude;
+    private Double longitude;
+    // The address of a forward record or the label of a reverse record
+    @JsonAlias({"address", "label"})
+    private String text;
+}
@@ -0,0 +1,16 @@
+package com.caching.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmupReport {
+    private String file;
+    private long forwardEntries;
+    private long reverseEntries;
+    private long skipped;
+    private long durationMillis;
+}
@@ -0,0 +1,7 @@
+package com.caching.exceptions;
+
+public class InvalidCachePolicyException extends RuntimeException {
+    public InvalidCachePolicyException(String message) {
+        super(message);
+    }
+}
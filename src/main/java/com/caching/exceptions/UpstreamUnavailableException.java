@@ -0,0 +1,10 @@
+package com.caching.exceptions;
+
+/**
+ * Thrown without calling upstream because the circuit breaker is open or the rate limit is reached.
+ */
+public class UpstreamUnavailableException extends DataFetchingFailException {
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
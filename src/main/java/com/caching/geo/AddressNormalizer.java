@@ -0,0 +1,14 @@
+package com.caching.geo;
+
+/**
+ * Canonicalizes free-text addresses so that equivalent queries share one 'geocoding' cache entry and one upstream
+ * call. Declare a {@code @Primary} bean of this type to replace {@link DefaultAddressNormalizer}.
+ */
+public interface AddressNormalizer {
+
+    /**
+     * @param address the address as received from the client
+     * @return the canonical form, used both as the cache key and as the upstream query
+     */
+    String normalize(String address);
+}
@@ -0,0 +1,103 @@
+package com.caching.geo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Default address canonicalization: URL-decoding, Unicode NFKC normalization, case folding, punctuation
+ * stripping, whitespace collapsing and expansion of common street-type abbreviations. The canonical form is also the
+ * upstream query, so an abbreviation is only expanded in street position: as the last word of a comma-separated
+ * part that is not the last part, after a name ("baker st, london"). It is kept at the start or after a house
+ * number ("st james", "10 st james"), where it usually means Saint, Doctor or Mount, elsewhere in a part
+ * ("downtown st louis") and anywhere in the last part, which names a city, region or state ("hartford, ct").
+ * For example {@code "221B Baker St, London"}, {@code " 221b baker street london "} and
+ * {@code "221B%20Baker%20St%2C%20London"} all become {@code "221b baker street london"}.
+ */
+@Component
+public class DefaultAddressNormalizer implements AddressNormalizer {
+
+    private static final Pattern PERCENT_ENCODED = Pattern.compile("%[0-9A-Fa-f]{2}");
+    private static final Pattern APOSTROPHES = Pattern.compile("['\\u2018\\u2019`]");
+    private static final Pattern PUNCTUATION = Pattern.compile("[\\p{P}\\p{S}]");
+    private static final Pattern PARTS = Pattern.compile("[,;]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+            Map.entry("st", "street"),
+            Map.entry("str", "street"),
+            Map.entry("rd", "road"),
+            Map.entry("ave", "avenue"),
+            Map.entry("av", "avenue"),
+            Map.entry("blvd", "boulevard"),
+            Map.entry("dr", "drive"),
+            Map.entry("ln", "lane"),
+            Map.entry("ct", "court"),
+            Map.entry("pl", "place"),
+            Map.entry("sq", "square"),
+            Map.entry("hwy", "highway"),
+            Map.entry("pkwy", "parkway"),
+            Map.entry("cres", "crescent"),
+            Map.entry("terr", "terrace"),
+            Map.entry("apt", "apartment"),
+            Map.entry("bldg", "building"),
+            Map.entry("mt", "mount"),
+            Map.entry("ft", "fort"));
+
+    private final boolean expandAbbreviations;
+
+    public DefaultAddressNormalizer(@Value("${geocoding.address.expand-abbreviations:true}") boolean expandAbbreviations) {
+        this.expandAbbreviations = expandAbbreviations;
+    }
+
+    @Override
+    public String normalize(String address) {
+        if (address == null) {
+            return null;
+        }
+        String normalized = urlDecode(address);
+        normalized = Normalizer.normalize(normalized, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        normalized = APOSTROPHES.matcher(normalized).replaceAll("");
+        String[] parts = PARTS.split(normalized);
+        int lastPart = parts.length - 1;
+        while (lastPart > 0 && PUNCTUATION.matcher(parts[lastPart]).replaceAll(" ").isBlank()) {
+            lastPart--;
+        }
+        StringBuilder canonical = new StringBuilder(normalized.length());
+        for (int part = 0; part <= lastPart; part++) {
+            String[] tokens = WHITESPACE.split(PUNCTUATION.matcher(parts[part]).replaceAll(" ").trim());
+            for (int i = 0; i < tokens.length; i++) {
+                if (tokens[i].isEmpty()) {
+                    continue;
+                }
+                if (canonical.length() > 0) {
+                    canonical.append(' ');
+                }
+                boolean streetPosition = part < lastPart && i == tokens.length - 1 && i > 0
+                        && !DIGITS.matcher(tokens[i - 1]).matches();
+                canonical.append(expandAbbreviations && streetPosition
+                        ? ABBREVIATIONS.getOrDefault(tokens[i], tokens[i]) : tokens[i]);
+            }
+        }
+        return canonical.toString();
+    }
+
+    private static String urlDecode(String address) {
+        if (!PERCENT_ENCODED.matcher(address).find() && address.indexOf('+') < 0) {
+            return address;
+        }
+        try {
+            return URLDecoder.decode(address, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            // Not actually URL-encoded, e.g. a literal '%' in the address
+            return address;
+        }
+    }
+}
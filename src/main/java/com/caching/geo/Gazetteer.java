@@ -0,0 +1,377 @@
+package com.caching.geo;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable in-memory index of named places for offline geocoding.
+ * <p>
+ * Records are held column-wise in primitive arrays rather than one object per place: names and labels are
+ * concatenated UTF-8 byte pools with offset arrays, and coordinates are fixed-point microdegrees (about 0.1 m).
+ * Records are sorted by name, so places sharing a name are adjacent.
+ * <ul>
+ * <li>Forward: an open-addressing hash table maps each distinct canonical name to its first record.</li>
+ * <li>Reverse: every record covers a radius around its coordinates (a city much more than a postcode). Records are
+ * bucketed into a hierarchical latitude/longitude grid, each on the level whose cells are at least as wide as its
+ * radius, stored as sorted cell ids with compressed-row member lists, so a lookup binary-searches only the cells
+ * around the point on each level in use.</li>
+ * </ul>
+ * The footprint is the name and label bytes plus up to about 54 bytes per record for offsets, coordinates, radii,
+ * hash table and grid; see {@link #estimatedBytes()}.
+ */
+public final class Gazetteer {
+
+    private static final double MICRODEGREES = 1_000_000d;
+    // Partial matching tries every contiguous token span, so long queries are cut to this many tokens
+    private static final int MAX_PARTIAL_TOKENS = 8;
+    private static final double METERS_PER_DEGREE = 111_320d;
+    // Each grid level doubles the cell width; level and cell indexes are packed into one long cell id
+    private static final int MAX_LEVEL = 30;
+    private static final int INDEX_BITS = 29;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private final int size;
+    private final byte[] names;
+    private final int[] nameOffsets;
+    private final byte[] labels;
+    private final int[] labelOffsets;
+    private final int[] latitudes;
+    private final int[] longitudes;
+    private final int[] radii;
+    private final int[] nameTable;
+    private final double cellDegrees;
+    // Bit set of the grid levels that hold at least one record
+    private final int levels;
+    private final long[] cellIds;
+    private final int[] cellStarts;
+    private final int[] cellMembers;
+
+    private Gazetteer(Builder builder) {
+        size = builder.names.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(builder.names::get));
+
+        byte[][] nameBytes = new byte[size][];
+        byte[][] labelBytes = new byte[size][];
+        latitudes = new int[size];
+        longitudes = new int[size];
+        radii = new int[size];
+        int namesLength = 0;
+        int labelsLength = 0;
+        for (int id = 0; id < size; id++) {
+            int source = order[id];
+            nameBytes[id] = builder.names.get(source).getBytes(StandardCharsets.UTF_8);
+            labelBytes[id] = builder.labels.get(source).getBytes(StandardCharsets.UTF_8);
+            latitudes[id] = builder.latitudes[source];
+            longitudes[id] = builder.longitudes[source];
+            radii[id] = builder.radii[source];
+            namesLength += nameBytes[id].length;
+            labelsLength += labelBytes[id].length;
+        }
+        names = new byte[namesLength];
+        nameOffsets = new int[size + 1];
+        labels = new byte[labelsLength];
+        labelOffsets = new int[size + 1];
+        for (int id = 0; id < size; id++) {
+            System.arraycopy(nameBytes[id], 0, names, nameOffsets[id], nameBytes[id].length);
+            nameOffsets[id + 1] = nameOffsets[id] + nameBytes[id].length;
+            System.arraycopy(labelBytes[id], 0, labels, labelOffsets[id], labelBytes[id].length);
+            labelOffsets[id + 1] = labelOffsets[id] + labelBytes[id].length;
+        }
+
+        // Load factor at most 0.5; slots hold record id + 1, 0 marks an empty slot
+        nameTable = new int[Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1];
+        for (int id = 0; id < size; id++) {
+            if (id > 0 && sameName(id - 1, id)) {
+                continue;
+            }
+            int slot = hash(names, nameOffsets[id], nameOffsets[id + 1]) & (nameTable.length - 1);
+            while (nameTable[slot] != 0) {
+                slot = (slot + 1) & (nameTable.length - 1);
+            }
+            nameTable[slot] = id + 1;
+        }
+
+        cellDegrees = builder.cellDegrees;
+        Integer[] byCell = new Integer[size];
+        long[] cellOf = new long[size];
+        int usedLevels = 0;
+        for (int id = 0; id < size; id++) {
+            byCell[id] = id;
+            int level = levelOf(radii[id]);
+            usedLevels |= 1 << level;
+            cellOf[id] = cellId(level, latitudes[id] / MICRODEGREES, longitudes[id] / MICRODEGREES);
+        }
+        levels = usedLevels;
+        Arrays.sort(byCell, Comparator.comparingLong(id -> cellOf[id]));
+        cellMembers = new int[size];
+        long[] ids = new long[size];
+        int[] starts = new int[size + 1];
+        int cells = 0;
+        for (int i = 0; i < size; i++) {
+            cellMembers[i] = byCell[i];
+            long cell = cellOf[byCell[i]];
+            if (cells == 0 || ids[cells - 1] != cell) {
+                ids[cells] = cell;
+                starts[cells] = i;
+                cells++;
+            }
+        }
+        starts[cells] = size;
+        cellIds = Arrays.copyOf(ids, cells);
+        cellStarts = Arrays.copyOf(starts, cells + 1);
+    }
+
+    /**
+     * @return a builder whose reverse grid uses cells of the given size
+     */
+    public static Builder builder(double cellDegrees) {
+        return new Builder(cellDegrees);
+    }
+
+    /**
+     * @return the number of records
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the approximate heap retained by the index in bytes
+     */
+    public long estimatedBytes() {
+        // 16 bytes of header per array
+        return 13L * 16 + names.length + labels.length
+                + 4L * (nameOffsets.length + labelOffsets.length + latitudes.length + longitudes.length
+                + radii.length + nameTable.length + cellStarts.length + cellMembers.length)
+                + 8L * cellIds.length;
+    }
+
+    /**
+     * Looks up a canonical address. An exact name match has confidence 1; otherwise the longest run of consecutive
+     * tokens that is a known name is used, with confidence equal to the share of the query it covers. Confidence is
+     * divided by the number of places sharing the matched name, since the answer is then ambiguous.
+     *
+     * @param canonicalAddress an address in the form produced by {@link AddressNormalizer}
+     * @return the best match, or null if no part of the address is a known name
+     */
+    public Match forward(String canonicalAddress) {
+        if (size == 0 || canonicalAddress.isEmpty()) {
+            return null;
+        }
+        Match exact = match(canonicalAddress, 1);
+        if (exact != null) {
+            return exact;
+        }
+        String[] tokens = canonicalAddress.split(" ");
+        int count = Math.min(tokens.length, MAX_PARTIAL_TOKENS);
+        for (int span = count - 1; span >= 1; span--) {
+            Match best = null;
+            for (int start = 0; start + span <= count; start++) {
+                String candidate = String.join(" ", Arrays.asList(tokens).subList(start, start + span));
+                Match match = match(candidate, (double) candidate.length() / canonicalAddress.length());
+                if (match != null && (best == null || match.getConfidence() > best.getConfidence())) {
+                    best = match;
+                }
+            }
+            if (best != null) {
+                return best;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the place a coordinate lies in: among the places whose radius covers it, the one with the smallest radius,
+     * as the most specific, and the closest of those. Places wider than {@code maxRadiusMeters} are not considered,
+     * so a coordinate covered only by a city is not answered with the city. Confidence falls linearly from 1 at the
+     * place to 0 at the edge of its radius.
+     *
+     * @param latitude        the latitude to search around
+     * @param longitude       the longitude to search around
+     * @param maxRadiusMeters the widest place that may answer
+     * @return the covering place, or null if the coordinate is outside every eligible place's radius
+     */
+    public Match nearest(double latitude, double longitude, double maxRadiusMeters) {
+        if (size == 0) {
+            return null;
+        }
+        // A place reaches at most one cell of its level; longitude cells narrow towards the poles, so more of them fit
+        long lonSpan = (long) Math.ceil(1 / Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        int best = -1;
+        double bestDistance = 0;
+        int maxLevel = levelOf((int) Math.min(Math.ceil(maxRadiusMeters), Integer.MAX_VALUE));
+        for (int level = 0; level <= maxLevel; level++) {
+            if ((levels & (1 << level)) == 0) {
+                continue;
+            }
+            double degrees = Math.scalb(cellDegrees, level);
+            long latIndex = (long) Math.floor(latitude / degrees);
+            long lonIndex = (long) Math.floor(longitude / degrees);
+            for (long dLat = -1; dLat <= 1; dLat++) {
+                for (long dLon = -lonSpan; dLon <= lonSpan; dLon++) {
+                    int cell = Arrays.binarySearch(cellIds, cellId(level, latIndex + dLat, lonIndex + dLon));
+                    if (cell < 0) {
+                        continue;
+                    }
+                    for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                        int id = cellMembers[i];
+                        double distance = SpatialGridIndex.distanceMeters(latitude, longitude,
+                                latitudes[id] / MICRODEGREES, longitudes[id] / MICRODEGREES);
+                        if (distance <= radii[id] && radii[id] <= maxRadiusMeters && (best < 0 || radii[id] < radii[best]
+                                || (radii[id] == radii[best] && distance < bestDistance))) {
+                            best = id;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return best < 0 ? null : toMatch(best, 1 - bestDistance / radii[best]);
+    }
+
+    private Match match(String name, double coverage) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int slot = hash(key, 0, key.length) & (nameTable.length - 1);
+        for (int entry = nameTable[slot]; entry != 0; entry = nameTable[slot]) {
+            int id = entry - 1;
+            if (Arrays.equals(names, nameOffsets[id], nameOffsets[id + 1], key, 0, key.length)) {
+                int duplicates = 1;
+                while (id + duplicates < size && sameName(id, id + duplicates)) {
+                    duplicates++;
+                }
+                return toMatch(id, coverage / duplicates);
+            }
+            slot = (slot + 1) & (nameTable.length - 1);
+        }
+        return null;
+    }
+
+    private Match toMatch(int id, double confidence) {
+        return new Match(latitudes[id] / MICRODEGREES, longitudes[id] / MICRODEGREES,
+                new String(labels, labelOffsets[id], labelOffsets[id + 1] - labelOffsets[id], StandardCharsets.UTF_8),
+                confidence);
+    }
+
+    private boolean sameName(int a, int b) {
+        return Arrays.equals(names, nameOffsets[a], nameOffsets[a + 1], names, nameOffsets[b], nameOffsets[b + 1]);
+    }
+
+    /**
+     * @return the lowest grid level whose cells are at least as wide as the radius
+     */
+    private int levelOf(int radiusMeters) {
+        double cellMeters = cellDegrees * METERS_PER_DEGREE;
+        int level = 0;
+        while (level < MAX_LEVEL && cellMeters * (1L << level) < radiusMeters) {
+            level++;
+        }
+        return level;
+    }
+
+    private long cellId(int level, double latitude, double longitude) {
+        double degrees = Math.scalb(cellDegrees, level);
+        return cellId(level, (long) Math.floor(latitude / degrees), (long) Math.floor(longitude / degrees));
+    }
+
+    private static long cellId(int level, long latIndex, long lonIndex) {
+        return ((long) level << (2 * INDEX_BITS)) | ((latIndex & INDEX_MASK) << INDEX_BITS) | (lonIndex & INDEX_MASK);
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 0x811c9dc5;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ bytes[i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A place found in the gazetteer and how confident the lookup is that it answers the query.
+     */
+    @Getter
+    public static final class Match {
+        private final double latitude;
+        private final double longitude;
+        private final String label;
+        private final double confidence;
+
+        private Match(double latitude, double longitude, String label, double confidence) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.label = label;
+            this.confidence = confidence;
+        }
+    }
+
+    /**
+     * Collects records before the index is built. Not thread-safe.
+     */
+    public static final class Builder {
+        private final double cellDegrees;
+        private final List<String> names = new ArrayList<>();
+        private final List<String> labels = new ArrayList<>();
+        private int[] latitudes = new int[1024];
+        private int[] longitudes = new int[1024];
+        private int[] radii = new int[1024];
+
+        private Builder(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+
+        /**
+         * Adds a place covering one cell width of the base grid.
+         *
+         * @param canonicalName the place name in the form produced by {@link AddressNormalizer}
+         * @param label         the display name returned for reverse lookups
+         * @param latitude      the latitude of the place
+         * @param longitude     the longitude of the place
+         * @return this builder
+         */
+        public Builder add(String canonicalName, String label, double latitude, double longitude) {
+            return add(canonicalName, label, latitude, longitude, cellDegrees * METERS_PER_DEGREE);
+        }
+
+        /**
+         * @param canonicalName the place name in the form produced by {@link AddressNormalizer}
+         * @param label         the display name returned for reverse lookups
+         * @param latitude      the latitude of the place
+         * @param longitude     the longitude of the place
+         * @param radiusMeters  how far from its coordinates the place extends, for reverse lookups
+         * @return this builder
+         */
+        public Builder add(String canonicalName, String label, double latitude, double longitude, double radiusMeters) {
+            int id = names.size();
+            if (id == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, id * 2);
+                longitudes = Arrays.copyOf(longitudes, id * 2);
+                radii = Arrays.copyOf(radii, id * 2);
+            }
+            names.add(canonicalName);
+            labels.add(label);
+            latitudes[id] = (int) Math.round(latitude * MICRODEGREES);
+            longitudes[id] = (int) Math.round(longitude * MICRODEGREES);
+            radii[id] = (int) Math.max(1, Math.min(Math.round(radiusMeters), Integer.MAX_VALUE));
+            return this;
+        }
+
+        /**
+         * @return the number of records added so far
+         */
+        public int size() {
+            return names.size();
+        }
+
+        public Gazetteer build() {
+            return new Gazetteer(this);
+        }
+    }
+}
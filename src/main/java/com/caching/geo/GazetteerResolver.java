@@ -0,0 +1,152 @@
+package com.caching.geo;
+
+import com.caching.dto.GeoPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Answers well-known places (cities, districts, postcodes, ...) from a local {@link Gazetteer} so they do not cost
+ * an upstream call. Forward answers below {@code geocoding.gazetteer.min-confidence} are discarded and the caller
+ * falls back to upstream. Reverse answers are cached like upstream ones, so they only come from point-level places
+ * (no wider than {@code geocoding.gazetteer.reverse.max-radius-meters}) and must reach
+ * {@code geocoding.gazetteer.reverse.min-confidence}; a coordinate only covered by a city goes upstream for a
+ * street-level answer.
+ * <p>
+ * The gazetteer file is tab-separated, one place per line: {@code name, latitude, longitude}, an optional
+ * {@code label} returned for reverse lookups (the name by default) and an optional {@code radius} in meters the
+ * place covers ({@code geocoding.gazetteer.reverse.default-radius-meters} by default), so a city answers points
+ * kilometres from its centre while a postcode only answers its own street. Names are canonicalized like cache keys,
+ * so alternate spellings, postcodes or districts can simply be listed as extra lines. Blank lines and lines starting
+ * with {@code #} are ignored.
+ */
+@Slf4j
+@Component
+public class GazetteerResolver {
+
+    @Getter
+    private final boolean enabled;
+    private final double minConfidence;
+    private final double reverseDefaultRadiusMeters;
+    private final double reverseMaxRadiusMeters;
+    private final double reverseMinConfidence;
+    private final Gazetteer gazetteer;
+    private final Counter forwardHits;
+    private final Counter forwardFallbacks;
+    private final Counter reverseHits;
+    private final Counter reverseFallbacks;
+
+    public GazetteerResolver(GeocodingKeyGenerator geocodingKeyGenerator, MeterRegistry meterRegistry,
+                             @Value("${geocoding.gazetteer.file:}") String file,
+                             @Value("${geocoding.gazetteer.min-confidence:0.9}") double minConfidence,
+                             @Value("${geocoding.gazetteer.reverse.default-radius-meters:200}") double reverseDefaultRadiusMeters,
+                             @Value("${geocoding.gazetteer.reverse.max-radius-meters:200}") double reverseMaxRadiusMeters,
+                             @Value("${geocoding.gazetteer.reverse.min-confidence:0.5}") double reverseMinConfidence) {
+        this.enabled = !file.isBlank();
+        this.minConfidence = minConfidence;
+        this.reverseDefaultRadiusMeters = reverseDefaultRadiusMeters;
+        this.reverseMaxRadiusMeters = reverseMaxRadiusMeters;
+        this.reverseMinConfidence = reverseMinConfidence;
+        this.gazetteer = enabled ? load(Path.of(file), geocodingKeyGenerator) : null;
+        this.forwardHits = lookupCounter(meterRegistry, "forward", "hit");
+        this.forwardFallbacks = lookupCounter(meterRegistry, "forward", "fallback");
+        this.reverseHits = lookupCounter(meterRegistry, "reverse", "hit");
+        this.reverseFallbacks = lookupCounter(meterRegistry, "reverse", "fallback");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String direction, String result) {
+        return Counter.builder("geocoding.gazetteer.lookups")
+                .description("Gazetteer lookups answered locally (hit) or left to upstream (fallback)")
+                .tag("direction", direction)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param canonicalAddress the canonical address, as used for the cache key
+     * @return the coordinates of a confidently matched place, or null to ask upstream
+     */
+    public GeoPoint resolveCoordinates(String canonicalAddress) {
+        if (!enabled) {
+            return null;
+        }
+        Gazetteer.Match match = gazetteer.forward(canonicalAddress);
+        if (match == null || match.getConfidence() < minConfidence) {
+            forwardFallbacks.increment();
+            return null;
+        }
+        forwardHits.increment();
+        log.debug("Resolved '{}' locally to {} (confidence {})", canonicalAddress, match.getLabel(), match.getConfidence());
+        return new GeoPoint(match.getLatitude(), match.getLongitude());
+    }
+
+    /**
+     * @param latitude  the latitude of the coordinates
+     * @param longitude the longitude of the coordinates
+     * @return the label of a confidently matched point-level place covering the coordinates, or null to ask upstream
+     */
+    public String resolveAddress(double latitude, double longitude) {
+        if (!enabled) {
+            return null;
+        }
+        Gazetteer.Match match = gazetteer.nearest(latitude, longitude, reverseMaxRadiusMeters);
+        if (match == null || match.getConfidence() < reverseMinConfidence) {
+            reverseFallbacks.increment();
+            return null;
+        }
+        reverseHits.increment();
+        log.debug("Resolved ({}, {}) locally to {} (confidence {})", latitude, longitude, match.getLabel(), match.getConfidence());
+        return match.getLabel();
+    }
+
+    private Gazetteer load(Path file, GeocodingKeyGenerator geocodingKeyGenerator) {
+        long started = System.currentTimeMillis();
+        // Base cells about as wide as the default radius; places covering more are indexed on coarser levels
+        Gazetteer.Builder builder = Gazetteer.builder(Math.max(reverseDefaultRadiusMeters, 1) / 111_320d);
+        long skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                try {
+                    String name = geocodingKeyGenerator.keyFor(fields[0]);
+                    double latitude = Double.parseDouble(fields[1].trim());
+                    double longitude = Double.parseDouble(fields[2].trim());
+                    if (name.isEmpty() || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                        skipped++;
+                        continue;
+                    }
+                    String label = fields.length > 3 && !fields[3].isBlank() ? fields[3].trim() : fields[0].trim();
+                    double radius = fields.length > 4 && !fields[4].isBlank()
+                            ? Double.parseDouble(fields[4].trim()) : reverseDefaultRadiusMeters;
+                    if (!(radius > 0)) {
+                        skipped++;
+                        continue;
+                    }
+                    builder.add(name, label, latitude, longitude, radius);
+                } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read gazetteer " + file, e);
+        }
+        Gazetteer loaded = builder.build();
+        log.info("Loaded {} gazetteer places from {} in {} ms ({} KB, {} lines skipped)", loaded.size(), file,
+                System.currentTimeMillis() - started, loaded.estimatedBytes() / 1024, skipped);
+        return loaded;
+    }
+}
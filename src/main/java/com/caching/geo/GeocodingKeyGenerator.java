@@ -0,0 +1,34 @@
+package com.caching.geo;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Builds 'geocoding' cache keys from the canonical form of the address, so equivalent spellings share one entry.
+ */
+@Component("geocodingKeyGenerator")
+public class GeocodingKeyGenerator implements KeyGenerator {
+
+    private final AddressNormalizer addressNormalizer;
+
+    public GeocodingKeyGenerator(AddressNormalizer addressNormalizer) {
+        this.addressNormalizer = addressNormalizer;
+    }
+
+    /**
+     * Returns the cache key for an address.
+     *
+     * @param address the address as received from the client
+     * @return the canonical address used as the cache key
+     */
+    public String keyFor(String address) {
+        return addressNormalizer.normalize(address);
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return keyFor((String) params[0]);
+    }
+}
@@ -0,0 +1,71 @@
+package com.caching.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Builds 'reverse-geocoding' cache keys. In {@code exact} mode the key is the {@code [latitude, longitude]} pair,
+ * as before. In {@code geohash} mode the coordinate is quantized to a geohash cell of the configured precision,
+ * so requests a few metres apart share one cache entry.
+ */
+@Slf4j
+@Component("reverseGeocodingKeyGenerator")
+public class ReverseGeocodingKeyGenerator implements KeyGenerator {
+
+    public enum Mode {
+        EXACT, GEOHASH
+    }
+
+    private final Mode mode;
+    private final int precision;
+
+    public ReverseGeocodingKeyGenerator(@Value("${geocoding.reverse.key.mode:geohash}") String mode,
+                                        @Value("${geocoding.reverse.key.precision:8}") int precision) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        if (this.mode == Mode.GEOHASH && (precision < 1 || precision > Geohash.MAX_PRECISION)) {
+            throw new IllegalArgumentException("geocoding.reverse.key.precision must be between 1 and " + Geohash.MAX_PRECISION);
+        }
+        this.precision = precision;
+        log.info("Reverse geocoding cache keys use {} mode{}", this.mode,
+                this.mode == Mode.GEOHASH ? " with precision " + precision : "");
+    }
+
+    /**
+     * Returns the cache key for a coordinate.
+     *
+     * @param latitude  the latitude of the coordinate
+     * @param longitude the longitude of the coordinate
+     * @return the key under which the coordinate's address is cached
+     */
+    public Object keyFor(double latitude, double longitude) {
+        if (mode == Mode.GEOHASH) {
+            return Geohash.encode(latitude, longitude, precision);
+        }
+        return List.of(latitude, longitude);
+    }
+
+    /**
+     * Returns a coordinate that maps back to the given key: the pair itself for an exact key, or the centre of the
+     * cell for a geohash key.
+     *
+     * @param key a key returned by {@link #keyFor(double, double)}
+     * @return the {@code [latitude, longitude]} of the key
+     */
+    public static double[] coordinatesOf(Object key) {
+        if (key instanceof String) {
+            return Geohash.decodeCenter((String) key);
+        }
+        List<?> pair = (List<?>) key;
+        return new double[]{((Number) pair.get(0)).doubleValue(), ((Number) pair.get(1)).doubleValue()};
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return keyFor(((Number) params[0]).doubleValue(), ((Number) params[1]).doubleValue());
+    }
+}
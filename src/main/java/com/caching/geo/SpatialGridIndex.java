@@ -0,0 +1,197 @@
+package com.caching.geo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory grid of the coordinates whose addresses are cached, used to answer a reverse geocoding miss with a
+ * cached address within a radius. Cells are roughly {@code radius} wide, so a lookup only scans the cell containing
+ * the point and its neighbours. The index stores cache keys, not labels: callers read the label from the cache and
+ * {@link #remove} entries whose key has since been evicted.
+ * <p>
+ * Cache evictions are not propagated, so the index is bounded on its own: past {@code max-entries}, Caffeine's
+ * size eviction drops the least valuable keys (lookups that find an entry count as uses) and new areas keep being
+ * indexed. Each key is indexed at one coordinate, the latest it was added for.
+ */
+@Component
+public class SpatialGridIndex {
+
+    private static final double METERS_PER_DEGREE = 111_320d;
+    private static final double EARTH_RADIUS_METERS = 6_371_000d;
+
+    @Getter
+    private final boolean enabled;
+    private final double radiusMeters;
+    private final double cellDegrees;
+    private final Map<Long, Queue<Entry>> cells = new ConcurrentHashMap<>();
+    // Bounds the index; evicting a key takes its entry out of its cell
+    private final Cache<Object, Entry> entries;
+
+    public SpatialGridIndex(@Value("${geocoding.reverse.nearest.enabled:true}") boolean enabled,
+                            @Value("${geocoding.reverse.nearest.radius-meters:50}") double radiusMeters,
+                            @Value("${geocoding.reverse.nearest.max-entries:100000}") int maxEntries) {
+        this.enabled = enabled;
+        this.radiusMeters = radiusMeters;
+        this.cellDegrees = radiusMeters / METERS_PER_DEGREE;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .<Object, Entry>evictionListener((cacheKey, entry, cause) -> {
+                    if (entry != null) {
+                        removeFromCell(entry);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Indexes a coordinate whose address is cached under the given key.
+     *
+     * @param latitude  the latitude the address was resolved for
+     * @param longitude the longitude the address was resolved for
+     * @param cacheKey  the 'reverse-geocoding' cache key holding the address
+     */
+    public void add(double latitude, double longitude, Object cacheKey) {
+        if (!enabled) {
+            return;
+        }
+        Entry existing = entries.getIfPresent(cacheKey);
+        if (existing != null && existing.latitude == latitude && existing.longitude == longitude) {
+            return;
+        }
+        // Into the cell first, so an immediate size eviction of the entry finds it there
+        Entry entry = new Entry(latitude, longitude, cacheKey);
+        cells.compute(cellId(latitude, longitude), (id, cell) -> {
+            Queue<Entry> queue = cell != null ? cell : new ConcurrentLinkedQueue<>();
+            queue.add(entry);
+            return queue;
+        });
+        Entry replaced = entries.asMap().put(cacheKey, entry);
+        if (replaced != null) {
+            removeFromCell(replaced);
+        }
+    }
+
+    /**
+     * Finds the closest indexed coordinate within the configured radius.
+     *
+     * @param latitude  the latitude to search around
+     * @param longitude the longitude to search around
+     * @return the closest entry, or null if there is none within the radius
+     */
+    public Entry nearest(double latitude, double longitude) {
+        if (!enabled || entries.estimatedSize() == 0) {
+            return null;
+        }
+        long latIndex = (long) Math.floor(latitude / cellDegrees);
+        long lonIndex = (long) Math.floor(longitude / cellDegrees);
+        // Longitude cells narrow towards the poles, so more of them fit in the radius
+        long lonSpan = (long) Math.ceil(1 / Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        Entry best = null;
+        double bestDistance = radiusMeters;
+        for (long dLat = -1; dLat <= 1; dLat++) {
+            for (long dLon = -lonSpan; dLon <= lonSpan; dLon++) {
+                Queue<Entry> cell = cells.get(cellId(latIndex + dLat, lonIndex + dLon));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry entry : cell) {
+                    double distance = distanceMeters(latitude, longitude, entry.latitude, entry.longitude);
+                    if (distance <= bestDistance) {
+                        best = entry;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        if (best != null) {
+            // Counts as a use, so entries that answer lookups outlive the ones that never do
+            entries.getIfPresent(best.cacheKey);
+        }
+        return best;
+    }
+
+    /**
+     * Removes an entry, typically because its cache key is no longer cached.
+     *
+     * @param entry the entry to remove
+     */
+    public void remove(Entry entry) {
+        entries.asMap().remove(entry.cacheKey, entry);
+        removeFromCell(entry);
+    }
+
+    /**
+     * Removes the entry of a cache key, typically because the key was evicted from the cache.
+     *
+     * @param cacheKey the 'reverse-geocoding' cache key
+     */
+    public void removeKey(Object cacheKey) {
+        Entry entry = entries.asMap().remove(cacheKey);
+        if (entry != null) {
+            removeFromCell(entry);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        entries.invalidateAll();
+        cells.clear();
+    }
+
+    /**
+     * @return the number of indexed coordinates
+     */
+    public int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+
+    private void removeFromCell(Entry entry) {
+        // Drops the cell once empty, so cells of areas no longer cached do not pile up
+        cells.computeIfPresent(cellId(entry.latitude, entry.longitude), (id, cell) -> {
+            cell.remove(entry);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    private long cellId(double latitude, double longitude) {
+        return cellId((long) Math.floor(latitude / cellDegrees), (long) Math.floor(longitude / cellDegrees));
+    }
+
+    private static long cellId(long latIndex, long lonIndex) {
+        return (latIndex << 32) | (lonIndex & 0xffffffffL);
+    }
+
+    // Equirectangular approximation, accurate to well under a metre at the radii used here
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_METERS;
+    }
+
+    /**
+     * An indexed coordinate and the cache key its address is stored under.
+     */
+    @Getter
+    public static final class Entry {
+        private final double latitude;
+        private final double longitude;
+        private final Object cacheKey;
+
+        private Entry(double latitude, double longitude, Object cacheKey) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cacheKey = cacheKey;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.caching.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+/**
+ * Count-based circuit breaker.
+ * <ul>
+ * <li>CLOSED: calls pass; the outcomes of the last {@code windowSize} calls are kept, and once at least
+ * {@code minimumCalls} were recorded and the share of failed or slow calls reaches {@code failureRateThreshold}
+ * the breaker opens.</li>
+ * <li>OPEN: calls are rejected without touching upstream until {@code openDuration} has passed.</li>
+ * <li>HALF_OPEN: up to {@code halfOpenCalls} trial calls pass; one failure re-opens the breaker, and as many
+ * successes close it again.</li>
+ * </ul>
+ * Every {@link Permit} must be settled with exactly one of {@link Permit#onSuccess(long)},
+ * {@link Permit#onFailure()} or {@link Permit#release()}. A permit belongs to the state it was issued in: once the
+ * breaker has changed state, its outcome is ignored, so a call started while CLOSED that finishes during HALF_OPEN
+ * is not taken as a trial call.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final BiConsumer<State, State> onStateChange;
+
+    // Ring buffer of the latest outcomes in CLOSED state; true marks a failed or slow call
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+
+    private State state = State.CLOSED;
+    // Bumped on every transition; permits carry the value they were issued under
+    private long generation;
+    private long openedAt;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+
+    /**
+     * @param name                 name used in log messages
+     * @param failureRateThreshold share of failed or slow calls, between 0 and 1, that opens the breaker
+     * @param slowCallThreshold    calls taking longer than this count as failures
+     * @param windowSize           number of recent calls the failure rate is computed over
+     * @param minimumCalls         calls needed in the window before the breaker may open
+     * @param openDuration         how long the breaker rejects calls before allowing trial calls
+     * @param halfOpenCalls        number of trial calls in HALF_OPEN state
+     * @param onStateChange        callback invoked with the old and new state on every transition
+     */
+    public CircuitBreaker(String name, double failureRateThreshold, Duration slowCallThreshold, int windowSize,
+                          int minimumCalls, Duration openDuration, int halfOpenCalls,
+                          BiConsumer<State, State> onStateChange) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.outcomes = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.min(Math.max(1, minimumCalls), outcomes.length);
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.onStateChange = onStateChange;
+    }
+
+    /**
+     * @return a permit to call upstream, or null if the caller must fail fast
+     */
+    public synchronized Permit tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return null;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitted >= halfOpenCalls) {
+                return null;
+            }
+            halfOpenPermitted++;
+        }
+        return new Permit(generation);
+    }
+
+    private synchronized void release(long issuedIn) {
+        if (issuedIn == generation && state == State.HALF_OPEN && halfOpenPermitted > 0) {
+            halfOpenPermitted--;
+        }
+    }
+
+    private synchronized void onSuccess(long issuedIn, long durationNanos) {
+        if (issuedIn != generation) {
+            return;
+        }
+        if (durationNanos > slowCallNanos) {
+            record(true);
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSucceeded >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    private synchronized void onFailure(long issuedIn) {
+        if (issuedIn == generation) {
+            record(true);
+        }
+    }
+
+    /**
+     * @return the current state; an OPEN breaker whose open duration has passed moves to HALF_OPEN on the next call
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (state == State.HALF_OPEN) {
+            if (failed) {
+                transitionTo(State.OPEN);
+            }
+            return;
+        }
+        if (recorded == outcomes.length) {
+            failures -= outcomes[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        failures += failed ? 1 : 0;
+        next = (next + 1) % outcomes.length;
+        if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State newState) {
+        State oldState = state;
+        state = newState;
+        generation++;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        halfOpenPermitted = 0;
+        halfOpenSucceeded = 0;
+        if (newState == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+        log.warn("Circuit breaker '{}' changed from {} to {}", name, oldState, newState);
+        onStateChange.accept(oldState, newState);
+    }
+
+    /**
+     * Permission for one upstream call, tied to the breaker state it was issued in.
+     */
+    public final class Permit {
+
+        private final long issuedIn;
+
+        private Permit(long issuedIn) {
+            this.issuedIn = issuedIn;
+        }
+
+        /**
+         * Records a completed call.
+         *
+         * @param durationNanos how long the call took; calls over the slow-call threshold count as failures
+         */
+        public void onSuccess(long durationNanos) {
+            CircuitBreaker.this.onSuccess(issuedIn, durationNanos);
+        }
+
+        /**
+         * Records a failed call.
+         */
+        public void onFailure() {
+            CircuitBreaker.this.onFailure(issuedIn);
+        }
+
+        /**
+         * Returns a permission that was not used for an upstream call.
+         */
+        public void release() {
+            CircuitBreaker.this.release(issuedIn);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.caching.repository;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Non-blocking permit pool. Callers that cannot get a permit immediately are queued and resumed
+ * in arrival order when a permit is released, so no thread is parked while waiting.
+ */
+public class ConcurrencyLimiter {
+
+    private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
+    private final Semaphore permits;
+    private final Queue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+
+    public ConcurrencyLimiter(int maxConcurrency) {
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * @return a future completed once the caller holds a permit; the caller must {@link #release()} it
+     */
+    public CompletableFuture<Void> acquire() {
+        if (waiters.isEmpty() && permits.tryAcquire()) {
+            return ACQUIRED;
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        // A permit may have been released between the failed tryAcquire and the enqueue
+        drain();
+        return waiter;
+    }
+
+    /**
+     * Returns a permit and hands it to the oldest waiter, if any.
+     */
+    public void release() {
+        permits.release();
+        drain();
+    }
+
+    /**
+     * @return the number of callers waiting for a permit
+     */
+    public int queued() {
+        return waiters.size();
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && permits.tryAcquire()) {
+            CompletableFuture<Void> waiter = waiters.poll();
+            if (waiter == null) {
+                permits.release();
+                return;
+            }
+            waiter.complete(null);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.caching.repository;
+
+import com.caching.dto.Place;
+import com.caching.exceptions.DataFetchingFailException;
+import com.caching.exceptions.InvalidAddressException;
+import com.caching.exceptions.InvalidCoordinateException;
+import com.caching.exceptions.UpstreamUnavailableException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An upstream geocoding API. Every provider bean is picked up by {@link GeocodingRepository}, which calls the one
+ * named by {@code geocoding.providers.primary} and hedges slow calls with {@code geocoding.providers.secondary}.
+ * <p>
+ * Futures complete with the first matching {@link Place}, or exceptionally with {@link InvalidAddressException} /
+ * {@link InvalidCoordinateException} when the provider has no result, {@link DataFetchingFailException} when the
+ * request fails or the response cannot be parsed, or {@link UpstreamUnavailableException} when the provider was not
+ * called because of its own limits. Cancelling a future abandons the call and aborts its request if still in flight.
+ */
+public interface GeocodingProvider {
+
+    /**
+     * @return the provider name used in configuration and metric tags
+     */
+    String getName();
+
+    /**
+     * @param address the canonical address
+     * @return a future completed with the place the address refers to
+     */
+    CompletableFuture<Place> fetchPlace(String address);
+
+    /**
+     * @param latitude  the latitude of the coordinates
+     * @param longitude the longitude of the coordinates
+     * @return a future completed with the place at the coordinates, which has a label
+     */
+    CompletableFuture<Place> fetchPlace(double latitude, double longitude);
+}
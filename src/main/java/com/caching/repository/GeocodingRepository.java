@@ -1,115 +1,338 @@
 package com.caching.repository;
 
+import com.caching.dto.GeoPoint;
+import com.caching.dto.Place;
 import com.caching.exceptions.DataFetchingFailException;
 import com.caching.exceptions.InvalidAddressException;
 import com.caching.exceptions.InvalidCoordinateException;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.caching.exceptions.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Repository;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+/**
+ * Fetches from the {@link GeocodingProvider} named by {@code geocoding.providers.primary}. When
+ * {@code geocoding.providers.secondary} names another provider, calls are hedged: if the primary has not answered
+ * after its recent {@code geocoding.hedge.percentile} latency (clamped to {@code geocoding.hedge.min-delay} and
+ * {@code geocoding.hedge.max-delay}, and {@code geocoding.hedge.initial-delay} until enough calls were seen), the
+ * secondary is called as well and the first usable answer wins, cancelling the other call. A primary that fails or
+ * returns an unusable answer fails over to the secondary straight away. A primary "no result" is final; a secondary
+ * "no result" only counts if the primary fails.
+ */
 @Slf4j
 @Repository
 @PropertySource("classpath:application.properties")
-public class GeocodingRepository {
+public class GeocodingRepository implements DisposableBean {
 
-    //For passing the test cases and running in main I am not able to use two application.properties files hence I am using this
-    private static final String GEOCODINGURL = "http://api.positionstack.com/v1/forward?access_key=878e863a37d2cd347650faa1a7e60d51&query=";
-    private static final String REVERSEGEOCODINGURL = "http://api.positionstack.com/v1/reverse?access_key=878e863a37d2cd347650faa1a7e60d51&query=";
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final GeocodingProvider primary;
+    private final GeocodingProvider secondary;
+    private final Map<String, ProviderLatencyTracker> latencyTrackers;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long initialDelayNanos;
+    private final MeterRegistry meterRegistry;
+    // Only fires hedges, which start non-blocking requests, so one thread is enough
+    private final ScheduledThreadPoolExecutor hedgeTimer;
+
+    public GeocodingRepository(List<GeocodingProvider> providers, MeterRegistry meterRegistry,
+                               @Value("${geocoding.providers.primary:positionstack}") String primaryName,
+                               @Value("${geocoding.providers.secondary:}") String secondaryName,
+                               @Value("${geocoding.hedge.percentile:0.95}") double percentile,
+                               @Value("${geocoding.hedge.window-size:512}") int windowSize,
+                               @Value("${geocoding.hedge.minimum-samples:20}") int minimumSamples,
+                               @Value("${geocoding.hedge.min-delay:50ms}") Duration minDelay,
+                               @Value("${geocoding.hedge.max-delay:2s}") Duration maxDelay,
+                               @Value("${geocoding.hedge.initial-delay:500ms}") Duration initialDelay) {
+        Map<String, GeocodingProvider> byName = providers.stream()
+                .collect(Collectors.toMap(GeocodingProvider::getName, Function.identity()));
+        this.primary = provider(byName, "geocoding.providers.primary", primaryName);
+        this.secondary = secondaryName.isBlank() ? null : provider(byName, "geocoding.providers.secondary", secondaryName);
+        if (secondary == primary) {
+            throw new IllegalStateException("geocoding.providers.secondary must differ from geocoding.providers.primary");
+        }
+        this.meterRegistry = meterRegistry;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.initialDelayNanos = initialDelay.toNanos();
+        this.latencyTrackers = byName.keySet().stream().collect(Collectors.toMap(Function.identity(),
+                name -> new ProviderLatencyTracker(percentile, windowSize, minimumSamples)));
+        latencyTrackers.forEach((name, tracker) -> Gauge.builder("geocoding.provider.latency", tracker,
+                        t -> t.getPercentileNanos() < 0 ? Double.NaN : t.getPercentileNanos() / 1e9)
+                .description("Tracked latency percentile of a geocoding provider over its recent calls")
+                .tag("provider", name)
+                .tag("percentile", String.valueOf(percentile))
+                .baseUnit("seconds")
+                .register(meterRegistry));
+        this.hedgeTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "geocoding-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most hedges are cancelled because the primary answered in time; drop them from the queue right away
+        hedgeTimer.setRemoveOnCancelPolicy(true);
+        if (secondary != null) {
+            Gauge.builder("geocoding.provider.hedge.delay", this, repository -> repository.hedgeDelayNanos() / 1e9)
+                    .description("How long a call to the primary provider runs before the secondary is called too")
+                    .tag("provider", primary.getName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            log.info("Geocoding with {} and hedging with {}", primary.getName(), secondary.getName());
+        }
+    }
+
+    private static GeocodingProvider provider(Map<String, GeocodingProvider> byName, String property, String name) {
+        GeocodingProvider provider = byName.get(name.trim());
+        if (provider == null) {
+            throw new IllegalStateException(property + " (" + name + ") must be one of the enabled providers " + byName.keySet());
+        }
+        return provider;
+    }
+
+    /**
+     * Looks up the place an address refers to, blocking until the response arrives.
+     *
+     * @param address the address to look up
+     * @return the first matching place
+     * @throws DataFetchingFailException    if the API request fails or the response could not be parsed
+     * @throws InvalidAddressException      if the given address is invalid
+     * @throws UpstreamUnavailableException if the request was not sent because of the circuit breaker or rate limit
+     */
+    public Place fetchPlaceForAddress(String address) {
+        return join(fetchPlaceForAddressAsync(address));
+    }
+
+    /**
+     * Looks up the place an address refers to without blocking the caller.
+     *
+     * @param address the address to look up
+     * @return a future completed with the first matching place, or completed exceptionally with
+     * {@link DataFetchingFailException} or {@link InvalidAddressException};
+     * {@link UpstreamUnavailableException} if the request was not sent because of the circuit breaker or rate limit
+     */
+    public CompletableFuture<Place> fetchPlaceForAddressAsync(String address) {
+        return fetch(provider -> provider.fetchPlace(address), place -> place != null);
+    }
 
     /**
-     * Fetches the coordinates from the geocoding API for the given address.
+     * Fetches the coordinates from the geocoding API for the given address without blocking the caller.
      *
      * @param address the address to fetch coordinates for
-     * @return a map containing the "latitude" and "longitude" of the given address
-     * @throws DataFetchingFailException if the API request fails
-     * @throws InvalidAddressException   if the given address is invalid
+     * @return a future completed with the coordinates of the given address, or completed exceptionally as
+     * {@link #fetchPlaceForAddressAsync(String)}
      */
-    public Map<String, Double> fetchCoordinatesFromApi(String address) {
-        //Creating the url as per the format
-        String url = String.format("%s%s", GEOCODINGURL, address);
-        //Calling the geocoding API
-        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-        if (response.getStatusCode() == HttpStatus.OK) {
-            try {
-                ObjectMapper objectMapper = new ObjectMapper();
-                // Convert JSON string to Map
-                Map<String, Object> responseBody = objectMapper.readValue(response.getBody(), Map.class);
-                // Get the first result
-                List<Map<String, Object>> data = (List<Map<String, Object>>) responseBody.get("data");
-                if (data != null && !data.isEmpty()) {
-                    // Get the latitude and longitude
-                    Map<String, Object> firstResult = data.get(0);
-                    Double latitude = (Double) firstResult.get("latitude");
-                    Double longitude = (Double) firstResult.get("longitude");
-                    // Return the coordinates
-                    Map<String, Double> coordinates = new HashMap<>();
-                    coordinates.put("latitude", latitude);
-                    coordinates.put("longitude", longitude);
-                    return coordinates;
-                } else {
-                    // Throwing error to Handle invalid address
-                    throw new InvalidAddressException("No data found for the given address.");
-                }
-            } catch (JsonProcessingException e) {
-                // Handle JSON parsing error
-                log.error("Error parsing geocoding API response: {}", e.getMessage());
-            }
-        } else {
-            // Handle other HTTP status codes
-            throw new DataFetchingFailException("Failed to fetch geocoding data. HTTP status: " + response.getStatusCode());
-        }
-        return Collections.emptyMap();
+    public CompletableFuture<GeoPoint> fetchCoordinatesFromApiAsync(String address) {
+        return fetchPlaceForAddressAsync(address).thenApply(place -> place == null ? null : place.toGeoPoint());
     }
 
     /**
-     * Fetches the address from the reverse geocoding API for the given latitude and longitude.
+     * Looks up the place at a coordinate, blocking until the response arrives.
      *
      * @param latitude  the latitude of the coordinates
      * @param longitude the longitude of the coordinates
-     * @return the address for the given coordinates
-     * @throws DataFetchingFailException  if the API request fails
-     * @throws InvalidCoordinateException if the given latitude and longitude are invalid
+     * @return the nearest labelled place
+     * @throws DataFetchingFailException    if the API request fails or the response could not be parsed
+     * @throws InvalidCoordinateException   if the given latitude and longitude are invalid
+     * @throws UpstreamUnavailableException if the request was not sent because of the circuit breaker or rate limit
      */
-    public String fetchAddressFromApi(double latitude, double longitude) {
-        //Creating the url as per the format
-        String url = String.format("%s%s,%s", REVERSEGEOCODINGURL, latitude, longitude);
-        //Calling the reverse geocoding API
-        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-        //Handling the response
-        if (response.getStatusCode() == HttpStatus.OK) {
-            try {
-                ObjectMapper objectMapper = new ObjectMapper();
-                // Convert JSON string to Map
-                Map<String, Object> responseBody = objectMapper.readValue(response.getBody(), Map.class);
-                // Get the first result
-                List<Map<String, Object>> data = Collections.unmodifiableList((List<Map<String, Object>>) responseBody.get("data"));
-                if (!data.isEmpty()) {
-                    Map<String, Object> firstResult = data.get(0);
-                    return (String) firstResult.get("label");
-                } else {
-                    // Throwing error to Handle invalid coordinates
-                    throw new InvalidCoordinateException("No data found for the given coordinates.");
+    public Place fetchPlaceForCoordinates(double latitude, double longitude) {
+        return join(fetchPlaceForCoordinatesAsync(latitude, longitude));
+    }
+
+    /**
+     * Looks up the place at a coordinate without blocking the caller.
+     *
+     * @param latitude  the latitude of the coordinates
+     * @param longitude the longitude of the coordinates
+     * @return a future completed with the nearest labelled place, or completed exceptionally with
+     * {@link DataFetchingFailException} or {@link InvalidCoordinateException};
+     * {@link UpstreamUnavailableException} if the request was not sent because of the circuit breaker or rate limit
+     */
+    public CompletableFuture<Place> fetchPlaceForCoordinatesAsync(double latitude, double longitude) {
+        return fetch(provider -> provider.fetchPlace(latitude, longitude),
+                place -> place != null && place.getLabel() != null && !place.getLabel().isEmpty());
+    }
+
+    /**
+     * Fetches the address from the reverse geocoding API for the given latitude and longitude
+     * without blocking the caller.
+     *
+     * @param latitude  the latitude of the coordinates
+     * @param longitude the longitude of the coordinates
+     * @return a future completed with the address for the given coordinates, or completed exceptionally as
+     * {@link #fetchPlaceForCoordinatesAsync(double, double)}
+     */
+    public CompletableFuture<String> fetchAddressFromApiAsync(double latitude, double longitude) {
+        return fetchPlaceForCoordinatesAsync(latitude, longitude)
+                .thenApply(place -> place == null || place.getLabel() == null ? "" : place.getLabel());
+    }
+
+    private <T> CompletableFuture<T> fetch(Function<GeocodingProvider, CompletableFuture<T>> call, Predicate<T> usable) {
+        if (secondary == null) {
+            return attempt(primary, call);
+        }
+        return new Hedge<>(call, usable).start();
+    }
+
+    /**
+     * @return how long the primary may run before the secondary is called too
+     */
+    long hedgeDelayNanos() {
+        long tracked = latencyTrackers.get(primary.getName()).getPercentileNanos();
+        long delay = tracked < 0 ? initialDelayNanos : tracked;
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, delay));
+    }
+
+    private <T> CompletableFuture<T> attempt(GeocodingProvider provider, Function<GeocodingProvider, CompletableFuture<T>> call) {
+        long started = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.apply(provider);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, ex) -> {
+            // Only answers drive the hedge delay; failures are the circuit breaker's business
+            if (ex == null || isNoResult(ex)) {
+                latencyTrackers.get(provider.getName()).record(System.nanoTime() - started);
+            }
+        });
+        // The provider's own future, so a hedge can cancel the call that lost
+        return future;
+    }
+
+    private static boolean isNoResult(Throwable ex) {
+        Throwable cause = UpstreamMetrics.unwrap(ex);
+        return cause instanceof InvalidAddressException || cause instanceof InvalidCoordinateException;
+    }
+
+    /**
+     * One hedged call. Completes {@link #result} with the first winning outcome, or once both providers are done
+     * with the primary's outcome, unless the primary failed and the secondary did not.
+     */
+    private final class Hedge<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Function<GeocodingProvider, CompletableFuture<T>> call;
+        private final Predicate<T> usable;
+        private final AtomicBoolean secondaryStarted = new AtomicBoolean();
+        private volatile CompletableFuture<T> primaryCall;
+        private volatile CompletableFuture<T> secondaryCall;
+
+        Hedge(Function<GeocodingProvider, CompletableFuture<T>> call, Predicate<T> usable) {
+            this.call = call;
+            this.usable = usable;
+        }
+
+        CompletableFuture<T> start() {
+            CompletableFuture<T> future = attempt(primary, call);
+            primaryCall = future;
+            future.whenComplete(this::onPrimary);
+            if (!result.isDone()) {
+                ScheduledFuture<?> timer = hedgeTimer.schedule(() -> startSecondary("delay"),
+                        hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+                result.whenComplete((value, ex) -> timer.cancel(false));
+            }
+            return result;
+        }
+
+        private void onPrimary(T value, Throwable ex) {
+            if (ex == null ? usable.test(value) : isNoResult(ex)) {
+                win(primary, value, ex);
+            } else if (!startSecondary("failover") && isDone(secondaryCall)) {
+                settle();
+            }
+        }
+
+        private void onSecondary(T value, Throwable ex) {
+            if (ex == null && usable.test(value)) {
+                win(secondary, value, null);
+            } else if (isDone(primaryCall)) {
+                settle();
+            }
+        }
+
+        private boolean startSecondary(String reason) {
+            if (result.isDone() || !secondaryStarted.compareAndSet(false, true)) {
+                return false;
+            }
+            Counter.builder("geocoding.provider.hedges")
+                    .description("Calls to the secondary provider, because the primary was slow (delay) or failed (failover)")
+                    .tag("provider", secondary.getName())
+                    .tag("reason", reason)
+                    .register(meterRegistry)
+                    .increment();
+            CompletableFuture<T> future = attempt(secondary, call);
+            secondaryCall = future;
+            if (result.isDone()) {
+                // The primary won while the secondary was being started
+                future.cancel(false);
+            }
+            future.whenComplete(this::onSecondary);
+            return true;
+        }
+
+        private void settle() {
+            CompletableFuture<T> primaryOutcome = primaryCall;
+            CompletableFuture<T> secondaryOutcome = secondaryCall;
+            boolean primaryFailed = primaryOutcome.isCompletedExceptionally();
+            boolean secondaryFailed = secondaryOutcome.isCompletedExceptionally()
+                    && secondaryOutcome.handle((value, ex) -> !isNoResult(ex)).join();
+            boolean useSecondary = primaryFailed && !secondaryFailed;
+            (useSecondary ? secondaryOutcome : primaryOutcome).whenComplete((value, ex) ->
+                    win(useSecondary ? secondary : primary, value, ex));
+        }
+
+        private void win(GeocodingProvider provider, T value, Throwable ex) {
+            boolean completed = ex == null ? result.complete(value) : result.completeExceptionally(UpstreamMetrics.unwrap(ex));
+            if (completed) {
+                CompletableFuture<T> loser = provider == primary ? secondaryCall : primaryCall;
+                if (loser != null) {
+                    loser.cancel(false);
                 }
-            } catch (JsonProcessingException e) {
-                // Handle JSON parsing error
-                log.error("Error parsing reverse geocoding API response: {}", e.getMessage());
+                Counter.builder("geocoding.provider.wins")
+                        .description("Hedged calls answered by each provider")
+                        .tag("provider", provider.getName())
+                        .register(meterRegistry)
+                        .increment();
             }
-        } else {
-            // Handle other HTTP status codes
-            throw new DataFetchingFailException("Failed to fetch reverse geocoding data. HTTP status: " + response.getStatusCode());
         }
-        return "";
+
+        private boolean isDone(CompletableFuture<T> future) {
+            return future != null && future.isDone();
+        }
     }
 
+    @Override
+    public void destroy() {
+        hedgeTimer.shutdownNow();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
 }
@@ -0,0 +1,187 @@
+package com.caching.repository;
+
+import com.caching.dto.Place;
+import com.caching.exceptions.DataFetchingFailException;
+import com.caching.exceptions.InvalidAddressException;
+import com.caching.exceptions.InvalidCoordinateException;
+import com.caching.exceptions.UpstreamUnavailableException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * {@link GeocodingProvider} for an OpenStreetMap Nominatim server ({@code /search} and {@code /reverse} with
+ * {@code format=jsonv2}), meant as the hedge target behind Positionstack. Only enabled with
+ * {@code geocoding.providers.nominatim.enabled=true}, and then {@code geocoding.providers.nominatim.base-url} must
+ * name the server explicitly: there is no default, so the public OSM server is never called by accident. The public
+ * server allows about one request per second and requires an identifying User-Agent, so requests above
+ * {@code geocoding.providers.nominatim.requests-per-second} are not sent.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "geocoding.providers.nominatim.enabled", havingValue = "true")
+public class NominatimProvider implements GeocodingProvider {
+
+    private final String baseUrl;
+    private final String userAgent;
+    private final Duration readTimeout;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TokenBucketRateLimiter rateLimiter;
+
+    public NominatimProvider(HttpClient geocodingHttpClient, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${geocoding.providers.nominatim.base-url:}") String baseUrl,
+                             @Value("${geocoding.providers.nominatim.user-agent:kdu-caching-geocoder}") String userAgent,
+                             @Value("${geocoding.providers.nominatim.requests-per-second:1}") double requestsPerSecond,
+                             @Value("${geocoding.http.read-timeout:5s}") Duration readTimeout) {
+        if (baseUrl.isBlank()) {
+            throw new IllegalStateException("geocoding.providers.nominatim.base-url must be set when the Nominatim provider is enabled");
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.userAgent = userAgent;
+        this.readTimeout = readTimeout;
+        this.httpClient = geocodingHttpClient;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.rateLimiter = new TokenBucketRateLimiter(requestsPerSecond, (int) Math.ceil(requestsPerSecond));
+    }
+
+    @Override
+    public String getName() {
+        return "nominatim";
+    }
+
+    @Override
+    public CompletableFuture<Place> fetchPlace(String address) {
+        String url = baseUrl + "/search?format=jsonv2&addressdetails=1&limit=1&q=" + URLEncoder.encode(address, StandardCharsets.UTF_8);
+        return send(url, "geocoding", "fetchCoordinatesFromApi", body -> {
+            JsonNode first = body.path(0);
+            if (first.isMissingNode()) {
+                throw new InvalidAddressException("No data found for the given address.");
+            }
+            if (!first.path("lat").isValueNode() || !first.path("lon").isValueNode()) {
+                log.error("Unexpected Nominatim search response: {}", body);
+                throw new DataFetchingFailException("Failed to parse Nominatim geocoding response: no coordinates");
+            }
+            return place(first, Double.NaN, Double.NaN);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Place> fetchPlace(double latitude, double longitude) {
+        String url = baseUrl + "/reverse?format=jsonv2&addressdetails=1&lat=" + latitude + "&lon=" + longitude;
+        return send(url, "reverse geocoding", "fetchAddressFromApi", body -> {
+            if (body.has("error")) {
+                throw new InvalidCoordinateException("No data found for the given coordinates.");
+            }
+            if (!body.path("display_name").isTextual()) {
+                log.error("Unexpected Nominatim reverse response: {}", body);
+                throw new DataFetchingFailException("Failed to parse Nominatim reverse geocoding response: no display_name");
+            }
+            return place(body, latitude, longitude);
+        });
+    }
+
+    // Nominatim reports importance rather than match confidence, so confidence is left unknown
+    private static Place place(JsonNode result, double defaultLatitude, double defaultLongitude) {
+        String country = result.path("address").path("country").textValue();
+        return new Place(result.path("lat").asDouble(defaultLatitude), result.path("lon").asDouble(defaultLongitude),
+                result.path("display_name").textValue(), Double.NaN, precisionOf(result.path("place_rank")),
+                country != null ? country.intern() : null, boundingBox(result.path("boundingbox")));
+    }
+
+    /**
+     * Maps a Nominatim place rank to how precisely the coordinates locate the place: 26 and 27 are streets,
+     * higher ranks are addresses, buildings and POIs.
+     */
+    static Place.Precision precisionOf(JsonNode placeRank) {
+        if (!placeRank.isNumber()) {
+            return null;
+        }
+        int rank = placeRank.intValue();
+        return rank >= 28 ? Place.Precision.POINT : rank >= 26 ? Place.Precision.STREET : Place.Precision.AREA;
+    }
+
+    // Nominatim lists south, north, west and east edges as strings
+    private static Place.BoundingBox boundingBox(JsonNode edges) {
+        if (!edges.isArray() || edges.size() != 4) {
+            return null;
+        }
+        double[] values = new double[4];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = edges.get(i).asDouble(Double.NaN);
+            if (Double.isNaN(values[i])) {
+                return null;
+            }
+        }
+        return new Place.BoundingBox(values[0], values[2], values[1], values[3]);
+    }
+
+    private CompletableFuture<Place> send(String url, String operation, String method, Function<JsonNode, Place> parse) {
+        if (!rateLimiter.tryAcquire()) {
+            Counter.builder("geocoding.upstream.rejected")
+                    .description("Upstream requests not sent because of the circuit breaker or rate limit")
+                    .tag("reason", "nominatim_rate_limited")
+                    .register(meterRegistry)
+                    .increment();
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException(
+                    "Failed to fetch " + operation + " data: Nominatim rate limit reached"));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(readTimeout)
+                .header("User-Agent", userAgent)
+                .GET()
+                .build();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<Place> result = exchange
+                .whenComplete((response, ex) -> sample.stop(
+                        UpstreamMetrics.requestTimer(meterRegistry, getName(), method, response, ex)))
+                .handle((response, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = UpstreamMetrics.unwrap(ex);
+                        if (cause instanceof CancellationException) {
+                            throw (CancellationException) cause;
+                        }
+                        log.error("Error calling Nominatim {} API: {}", operation, cause.toString());
+                        throw new DataFetchingFailException("Failed to fetch " + operation + " data: " + cause);
+                    }
+                    if (response.statusCode() != HttpStatus.OK.value()) {
+                        throw new DataFetchingFailException("Failed to fetch " + operation + " data. HTTP status: " + response.statusCode());
+                    }
+                    try {
+                        return objectMapper.readTree(response.body());
+                    } catch (IOException e) {
+                        throw new DataFetchingFailException("Failed to parse Nominatim " + operation + " response: " + e.getMessage());
+                    }
+                })
+                .thenApply(parse);
+        // A cancelled call, such as the losing side of a hedge, aborts its request
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,246 @@
+package com.caching.repository;
+
+import com.caching.dto.Place;
+import com.caching.exceptions.DataFetchingFailException;
+import com.caching.exceptions.InvalidAddressException;
+import com.caching.exceptions.InvalidCoordinateException;
+import com.caching.exceptions.UpstreamUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * {@link GeocodingProvider} for the Positionstack API, guarded by a circuit breaker, an adaptive rate limiter and a
+ * cap on concurrent connections.
+ */
+@Slf4j
+@Component
+public class PositionstackProvider implements GeocodingProvider {
+
+    // Marks a call whose caller cancelled it before the request went out
+    private static final CompletableFuture<?> ABANDONED = new CompletableFuture<>();
+
+    private final String geocodingUrl;
+    private final String reverseGeocodingUrl;
+    private final HttpClient httpClient;
+    private final PositionstackResponseDecoder responseDecoder;
+    private final Duration readTimeout;
+    // Caps concurrent upstream requests, and therefore open connections, without parking threads
+    private final ConcurrencyLimiter connectionLimiter;
+    private final MeterRegistry meterRegistry;
+    // Fail fast instead of queueing requests while Positionstack is failing or the plan quota is used up
+    private final CircuitBreaker circuitBreaker;
+    private final TokenBucketRateLimiter rateLimiter;
+
+    public PositionstackProvider(HttpClient geocodingHttpClient, PositionstackResponseDecoder responseDecoder,
+                                 MeterRegistry meterRegistry, CircuitBreaker positionstackCircuitBreaker,
+                                 TokenBucketRateLimiter positionstackRateLimiter,
+                                 @Value("${geocoding.upstream.base-url:http://api.positionstack.com/v1}") String baseUrl,
+                                 @Value("${geocoding.upstream.access-key:}") String accessKey,
+                                 @Value("${geocoding.http.read-timeout:5s}") Duration readTimeout,
+                                 @Value("${geocoding.http.max-connections:50}") int maxConnections) {
+        this.httpClient = geocodingHttpClient;
+        this.responseDecoder = responseDecoder;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = positionstackCircuitBreaker;
+        this.rateLimiter = positionstackRateLimiter;
+        this.readTimeout = readTimeout;
+        this.connectionLimiter = new ConcurrencyLimiter(maxConnections);
+        // Base URL is configurable so a local fake server can stand in for Positionstack
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        String key = URLEncoder.encode(accessKey, StandardCharsets.UTF_8);
+        // bbox_module adds each result's bounding box, kept in the 'places' cache
+        this.geocodingUrl = base + "/forward?access_key=" + key + "&bbox_module=1&query=";
+        this.reverseGeocodingUrl = base + "/reverse?access_key=" + key + "&query=";
+    }
+
+    @Override
+    public String getName() {
+        return "positionstack";
+    }
+
+    @Override
+    public CompletableFuture<Place> fetchPlace(String address) {
+        //Creating the url as per the format
+        String url = geocodingUrl + URLEncoder.encode(address, StandardCharsets.UTF_8);
+        //Calling the geocoding API
+        return send(url, "geocoding", "fetchCoordinatesFromApi", this::parseForward);
+    }
+
+    @Override
+    public CompletableFuture<Place> fetchPlace(double latitude, double longitude) {
+        //Creating the url as per the format
+        String url = String.format("%s%s,%s", reverseGeocodingUrl, latitude, longitude);
+        //Calling the reverse geocoding API
+        return send(url, "reverse geocoding", "fetchAddressFromApi", this::parseReverse);
+    }
+
+    private <T> CompletableFuture<T> send(String url, String operation, String method, Function<byte[], T> parse) {
+        // Built before taking a circuit permission, so a malformed URL cannot leak one
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(readTimeout)
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(
+                    new DataFetchingFailException("Failed to fetch " + operation + " data: " + e.getMessage()));
+        }
+        CircuitBreaker.Permit circuitPermit = circuitBreaker.tryAcquirePermission();
+        if (circuitPermit == null) {
+            return reject("circuit_open", "Failed to fetch " + operation + " data: upstream circuit is open");
+        }
+        if (!rateLimiter.tryAcquire()) {
+            circuitPermit.release();
+            return reject("rate_limited", "Failed to fetch " + operation + " data: upstream rate limit reached");
+        }
+        // Set once the call is in flight; from then on its outcome settles the circuit permission
+        AtomicBoolean sent = new AtomicBoolean();
+        // The exchange in flight, or ABANDONED once the caller cancelled, so a cancelled call is aborted or never sent
+        AtomicReference<CompletableFuture<?>> exchange = new AtomicReference<>();
+        CompletableFuture<T> result = connectionLimiter.acquire()
+                .thenCompose(permit -> {
+                    if (exchange.get() == ABANDONED) {
+                        return CompletableFuture.<HttpResponse<byte[]>>failedFuture(new CancellationException());
+                    }
+                    // Timed from the moment a connection permit is held, so queueing is not counted as latency
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    long started = System.nanoTime();
+                    CompletableFuture<HttpResponse<byte[]>> call =
+                            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+                    sent.set(true);
+                    if (!exchange.compareAndSet(null, call)) {
+                        call.cancel(true);
+                    }
+                    return call.whenComplete((response, ex) -> {
+                        sample.stop(UpstreamMetrics.requestTimer(meterRegistry, getName(), method, response, ex));
+                        recordOutcome(circuitPermit, response, ex, System.nanoTime() - started);
+                    });
+                })
+                .whenComplete((response, ex) -> {
+                    connectionLimiter.release();
+                    if (!sent.get()) {
+                        // Nothing reached upstream, so the call says nothing about its health
+                        circuitPermit.release();
+                    }
+                })
+                .handle((response, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = UpstreamMetrics.unwrap(ex);
+                        if (cause instanceof CancellationException) {
+                            throw (CancellationException) cause;
+                        }
+                        log.error("Error calling {} API: {}", operation, cause.toString());
+                        String reason = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                        throw new DataFetchingFailException("Failed to fetch " + operation + " data: " + reason);
+                    }
+                    //Handling the response
+                    if (response.statusCode() != HttpStatus.OK.value()) {
+                        // Handle other HTTP status codes
+                        throw new DataFetchingFailException("Failed to fetch " + operation + " data. HTTP status: " + response.statusCode());
+                    }
+                    return response.body();
+                })
+                .thenApply(parse);
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                CompletableFuture<?> inFlight = exchange.getAndSet(ABANDONED);
+                if (inFlight != null) {
+                    inFlight.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    private <T> CompletableFuture<T> reject(String reason, String message) {
+        Counter.builder("geocoding.upstream.rejected")
+                .description("Upstream requests not sent because of the circuit breaker or rate limit")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.debug(message);
+        return CompletableFuture.failedFuture(new UpstreamUnavailableException(message));
+    }
+
+    private void recordOutcome(CircuitBreaker.Permit circuitPermit, HttpResponse<?> response, Throwable ex,
+                               long durationNanos) {
+        if (UpstreamMetrics.unwrap(ex) instanceof CancellationException) {
+            // Abandoned by the caller, which says nothing about upstream health
+            circuitPermit.release();
+            return;
+        }
+        if (ex != null || countsAsFailure(response.statusCode())) {
+            circuitPermit.onFailure();
+            return;
+        }
+        // Throttling means upstream is healthy but we are too fast, which is the rate limiter's job
+        circuitPermit.onSuccess(durationNanos);
+        if (response.statusCode() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            rateLimiter.onThrottled();
+        } else {
+            rateLimiter.onSuccess();
+        }
+    }
+
+    /**
+     * Server errors, and a rejected access key, fail every call until fixed, so both trip the breaker. Other 4xx
+     * answers are about the single request and 429 belongs to the rate limiter, so those leave it alone.
+     */
+    static boolean countsAsFailure(int statusCode) {
+        return statusCode >= HttpStatus.INTERNAL_SERVER_ERROR.value()
+                || statusCode == HttpStatus.UNAUTHORIZED.value()
+                || statusCode == HttpStatus.FORBIDDEN.value();
+    }
+
+    private Place parseForward(byte[] body) {
+        try {
+            // Only data[0] is read from the body
+            Place place = responseDecoder.decodePlace(body);
+            if (place == null) {
+                // Throwing error to Handle invalid address
+                throw new InvalidAddressException("No data found for the given address.");
+            }
+            return place;
+        } catch (IOException e) {
+            // Handle JSON parsing error
+            log.error("Error parsing geocoding API response: {}", e.getMessage());
+            throw new DataFetchingFailException("Failed to parse geocoding response: " + e.getMessage());
+        }
+    }
+
+    private Place parseReverse(byte[] body) {
+        try {
+            // Only data[0] is read from the body
+            Place place = responseDecoder.decodePlace(body);
+            if (place == null || place.getLabel() == null) {
+                // Throwing error to Handle invalid coordinates
+                throw new InvalidCoordinateException("No data found for the given coordinates.");
+            }
+            return place;
+        } catch (IOException e) {
+            // Handle JSON parsing error
+            log.error("Error parsing reverse geocoding API response: {}", e.getMessage());
+            throw new DataFetchingFailException("Failed to parse reverse geocoding response: " + e.getMessage());
+        }
+    }
+}
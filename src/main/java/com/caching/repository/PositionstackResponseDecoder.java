@@ -0,0 +1,144 @@
+package com.caching.repository;
+
+import com.caching.dto.Place;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Decodes Positionstack responses with a streaming parser.
+ * Only {@code data[0]} is read: every other member is skipped without being materialized, and parsing stops as
+ * soon as the fields we need have been seen, so the remaining results are never tokenized.
+ */
+@Component
+public class PositionstackResponseDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    public PositionstackResponseDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Reads the first result of a forward or reverse geocoding response.
+     *
+     * @param body the raw response body
+     * @return the coordinates, label, confidence, precision, country and bounding box of {@code data[0]}, or null if
+     * the response has no result with coordinates
+     * @throws IOException if the body is not valid JSON or has no {@code data} array
+     */
+    public Place decodePlace(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (!seekFirstResult(parser)) {
+                return null;
+            }
+            double latitude = Double.NaN;
+            double longitude = Double.NaN;
+            double confidence = Double.NaN;
+            String label = null;
+            String type = null;
+            String country = null;
+            Place.BoundingBox boundingBox = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("latitude".equals(field) && value.isNumeric()) {
+                    latitude = parser.getDoubleValue();
+                } else if ("longitude".equals(field) && value.isNumeric()) {
+                    longitude = parser.getDoubleValue();
+                } else if ("confidence".equals(field) && value.isNumeric()) {
+                    confidence = parser.getDoubleValue();
+                } else if ("label".equals(field) && value == JsonToken.VALUE_STRING) {
+                    label = parser.getText();
+                } else if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if ("country".equals(field) && value == JsonToken.VALUE_STRING) {
+                    country = parser.getText().intern();
+                } else if ("bbox_module".equals(field) && value == JsonToken.START_ARRAY) {
+                    boundingBox = readBoundingBox(parser);
+                } else {
+                    parser.skipChildren();
+                }
+                if (label != null && type != null && country != null && boundingBox != null
+                        && !Double.isNaN(latitude) && !Double.isNaN(longitude) && !Double.isNaN(confidence)) {
+                    break;
+                }
+            }
+            return Double.isNaN(latitude) || Double.isNaN(longitude) ? null
+                    : new Place(latitude, longitude, label, confidence, precisionOf(type), country, boundingBox);
+        }
+    }
+
+    /**
+     * Maps a Positionstack result type to how precisely its coordinates locate it.
+     *
+     * @return the precision, or null if the type is missing
+     */
+    static Place.Precision precisionOf(String type) {
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case "venue":
+            case "address":
+                return Place.Precision.POINT;
+            case "street":
+                return Place.Precision.STREET;
+            default:
+                return Place.Precision.AREA;
+        }
+    }
+
+    /**
+     * Reads a {@code bbox_module} array, which lists west, south, east and north edges in that order.
+     *
+     * @return the bounding box, or null if the array does not hold four numbers
+     */
+    private static Place.BoundingBox readBoundingBox(JsonParser parser) throws IOException {
+        double[] edges = new double[4];
+        int count = 0;
+        boolean valid = true;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token.isNumeric() && count < edges.length) {
+                edges[count] = parser.getDoubleValue();
+            } else {
+                parser.skipChildren();
+                valid = false;
+            }
+            count++;
+        }
+        return valid && count == edges.length ? new Place.BoundingBox(edges[1], edges[0], edges[3], edges[2]) : null;
+    }
+
+    /**
+     * Advances the parser to the start of {@code data[0]}. A body without a {@code data} array is malformed rather
+     * than "no result", so it is not remembered as a definite answer.
+     *
+     * @return true if the parser is positioned on the first result object, false if there is no result
+     * @throws JsonParseException if the body is not an object with a {@code data} array
+     */
+    private static boolean seekFirstResult(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(field)) {
+                if (value != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "Expected \"data\" to be an array");
+                }
+                // Positionstack answers "no result" with either [] or [[]]
+                return parser.nextToken() == JsonToken.START_OBJECT;
+            }
+            parser.skipChildren();
+        }
+        throw new JsonParseException(parser, "No \"data\" field in the response");
+    }
+}
@@ -0,0 +1,53 @@
+package com.caching.repository;
+
+import java.util.Arrays;
+
+/**
+ * Tracks a latency percentile over a provider's most recent calls, to decide how long to wait before hedging.
+ * Samples go into a fixed ring buffer; the percentile is recomputed every {@code recomputeEvery} samples rather than
+ * on every read, so reading it on the request path is a volatile load.
+ */
+public class ProviderLatencyTracker {
+
+    private final double percentile;
+    private final int minimumSamples;
+    private final int recomputeEvery;
+    private final long[] samples;
+    private int next;
+    private long count;
+    private volatile long percentileNanos = -1;
+
+    /**
+     * @param percentile     the percentile to track, between 0 and 1
+     * @param windowSize     how many recent samples the percentile is computed over
+     * @param minimumSamples samples needed before a percentile is reported
+     */
+    public ProviderLatencyTracker(double percentile, int windowSize, int minimumSamples) {
+        this.percentile = percentile;
+        this.samples = new long[windowSize];
+        this.minimumSamples = Math.min(minimumSamples, windowSize);
+        this.recomputeEvery = Math.max(1, windowSize / 16);
+    }
+
+    /**
+     * @param nanos the latency of a completed call
+     */
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count++;
+        if (count >= minimumSamples && (count - minimumSamples) % recomputeEvery == 0) {
+            int size = (int) Math.min(count, samples.length);
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            percentileNanos = sorted[Math.max(0, Math.min(size - 1, (int) Math.ceil(percentile * size) - 1))];
+        }
+    }
+
+    /**
+     * @return the tracked percentile in nanoseconds, or -1 until enough samples have been recorded
+     */
+    public long getPercentileNanos() {
+        return percentileNanos;
+    }
+}
@@ -0,0 +1,74 @@
+package com.caching.repository;
+
+/**
+ * Non-blocking token bucket that adapts its refill rate to upstream throttling.
+ * Tokens refill continuously at the current rate up to {@code burst}. A throttling response halves the rate
+ * (down to a floor of 1/16 of the configured rate), and every successful call adds back 1/100 of it, so the rate
+ * converges on what upstream actually accepts without exceeding the configured plan quota.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+    private double rate;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param requestsPerSecond the plan quota, and the highest rate the limiter returns to
+     * @param burst             how many requests may be sent back to back after an idle period
+     */
+    public TokenBucketRateLimiter(double requestsPerSecond, int burst) {
+        this.maxRate = requestsPerSecond;
+        this.minRate = requestsPerSecond / 16;
+        this.burst = Math.max(1, burst);
+        this.rate = requestsPerSecond;
+        this.tokens = this.burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * @return true if a token was taken, false if the caller must not call upstream now
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Slows down after upstream answered with a throttling status.
+     */
+    public synchronized void onThrottled() {
+        refill();
+        rate = Math.max(minRate, rate / 2);
+        tokens = Math.min(tokens, 0);
+    }
+
+    /**
+     * Speeds back up towards the configured rate after a successful call.
+     */
+    public synchronized void onSuccess() {
+        if (rate < maxRate) {
+            refill();
+            rate = Math.min(maxRate, rate + maxRate / 100);
+        }
+    }
+
+    /**
+     * @return the current refill rate in requests per second
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * rate / 1_000_000_000d);
+        refilledAt = now;
+    }
+}
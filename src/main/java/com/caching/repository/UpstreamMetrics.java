@@ -0,0 +1,33 @@
+package com.caching.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Meters shared by the {@link GeocodingProvider} implementations.
+ */
+final class UpstreamMetrics {
+
+    private UpstreamMetrics() {
+    }
+
+    static Timer requestTimer(MeterRegistry meterRegistry, String provider, String method, HttpResponse<?> response,
+                              Throwable ex) {
+        return Timer.builder("geocoding.upstream.requests")
+                .description("Latency of upstream geocoding provider requests")
+                .tag("provider", provider)
+                .tag("method", method)
+                .tag("status", response != null ? String.valueOf(response.statusCode()) : "NONE")
+                .tag("exception", ex != null ? unwrap(ex).getClass().getSimpleName() : "None")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
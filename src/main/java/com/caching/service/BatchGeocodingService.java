@@ -0,0 +1,164 @@
+package com.caching.service;
+
+import com.caching.dto.BatchItemResult;
+import com.caching.dto.BatchResponse;
+import com.caching.dto.Coordinate;
+import com.caching.dto.GeoPoint;
+import com.caching.geo.GeocodingKeyGenerator;
+import com.caching.geo.ReverseGeocodingKeyGenerator;
+import com.caching.repository.ConcurrencyLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+public class BatchGeocodingService {
+
+    private final GeocodingService geocodingService;
+    private final CacheManager cacheManager;
+    private final GeocodingKeyGenerator geocodingKeyGenerator;
+    private final ReverseGeocodingKeyGenerator reverseGeocodingKeyGenerator;
+    // Maximum number of concurrent upstream calls a single batch may have in flight
+    private final int concurrency;
+    // Starts misses once a permit is free, off the thread that released it
+    private final Executor executor;
+
+    public BatchGeocodingService(GeocodingService geocodingService, CacheManager cacheManager,
+                                 GeocodingKeyGenerator geocodingKeyGenerator,
+                                 ReverseGeocodingKeyGenerator reverseGeocodingKeyGenerator,
+                                 @Value("${geocoding.batch.concurrency:8}") int concurrency,
+                                 @Qualifier("geocodingExecutor") Executor executor) {
+        this.geocodingService = geocodingService;
+        this.cacheManager = cacheManager;
+        this.geocodingKeyGenerator = geocodingKeyGenerator;
+        this.reverseGeocodingKeyGenerator = reverseGeocodingKeyGenerator;
+        this.concurrency = concurrency;
+        this.executor = executor;
+    }
+
+    /**
+     * Resolves a list of addresses. Cache hits are answered from the 'geocoding' cache directly and counted like
+     * single hits; only the misses are sent upstream with bounded concurrency. Misses go through
+     * {@link GeocodingService#getCoordinatesAsync} so they are coalesced and written back to the cache like single
+     * requests.
+     *
+     * @param addresses the addresses to resolve
+     * @return a future of per-address results and errors, in request order
+     */
+    public CompletableFuture<BatchResponse<String, GeoPoint>> getCoordinatesBatch(List<String> addresses) {
+        return resolve("geocoding", addresses,
+                address -> address == null || address.isBlank() ? "Address must not be blank." : null,
+                geocodingKeyGenerator::keyFor,
+                geocodingService::getCoordinatesAsync);
+    }
+
+    /**
+     * Resolves a list of coordinates. Cache hits are answered from the 'reverse-geocoding' cache directly and only
+     * the misses are sent upstream with bounded concurrency.
+     *
+     * @param coordinates the coordinates to resolve
+     * @return a future of per-coordinate results and errors, in request order
+     */
+    public CompletableFuture<BatchResponse<Coordinate, String>> getAddressBatch(List<Coordinate> coordinates) {
+        return resolve("reverse-geocoding", coordinates,
+                BatchGeocodingService::validateCoordinate,
+                coordinate -> reverseGeocodingKeyGenerator.keyFor(coordinate.getLatitude(), coordinate.getLongitude()),
+                coordinate -> geocodingService.getAddressAsync(coordinate.getLatitude(), coordinate.getLongitude()));
+    }
+
+    private static String validateCoordinate(Coordinate coordinate) {
+        if (coordinate == null || coordinate.getLatitude() == null || coordinate.getLongitude() == null
+                || coordinate.getLatitude() < -90 || coordinate.getLatitude() > 90
+                || coordinate.getLongitude() < -180 || coordinate.getLongitude() > 180) {
+            return "Invalid latitude or longitude. Latitude must be between -90 and 90, and longitude between -180 and 180.";
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <Q, R> CompletableFuture<BatchResponse<Q, R>> resolve(String cacheName, List<Q> queries,
+                                                                  Function<Q, String> validator,
+                                                                  Function<Q, Object> keyFunction,
+                                                                  Function<Q, CompletableFuture<R>> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(concurrency);
+        // Duplicate queries in the same batch are resolved once
+        Map<Q, BatchItemResult<Q, R>> resolved = new LinkedHashMap<>();
+        Map<Q, CompletableFuture<R>> misses = new LinkedHashMap<>();
+        for (Q query : queries) {
+            if (resolved.containsKey(query) || misses.containsKey(query)) {
+                continue;
+            }
+            String validationError = validator.apply(query);
+            if (validationError != null) {
+                resolved.put(query, BatchItemResult.failure(query, validationError));
+                continue;
+            }
+            Cache.ValueWrapper hit = cache != null ? cache.get(keyFunction.apply(query)) : null;
+            if (hit != null && hit.get() != null) {
+                geocodingService.recordHit(cacheName, hit.get());
+                resolved.put(query, toResult(query, (R) hit.get(), true));
+            } else {
+                misses.put(query, limiter.acquire()
+                        .thenComposeAsync(permit -> loader.apply(query), executor)
+                        .whenComplete((result, ex) -> limiter.release()));
+            }
+        }
+        log.debug("Batch lookup on '{}': {} queries, {} cache hits, {} misses",
+                cacheName, queries.size(), resolved.size(), misses.size());
+
+        return CompletableFuture.allOf(misses.values().toArray(new CompletableFuture[0]))
+                .handle((ignored, ex) -> {
+                    misses.forEach((query, future) -> resolved.put(query, await(query, future)));
+                    return assemble(queries, resolved, misses.size());
+                });
+    }
+
+    private static <Q, R> BatchResponse<Q, R> assemble(List<Q> queries, Map<Q, BatchItemResult<Q, R>> resolved,
+                                                       int cacheMisses) {
+        List<BatchItemResult<Q, R>> results = new ArrayList<>(queries.size());
+        int cacheHits = 0;
+        int errors = 0;
+        for (Q query : queries) {
+            BatchItemResult<Q, R> item = resolved.get(query);
+            results.add(item);
+            if (item.getError() != null) {
+                errors++;
+            } else if (item.isCached()) {
+                cacheHits++;
+            }
+        }
+        return new BatchResponse<>(cacheHits, cacheMisses, errors, results);
+    }
+
+    private static <Q, R> BatchItemResult<Q, R> toResult(Q query, R result, boolean cached) {
+        // Mirrors the single endpoints, which answer 404 for empty results
+        if (result == null || (result instanceof String && ((String) result).isEmpty())) {
+            return BatchItemResult.failure(query, "No result found.");
+        }
+        return BatchItemResult.success(query, result, cached);
+    }
+
+    private static <Q, R> BatchItemResult<Q, R> await(Q query, CompletableFuture<R> future) {
+        try {
+            return toResult(query, future.join(), false);
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            log.debug("Batch item {} failed: {}", query, cause.getMessage());
+            return BatchItemResult.failure(query, cause.getMessage());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.caching.service;
+
+import com.caching.config.CachePolicyProperties;
+import com.caching.dto.CachePolicyUpdate;
+import com.caching.dto.CachePolicyView;
+import com.caching.exceptions.InvalidCachePolicyException;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and changes the sizing and expiry of the running caches.
+ * Changes go through Caffeine's policy, so entries are kept and the new bounds apply on the next write or
+ * maintenance cycle; they are also recorded in {@link CachePolicyProperties} so a re-created cache keeps them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheAdminService {
+
+    private final CacheManager cacheManager;
+    private final CachePolicyProperties policyProperties;
+
+    /**
+     * @return the policy, occupancy and statistics of every cache
+     */
+    public List<CachePolicyView> describeAll() {
+        List<CachePolicyView> views = new ArrayList<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            CachePolicyView view = describe(cacheName);
+            if (view != null) {
+                views.add(view);
+            }
+        }
+        return views;
+    }
+
+    /**
+     * @param cacheName the cache to describe
+     * @return the cache's policy, occupancy and statistics, or null if there is no such cache
+     */
+    public CachePolicyView describe(String cacheName) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cacheName);
+        if (nativeCache == null) {
+            return null;
+        }
+        CachePolicyProperties.Policy policy = policyProperties.policyFor(cacheName);
+        Policy<Object, Object> runtime = nativeCache.policy();
+        CacheStats stats = nativeCache.stats();
+        return new CachePolicyView(
+                cacheName,
+                runtime.eviction().map(Policy.Eviction::getMaximum).orElse(-1L),
+                runtime.eviction().map(eviction -> eviction.weightedSize().orElse(-1L)).orElse(-1L),
+                nativeCache.estimatedSize(),
+                format(runtime.expireAfterWrite().map(Policy.FixedExpiration::getExpiresAfter).orElse(null)),
+                format(runtime.refreshAfterWrite().map(Policy.FixedRefresh::getRefreshesAfter).orElse(null)),
+                format(runtime.expireAfterAccess().map(Policy.FixedExpiration::getExpiresAfter).orElse(null)),
+                policy.getInitialCapacity(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.evictionWeight());
+    }
+
+    /**
+     * Applies a partial policy change to a running cache.
+     *
+     * @param cacheName the cache to change
+     * @param update    the fields to change; absent fields are kept
+     * @return the cache's policy after the change, or null if there is no such cache
+     * @throws InvalidCachePolicyException if a size or duration cannot be parsed or is not positive
+     */
+    public CachePolicyView update(String cacheName, CachePolicyUpdate update) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cacheName);
+        if (nativeCache == null) {
+            return null;
+        }
+        // Parse everything first so an invalid field leaves the cache untouched
+        DataSize maximumWeight = update.getMaximumWeight() != null ? parseSize(update.getMaximumWeight()) : null;
+        Duration hardTtl = update.getHardTtl() != null ? parseDuration("hardTtl", update.getHardTtl()) : null;
+        Duration softTtl = update.getSoftTtl() != null ? parseDuration("softTtl", update.getSoftTtl()) : null;
+        Duration idleTtl = update.getIdleTtl() != null ? parseDuration("idleTtl", update.getIdleTtl()) : null;
+        if (update.getInitialCapacity() != null && update.getInitialCapacity() < 0) {
+            throw new InvalidCachePolicyException("initialCapacity must not be negative");
+        }
+
+        CachePolicyProperties.Policy policy = policyProperties.policyFor(cacheName);
+        Policy<Object, Object> runtime = nativeCache.policy();
+        if (maximumWeight != null) {
+            runtime.eviction().ifPresent(eviction -> eviction.setMaximum(maximumWeight.toBytes()));
+            policy.setMaximumWeight(maximumWeight);
+        }
+        if (hardTtl != null) {
+            runtime.expireAfterWrite().ifPresent(expiration -> expiration.setExpiresAfter(hardTtl));
+            policy.setHardTtl(hardTtl);
+        }
+        if (softTtl != null) {
+            runtime.refreshAfterWrite().ifPresent(refresh -> refresh.setRefreshesAfter(softTtl));
+            policy.setSoftTtl(softTtl);
+        }
+        if (idleTtl != null) {
+            runtime.expireAfterAccess().ifPresent(expiration -> expiration.setExpiresAfter(idleTtl));
+            policy.setIdleTtl(idleTtl);
+        }
+        if (update.getInitialCapacity() != null) {
+            policy.setInitialCapacity(update.getInitialCapacity());
+        }
+        log.info("Updated policy of cache '{}': {}", cacheName, update);
+        return describe(cacheName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache)) {
+            return null;
+        }
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+    }
+
+    private static DataSize parseSize(String value) {
+        try {
+            DataSize size = DataSize.parse(value.trim());
+            if (size.toBytes() <= 0) {
+                throw new InvalidCachePolicyException("maximumWeight must be positive: " + value);
+            }
+            return size;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCachePolicyException("Invalid maximumWeight: " + value);
+        }
+    }
+
+    private static Duration parseDuration(String field, String value) {
+        try {
+            Duration duration = DurationStyle.detectAndParse(value.trim());
+            if (duration.isZero() || duration.isNegative()) {
+                throw new InvalidCachePolicyException(field + " must be positive: " + value);
+            }
+            return duration;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCachePolicyException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static String format(Duration duration) {
+        return duration != null ? duration.toString() : null;
+    }
+}
@@ -0,0 +1,292 @@
+package com.caching.service;
+
+import com.caching.cache.TieredCache;
+import com.caching.dto.GeoPoint;
+import com.caching.dto.WarmupRecord;
+import com.caching.dto.WarmupReport;
+import com.caching.geo.GeocodingKeyGenerator;
+import com.caching.geo.ReverseGeocodingKeyGenerator;
+import com.caching.geo.SpatialGridIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Preloads the 'geocoding' and 'reverse-geocoding' caches from a local file at startup, and exports the hottest
+ * cached entries in the same format so a production cache can be snapshotted and replayed.
+ * <p>
+ * The file is streamed line by line and handed to a small worker pool in batches; the pool's queue is bounded and
+ * the reading thread runs a batch itself when it is full, so at most a few batches are held in memory regardless of
+ * file size. Runners complete before Spring Boot reports the application ready to take traffic, so startup waits
+ * for the preload, up to {@code geocoding.cache.warmup.deadline}; after that the application reports ready and the
+ * preload finishes in the background. Existing entries, e.g. from the disk tier, are never overwritten, and warmed
+ * entries are only held in memory: the file does not say how old they are, so the disk tier, which keeps its own
+ * write times across restarts, would take them as freshly written.
+ */
+@Slf4j
+@Service
+public class CacheWarmupService implements ApplicationRunner, DisposableBean {
+
+    private final CacheManager cacheManager;
+    private final GeocodingKeyGenerator geocodingKeyGenerator;
+    private final ReverseGeocodingKeyGenerator reverseGeocodingKeyGenerator;
+    private final SpatialGridIndex spatialGridIndex;
+    private final ObjectMapper objectMapper;
+    private final String warmupFile;
+    private final Duration deadline;
+    private final int parallelism;
+    private final int batchSize;
+    // Set on shutdown so a running preload stops before the caches are closed
+    private volatile boolean stopping;
+    private volatile ThreadPoolExecutor activeWorkers;
+
+    public CacheWarmupService(CacheManager cacheManager, GeocodingKeyGenerator geocodingKeyGenerator,
+                              ReverseGeocodingKeyGenerator reverseGeocodingKeyGenerator,
+                              SpatialGridIndex spatialGridIndex, ObjectMapper objectMapper,
+                              @Value("${geocoding.cache.warmup.file:}") String warmupFile,
+                              @Value("${geocoding.cache.warmup.deadline:2m}") Duration deadline,
+                              @Value("${geocoding.cache.warmup.parallelism:4}") int parallelism,
+                              @Value("${geocoding.cache.warmup.batch-size:1000}") int batchSize) {
+        this.cacheManager = cacheManager;
+        this.geocodingKeyGenerator = geocodingKeyGenerator;
+        this.reverseGeocodingKeyGenerator = reverseGeocodingKeyGenerator;
+        this.spatialGridIndex = spatialGridIndex;
+        this.objectMapper = objectMapper;
+        this.warmupFile = warmupFile;
+        this.deadline = deadline;
+        this.parallelism = Math.max(1, parallelism);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (warmupFile.isBlank()) {
+            return;
+        }
+        Path file = Path.of(warmupFile);
+        if (!Files.isReadable(file)) {
+            log.warn("Cache warm-up file {} is not readable, starting with cold caches", file);
+            return;
+        }
+        CompletableFuture<WarmupReport> warmup = CompletableFuture.supplyAsync(() -> preload(file),
+                runnable -> new CustomizableThreadFactory("cache-warmup-").newThread(runnable).start());
+        try {
+            WarmupReport report = warmup.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Cache warm-up finished: {}", report);
+        } catch (TimeoutException e) {
+            log.warn("Cache warm-up did not finish within {}, reporting ready while it continues", deadline);
+            warmup.thenAccept(report -> log.info("Cache warm-up finished: {}", report));
+        } catch (ExecutionException e) {
+            log.error("Cache warm-up from {} failed: {}", file, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Loads every record of a warm-up file into the caches, without overwriting existing entries.
+     * Malformed or out-of-range lines are skipped.
+     *
+     * @param file a CSV or JSON lines file, see {@link WarmupFormat}
+     * @return how many entries were loaded and skipped
+     */
+    public WarmupReport preload(Path file) {
+        long started = System.currentTimeMillis();
+        WarmupFormat format = WarmupFormat.forFile(file);
+        Cache forwardCache = cacheManager.getCache("geocoding");
+        Cache reverseCache = cacheManager.getCache("reverse-geocoding");
+        LongAdder forward = new LongAdder();
+        LongAdder reverse = new LongAdder();
+        LongAdder skipped = new LongAdder();
+        log.info("Warming up caches from {} ({}) with {} workers", file, format, parallelism);
+
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism), new CustomizableThreadFactory("cache-warmup-worker-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        activeWorkers = workers;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            String line;
+            while (!stopping && (line = reader.readLine()) != null) {
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    List<String> lines = batch;
+                    workers.execute(() -> load(lines, format, forwardCache, reverseCache, forward, reverse, skipped));
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            List<String> lines = batch;
+            workers.execute(() -> load(lines, format, forwardCache, reverseCache, forward, reverse, skipped));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read cache warm-up file " + file, e);
+        } finally {
+            workers.shutdown();
+            awaitTermination(workers);
+        }
+        return new WarmupReport(file.toString(), forward.sum(), reverse.sum(), skipped.sum(),
+                System.currentTimeMillis() - started);
+    }
+
+    private void load(List<String> lines, WarmupFormat format, Cache forwardCache, Cache reverseCache,
+                      LongAdder forward, LongAdder reverse, LongAdder skipped) {
+        for (String line : lines) {
+            if (stopping) {
+                return;
+            }
+            WarmupRecord record;
+            try {
+                record = format.parse(line, objectMapper);
+            } catch (IOException e) {
+                log.debug("Skipping malformed warm-up line '{}': {}", line, e.getMessage());
+                skipped.increment();
+                continue;
+            }
+            if (record == null) {
+                continue;
+            }
+            if (!isValid(record)) {
+                log.debug("Skipping invalid warm-up record: {}", record);
+                skipped.increment();
+            } else if (WarmupRecord.FORWARD.equalsIgnoreCase(record.getKind()) && forwardCache != null) {
+                String key = geocodingKeyGenerator.keyFor(record.getText());
+                if (key.isEmpty() || !GeocodingService.isCacheableAddress(key)) {
+                    skipped.increment();
+                    continue;
+                }
+                putIfAbsent(forwardCache, key, new GeoPoint(record.getLatitude(), record.getLongitude()));
+                forward.increment();
+            } else if (WarmupRecord.REVERSE.equalsIgnoreCase(record.getKind()) && reverseCache != null) {
+                Object key = reverseGeocodingKeyGenerator.keyFor(record.getLatitude(), record.getLongitude());
+                putIfAbsent(reverseCache, key, record.getText());
+                spatialGridIndex.add(record.getLatitude(), record.getLongitude(), key);
+                reverse.increment();
+            } else {
+                skipped.increment();
+            }
+        }
+    }
+
+    private static void putIfAbsent(Cache cache, Object key, Object value) {
+        if (cache instanceof TieredCache) {
+            ((TieredCache) cache).putIfAbsentInMemory(key, value);
+        } else {
+            cache.putIfAbsent(key, value);
+        }
+    }
+
+    private static boolean isValid(WarmupRecord record) {
+        return record.getKind() != null && record.getText() != null && !record.getText().isBlank()
+                && record.getLatitude() != null && Math.abs(record.getLatitude()) <= 90
+                && record.getLongitude() != null && Math.abs(record.getLongitude()) <= 180;
+    }
+
+    /**
+     * Writes the hottest entries of both caches in a warm-up file format, most frequently used first.
+     * Forward records carry the canonical address; reverse records carry the coordinate of the cache key, i.e. the
+     * cell centre for geohash keys, which maps back to the same key on replay.
+     *
+     * @param format the output format
+     * @param limit  the maximum number of entries per cache
+     * @param out    the stream to write to; it is flushed but not closed
+     */
+    public void export(WarmupFormat format, int limit, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == WarmupFormat.CSV) {
+            writer.write(WarmupFormat.CSV_HEADER);
+            writer.write('\n');
+        }
+        long exported = 0;
+        for (Map.Entry<Object, Object> entry : hottest("geocoding", limit).entrySet()) {
+            if (entry.getKey() instanceof String && entry.getValue() instanceof GeoPoint) {
+                GeoPoint point = (GeoPoint) entry.getValue();
+                write(writer, format, new WarmupRecord(WarmupRecord.FORWARD, point.getLatitude(), point.getLongitude(),
+                        (String) entry.getKey()));
+                exported++;
+            }
+        }
+        for (Map.Entry<Object, Object> entry : hottest("reverse-geocoding", limit).entrySet()) {
+            if (entry.getValue() instanceof String && !((String) entry.getValue()).isEmpty()) {
+                double[] coordinates = ReverseGeocodingKeyGenerator.coordinatesOf(entry.getKey());
+                write(writer, format, new WarmupRecord(WarmupRecord.REVERSE, coordinates[0], coordinates[1],
+                        (String) entry.getValue()));
+                exported++;
+            }
+        }
+        writer.flush();
+        log.info("Exported {} hot cache entries as {}", exported, format);
+    }
+
+    private void write(Writer writer, WarmupFormat format, WarmupRecord record) throws IOException {
+        writer.write(format.format(record, objectMapper));
+        writer.write('\n');
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> hottest(String cacheName, int limit) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache)) {
+            return Map.of();
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        // A snapshot of at most limit entries, ordered by Caffeine's frequency-based eviction policy; an unbounded
+        // cache has no frequency order, so any limit entries are taken
+        return nativeCache.policy().eviction()
+                .map(eviction -> eviction.hottest(limit))
+                .orElseGet(() -> nativeCache.asMap().entrySet().stream()
+                        .limit(limit)
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a,
+                                LinkedHashMap::new)));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        stopping = true;
+        ThreadPoolExecutor workers = activeWorkers;
+        if (workers != null) {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor workers) {
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Cache warm-up still loading, {} batches queued", workers.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.caching.service;
+
+import com.caching.cluster.PeerCacheClient;
+import com.caching.dto.Place;
+import com.caching.geo.GeocodingKeyGenerator;
+import com.caching.geo.ReverseGeocodingKeyGenerator;
+import com.caching.geo.SpatialGridIndex;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Fills the opposite cache from every place upstream answers with: a forward result also answers a reverse lookup
+ * at its coordinates (under the quantized 'reverse-geocoding' key), and a reverse result also answers a forward
+ * lookup of its label (under the canonical 'geocoding' key). Existing entries are never overwritten, and in peer
+ * mode only keys this instance owns are filled. Only point and street-level places at
+ * {@code geocoding.cache.cross-populate.min-confidence} or above are used: a town or region is answered with its
+ * centre, and its label is not the address of that spot.
+ * <p>
+ * Filled entries are counted in geocoding.cache.cross-populated; the first hit on each one, an upstream call it
+ * saved, is counted in geocoding.cache.cross-populated.hits. Filled values are remembered by identity with weak
+ * keys, so the bookkeeping goes away with the cache entry.
+ */
+@Slf4j
+@Component
+public class CrossCachePopulator {
+
+    private final boolean enabled;
+    private final double minConfidence;
+    private final CacheManager cacheManager;
+    private final GeocodingKeyGenerator geocodingKeyGenerator;
+    private final ReverseGeocodingKeyGenerator reverseGeocodingKeyGenerator;
+    private final SpatialGridIndex spatialGridIndex;
+    private final PeerCacheClient peerCacheClient;
+    private final Counter forwardFilled;
+    private final Counter reverseFilled;
+    private final Counter forwardHits;
+    private final Counter reverseHits;
+    // Filled values not hit yet, by identity, with the cache they were put in
+    private final ConcurrentMap<Object, String> unhit;
+
+    public CrossCachePopulator(CacheManager cacheManager, MeterRegistry meterRegistry,
+                               GeocodingKeyGenerator geocodingKeyGenerator,
+                               ReverseGeocodingKeyGenerator reverseGeocodingKeyGenerator,
+                               SpatialGridIndex spatialGridIndex, PeerCacheClient peerCacheClient,
+                               @Value("${geocoding.cache.cross-populate.enabled:true}") boolean enabled,
+                               @Value("${geocoding.cache.cross-populate.min-confidence:0.8}") double minConfidence) {
+        this.enabled = enabled;
+        this.minConfidence = minConfidence;
+        this.cacheManager = cacheManager;
+        this.geocodingKeyGenerator = geocodingKeyGenerator;
+        this.reverseGeocodingKeyGenerator = reverseGeocodingKeyGenerator;
+        this.spatialGridIndex = spatialGridIndex;
+        this.peerCacheClient = peerCacheClient;
+        this.forwardFilled = counter(meterRegistry, "geocoding.cache.cross-populated", "geocoding",
+                "Entries filled from an upstream answer for the opposite direction");
+        this.reverseFilled = counter(meterRegistry, "geocoding.cache.cross-populated", "reverse-geocoding",
+                "Entries filled from an upstream answer for the opposite direction");
+        this.forwardHits = counter(meterRegistry, "geocoding.cache.cross-populated.hits", "geocoding",
+                "First hits on entries filled from the opposite direction, each an upstream call saved");
+        this.reverseHits = counter(meterRegistry, "geocoding.cache.cross-populated.hits", "reverse-geocoding",
+                "First hits on entries filled from the opposite direction, each an upstream call saved");
+        this.unhit = Caffeine.newBuilder().weakKeys().<Object, String>build().asMap();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String cacheName, String description) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Caches the label of a forward geocoding result as the address at its coordinates.
+     *
+     * @param place the place upstream answered a forward lookup with, may be null
+     */
+    public void fromForward(Place place) {
+        if (!usable(place)) {
+            return;
+        }
+        Cache cache = cacheManager.getCache("reverse-geocoding");
+        Object key = reverseGeocodingKeyGenerator.keyFor(place.getLatitude(), place.getLongitude());
+        if (cache == null || peerCacheClient.ownerOf("reverse-geocoding", key) != null) {
+            return;
+        }
+        String address = place.getLabel();
+        if (cache.putIfAbsent(key, address) == null) {
+            spatialGridIndex.add(place.getLatitude(), place.getLongitude(), key);
+            unhit.put(address, "reverse-geocoding");
+            reverseFilled.increment();
+            log.debug("Filled 'reverse-geocoding' entry {} from forward result {}", key, address);
+        }
+    }
+
+    /**
+     * Caches the coordinates of a reverse geocoding result as the coordinates of its label.
+     *
+     * @param place the place upstream answered a reverse lookup with, may be null
+     */
+    public void fromReverse(Place place) {
+        if (!usable(place)) {
+            return;
+        }
+        Cache cache = cacheManager.getCache("geocoding");
+        String key = geocodingKeyGenerator.keyFor(place.getLabel());
+        if (cache == null || key.isEmpty() || !GeocodingService.isCacheableAddress(key)
+                || peerCacheClient.ownerOf("geocoding", key) != null) {
+            return;
+        }
+        Object coordinates = place.toGeoPoint();
+        if (cache.putIfAbsent(key, coordinates) == null) {
+            unhit.put(coordinates, "geocoding");
+            forwardFilled.increment();
+            log.debug("Filled 'geocoding' entry {} from reverse result {}", key, coordinates);
+        }
+    }
+
+    /**
+     * Counts the first hit on a filled entry.
+     *
+     * @param value the cached value a lookup was answered with
+     */
+    public void onHit(Object value) {
+        if (!enabled || value == null) {
+            return;
+        }
+        String cacheName = unhit.remove(value);
+        if (cacheName != null) {
+            ("geocoding".equals(cacheName) ? forwardHits : reverseHits).increment();
+        }
+    }
+
+    private boolean usable(Place place) {
+        return enabled && place != null && place.getLabel() != null && !place.getLabel().isBlank()
+                && (place.getPrecision() == Place.Precision.POINT || place.getPrecision() == Place.Precision.STREET)
+                && (Double.isNaN(place.getConfidence()) || place.getConfidence() >= minConfidence);
+    }
+}
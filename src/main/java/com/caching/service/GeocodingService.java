@@ -1,67 +1,524 @@
 package com.caching.service;
 
+import com.caching.audit.MappingAuditLog;
+import com.caching.cache.NegativeResultCache;
+import com.caching.cache.StaleEntrySweeper;
+import com.caching.cache.TieredCache;
+import com.caching.cluster.PeerCacheClient;
+import com.caching.dto.EvictionReport;
+import com.caching.dto.GeoPoint;
+import com.caching.dto.Place;
+import com.caching.exceptions.InvalidAddressException;
+import com.caching.exceptions.InvalidCoordinateException;
+import com.caching.exceptions.UpstreamUnavailableException;
+import com.caching.geo.GazetteerResolver;
+import com.caching.geo.GeocodingKeyGenerator;
+import com.caching.geo.ReverseGeocodingKeyGenerator;
+import com.caching.geo.SpatialGridIndex;
 import com.caching.repository.GeocodingRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class GeocodingService {
 
     private final GeocodingRepository geocodingRepository;
     private final CacheManager cacheManager;
+    // Concurrent misses for the same key share one upstream call instead of stampeding Positionstack
+    private final RequestCoalescer<String, GeoPoint> geocodingCoalescer;
+    private final RequestCoalescer<Object, String> reverseGeocodingCoalescer;
+    private final RequestCoalescer<String, Place> placeCoalescer;
+    private final GeocodingKeyGenerator geocodingKeyGenerator;
+    private final ReverseGeocodingKeyGenerator reverseGeocodingKeyGenerator;
+    private final SpatialGridIndex spatialGridIndex;
+    private final Counter nearestAddressHits;
+    private final StaleEntrySweeper staleEntrySweeper;
+    private final MeterRegistry meterRegistry;
+    private final Counter geocodingHits;
+    private final Counter geocodingMisses;
+    private final Counter reverseGeocodingHits;
+    private final Counter reverseGeocodingMisses;
+    private final Counter geocodingNoResults;
+    private final Counter reverseGeocodingNoResults;
+    private final Counter placeHits;
+    private final Counter placeMisses;
+    private final Counter placeNoResults;
+    // Queries upstream had no result for, answered without calling it again
+    private final NegativeResultCache negativeResultCache;
+    // Well-known places answered from memory before any upstream call
+    private final GazetteerResolver gazetteerResolver;
+    // In peer mode, misses for keys owned by another instance are asked from that instance first
+    private final PeerCacheClient peerCacheClient;
+    // Mappings resolved upstream are audited by a background writer, not logged on the request thread
+    private final MappingAuditLog mappingAuditLog;
+    // Every upstream answer also fills the cache for the opposite direction
+    private final CrossCachePopulator crossCachePopulator;
     //Note : I have added manual cache clearing along with the automatic one to show that I am able to evict the cache according to the needs.
 
+    public GeocodingService(GeocodingRepository geocodingRepository, CacheManager cacheManager, MeterRegistry meterRegistry,
+                            GeocodingKeyGenerator geocodingKeyGenerator,
+                            ReverseGeocodingKeyGenerator reverseGeocodingKeyGenerator, SpatialGridIndex spatialGridIndex,
+                            StaleEntrySweeper staleEntrySweeper, NegativeResultCache negativeResultCache,
+                            GazetteerResolver gazetteerResolver, PeerCacheClient peerCacheClient,
+                            MappingAuditLog mappingAuditLog, CrossCachePopulator crossCachePopulator) {
+        this.geocodingRepository = geocodingRepository;
+        this.cacheManager = cacheManager;
+        this.geocodingKeyGenerator = geocodingKeyGenerator;
+        this.reverseGeocodingKeyGenerator = reverseGeocodingKeyGenerator;
+        this.spatialGridIndex = spatialGridIndex;
+        this.staleEntrySweeper = staleEntrySweeper;
+        this.negativeResultCache = negativeResultCache;
+        this.gazetteerResolver = gazetteerResolver;
+        this.peerCacheClient = peerCacheClient;
+        this.mappingAuditLog = mappingAuditLog;
+        this.crossCachePopulator = crossCachePopulator;
+        this.meterRegistry = meterRegistry;
+        this.geocodingHits = lookupCounter(meterRegistry, "geocoding", "hit");
+        this.geocodingMisses = lookupCounter(meterRegistry, "geocoding", "miss");
+        this.reverseGeocodingHits = lookupCounter(meterRegistry, "reverse-geocoding", "hit");
+        this.reverseGeocodingMisses = lookupCounter(meterRegistry, "reverse-geocoding", "miss");
+        this.geocodingNoResults = lookupCounter(meterRegistry, "geocoding", "no-result");
+        this.reverseGeocodingNoResults = lookupCounter(meterRegistry, "reverse-geocoding", "no-result");
+        this.placeHits = lookupCounter(meterRegistry, "places", "hit");
+        this.placeMisses = lookupCounter(meterRegistry, "places", "miss");
+        this.placeNoResults = lookupCounter(meterRegistry, "places", "no-result");
+        this.nearestAddressHits = Counter.builder("geocoding.reverse.nearest.hits")
+                .description("Reverse geocoding misses answered with a cached address within the nearest-neighbour radius")
+                .register(meterRegistry);
+        Counter geocodingWaiters = coalescedWaitersCounter(meterRegistry, "geocoding");
+        Counter reverseGeocodingWaiters = coalescedWaitersCounter(meterRegistry, "reverse-geocoding");
+        Counter placeWaiters = coalescedWaitersCounter(meterRegistry, "places");
+        this.geocodingCoalescer = new RequestCoalescer<>(geocodingWaiters::increment);
+        this.reverseGeocodingCoalescer = new RequestCoalescer<>(reverseGeocodingWaiters::increment);
+        this.placeCoalescer = new RequestCoalescer<>(placeWaiters::increment);
+    }
+
+    private static Counter coalescedWaitersCounter(MeterRegistry meterRegistry, String cacheName) {
+        return Counter.builder("geocoding.coalesced.waiters")
+                .description("Requests that joined an in-flight upstream call instead of starting their own")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String cacheName, String result) {
+        return Counter.builder("geocoding.cache.requests")
+                .description("Service lookups by cache result")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     /**
-     * Given an address, this method returns the corresponding latitude and longitude. If the address is 'goa', this
-     * method does not cache the result. Otherwise, it caches the result in the 'geocoding' cache.
+     * Given an address, this method returns the corresponding latitude and longitude. If the address is 'goa' in any
+     * spelling that normalizes to it, this method does not cache the result. Otherwise, it caches the result in the 'geocoding' cache.
+     * This is a blocking wrapper over {@link #getCoordinatesAsync(String)}, so both share one lookup path: canonical
+     * keys, the negative cache, the gazetteer, peers, coalescing and the stale fallback.
      *
      * @param address the address to be resolved
-     * @return a map of latitude and longitude
+     * @return the latitude and longitude
+     * @throws InvalidAddressException if upstream has no result for the address
      */
-    @Cacheable(value = "geocoding", key = "#address", condition = "!#address.trim().equalsIgnoreCase('goa')")
-    public Map<String, Double> getCoordinates(String address) {
-        log.debug("Cache miss for address: {}", address);
-        Map<String, Double> coordinates = geocodingRepository.fetchCoordinatesFromApi(address);
-        log.info("Mapped address {} to coordinates: {}", address, coordinates);
-        return coordinates;
+    public GeoPoint getCoordinates(String address) {
+        return join(getCoordinatesAsync(address));
     }
 
     /**
-     * Given a latitude and longitude, this method returns the corresponding address. If the coordinates are not found
-     * in the cache, this method fetches the address from the reverse geocoding API and caches the result in the
-     * 'reverse-geocoding' cache.
+     * Given a latitude and longitude, this method returns the corresponding address, caching it in the
+     * 'reverse-geocoding' cache. This is a blocking wrapper over {@link #getAddressAsync(double, double)}.
      *
      * @param latitude  the latitude of the coordinates
      * @param longitude the longitude of the coordinates
      * @return the corresponding address
+     * @throws InvalidCoordinateException if upstream has no result for the coordinates
      */
-    @Cacheable(value = "reverse-geocoding", key = "{#latitude, #longitude}")
     public String getAddress(double latitude, double longitude) {
+        return join(getAddressAsync(latitude, longitude));
+    }
+
+    /**
+     * Waits for a lookup and rethrows its failure as thrown by the lookup, not wrapped.
+     */
+    private static <T> T join(CompletableFuture<T> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #getCoordinates(String)}. It reads and populates the same 'geocoding' cache
+     * entries, so synchronous and asynchronous callers share cached results and in-flight upstream calls.
+     * In peer mode, a miss for an address owned by another instance is answered by that instance, which caches it;
+     * the answer is not cached here, so each entry is held once in the cluster.
+     *
+     * @param address the address to be resolved
+     * @return a future completed with the latitude and longitude
+     */
+    public CompletableFuture<GeoPoint> getCoordinatesAsync(String address) {
+        return coordinatesAsync(address, true);
+    }
+
+    /**
+     * Variant of {@link #getCoordinatesAsync(String)} for lookups from a peer that found this instance owns the
+     * address. It never asks another peer.
+     *
+     * @param address the address to be resolved
+     * @return a future completed with the latitude and longitude
+     */
+    public CompletableFuture<GeoPoint> getCoordinatesForPeer(String address) {
+        return coordinatesAsync(address, false);
+    }
+
+    private CompletableFuture<GeoPoint> coordinatesAsync(String address, boolean askPeer) {
+        Cache cache = cacheManager.getCache("geocoding");
+        String key = canonicalAddress(address);
+        Cache.ValueWrapper cached = cache != null && isCacheableAddress(key) ? cache.get(key) : null;
+        if (cached != null) {
+            geocodingHits.increment();
+            crossCachePopulator.onHit(cached.get());
+            return CompletableFuture.completedFuture((GeoPoint) cached.get());
+        }
+        String noResult = negativeResultCache.get("geocoding", key);
+        if (noResult != null) {
+            geocodingNoResults.increment();
+            return CompletableFuture.failedFuture(new InvalidAddressException(noResult));
+        }
+        log.debug("Cache miss for address: {}", address);
+        geocodingMisses.increment();
+        GeoPoint local = gazetteerResolver.resolveCoordinates(key);
+        if (local != null) {
+            if (cache != null && isCacheableAddress(key)) {
+                cache.put(key, local);
+            }
+            return CompletableFuture.completedFuture(local);
+        }
+        String owner = askPeer ? peerCacheClient.ownerOf("geocoding", key) : null;
+        return geocodingCoalescer.execute(key, () -> owner == null
+                        ? loadCoordinates(cache, address, key)
+                        : peerCacheClient.fetchCoordinates(owner, key).thenCompose(fromPeer -> fromPeer != null
+                        ? CompletableFuture.completedFuture(fromPeer) : loadCoordinates(cache, address, key)))
+                .exceptionally(ex -> (GeoPoint) staleFallback(cache, key, ex));
+    }
+
+    private CompletableFuture<GeoPoint> loadCoordinates(Cache cache, String address, String key) {
+        return loadPlace(cache, cacheManager.getCache("places"), address, key)
+                .thenApply(place -> place != null ? place.toGeoPoint() : null);
+    }
+
+    /**
+     * Loads an address from upstream and stores the answer as coordinates in {@code coordinatesCache} and as a whole
+     * place in {@code placesCache}; either may be null when the entry is stored by a refresh instead.
+     */
+    private CompletableFuture<Place> loadPlace(Cache coordinatesCache, Cache placesCache, String address, String key) {
+        return timeLoadAsync("geocoding", () -> geocodingRepository.fetchPlaceForAddressAsync(key))
+                .whenComplete((place, ex) -> rememberNoResult("geocoding", key, isCacheableAddress(key), ex))
+                .thenApply(place -> {
+                    GeoPoint coordinates = place != null ? place.toGeoPoint() : null;
+                    mappingAuditLog.recordCoordinates(address, coordinates);
+                    // A null result means the response could not be parsed, which must not be cached
+                    if (place != null && isCacheableAddress(key)) {
+                        if (coordinatesCache != null) {
+                            coordinatesCache.put(key, coordinates);
+                        }
+                        if (placesCache != null) {
+                            placesCache.put(key, place);
+                        }
+                    }
+                    crossCachePopulator.fromForward(place);
+                    return place;
+                });
+    }
+
+    /**
+     * Resolves an address to the whole place upstream answers with: coordinates, label, confidence, precision,
+     * country and bounding box. Answers are kept in the 'places' cache; a place lookup also fills the 'geocoding'
+     * entry, and every upstream forward answer fills the 'places' entry. Places are always loaded locally, not asked
+     * from a peer, and do not share an in-flight call with a coordinates lookup of the same address.
+     *
+     * @param address the address to be resolved
+     * @return a future completed with the place, or null if the response could not be parsed
+     */
+    public CompletableFuture<Place> getPlaceAsync(String address) {
+        Cache cache = cacheManager.getCache("places");
+        String key = canonicalAddress(address);
+        Cache.ValueWrapper cached = cache != null && isCacheableAddress(key) ? cache.get(key) : null;
+        if (cached != null) {
+            placeHits.increment();
+            return CompletableFuture.completedFuture((Place) cached.get());
+        }
+        String noResult = negativeResultCache.get("geocoding", key);
+        if (noResult != null) {
+            placeNoResults.increment();
+            return CompletableFuture.failedFuture(new InvalidAddressException(noResult));
+        }
+        log.debug("Cache miss for place: {}", address);
+        placeMisses.increment();
+        return placeCoalescer.execute(key, () -> loadPlace(cacheManager.getCache("geocoding"), cache, address, key))
+                .exceptionally(ex -> (Place) staleFallback(cache, key, ex));
+    }
+
+    /**
+     * Reloads a 'places' entry for refresh-ahead through the same path as a miss, coalesced with place misses for
+     * the same key.
+     *
+     * @param key the canonical address the entry is cached under
+     * @return a future completed with the place, or null if the response could not be parsed
+     */
+    public CompletableFuture<Place> reloadPlace(String key) {
+        return placeCoalescer.execute(key, () -> loadPlace(cacheManager.getCache("geocoding"), null, key, key));
+    }
+
+    /**
+     * Counts a hit answered from the cache outside this service, such as a batch item, the same way as a hit on the
+     * single-item path.
+     *
+     * @param cacheName the cache the value was found in
+     * @param value     the cached value
+     */
+    void recordHit(String cacheName, Object value) {
+        ("geocoding".equals(cacheName) ? geocodingHits : reverseGeocodingHits).increment();
+        crossCachePopulator.onHit(value);
+    }
+
+    /**
+     * Reloads a 'geocoding' entry for refresh-ahead through the same path as a miss, so the mapping is audited,
+     * a "no result" answer is remembered and the reverse cache is filled. The reload shares the coalescer with
+     * misses, so a refresh and a concurrent miss for the key make one upstream call. Storing the value is left to
+     * the cache that refreshes the entry.
+     *
+     * @param key the canonical address the entry is cached under
+     * @return a future completed with the latitude and longitude, or null if the response could not be parsed
+     */
+    public CompletableFuture<GeoPoint> reloadCoordinates(String key) {
+        return geocodingCoalescer.execute(key, () -> loadCoordinates(null, key, key));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getAddress(double, double)}. It reads and populates the same
+     * 'reverse-geocoding' cache entries as the synchronous method. In peer mode, a miss for coordinates owned by
+     * another instance is answered by that instance and not cached here.
+     *
+     * @param latitude  the latitude of the coordinates
+     * @param longitude the longitude of the coordinates
+     * @return a future completed with the corresponding address
+     */
+    public CompletableFuture<String> getAddressAsync(double latitude, double longitude) {
+        return addressAsync(latitude, longitude, true);
+    }
+
+    /**
+     * Variant of {@link #getAddressAsync(double, double)} for lookups from a peer that found this instance owns the
+     * coordinates. It never asks another peer.
+     *
+     * @param latitude  the latitude of the coordinates
+     * @param longitude the longitude of the coordinates
+     * @return a future completed with the corresponding address
+     */
+    public CompletableFuture<String> getAddressForPeer(double latitude, double longitude) {
+        return addressAsync(latitude, longitude, false);
+    }
+
+    private CompletableFuture<String> addressAsync(double latitude, double longitude, boolean askPeer) {
+        Cache cache = cacheManager.getCache("reverse-geocoding");
+        Object key = reverseGeocodingKeyGenerator.keyFor(latitude, longitude);
+        Cache.ValueWrapper cached = cache != null ? cache.get(key) : null;
+        if (cached != null) {
+            reverseGeocodingHits.increment();
+            crossCachePopulator.onHit(cached.get());
+            return CompletableFuture.completedFuture((String) cached.get());
+        }
         log.debug("Cache miss for coordinates: {}, {}", latitude, longitude);
-        String address = geocodingRepository.fetchAddressFromApi(latitude, longitude);
-        log.info("Mapped coordinates ({}, {}) to address: {}", latitude, longitude, address);
-        return address;
+        String nearbyAddress = findNearbyAddress(cache, latitude, longitude);
+        if (nearbyAddress != null) {
+            reverseGeocodingMisses.increment();
+            cache.put(key, nearbyAddress);
+            return CompletableFuture.completedFuture(nearbyAddress);
+        }
+        String noResult = negativeResultCache.get("reverse-geocoding", key);
+        if (noResult != null) {
+            reverseGeocodingNoResults.increment();
+            return CompletableFuture.failedFuture(new InvalidCoordinateException(noResult));
+        }
+        reverseGeocodingMisses.increment();
+        String local = gazetteerResolver.resolveAddress(latitude, longitude);
+        if (local != null) {
+            if (cache != null) {
+                cache.put(key, local);
+            }
+            return CompletableFuture.completedFuture(local);
+        }
+        String owner = askPeer ? peerCacheClient.ownerOf("reverse-geocoding", key) : null;
+        return reverseGeocodingCoalescer.execute(key, () -> owner == null
+                        ? loadAddress(cache, latitude, longitude, key)
+                        : peerCacheClient.fetchAddress(owner, latitude, longitude).thenCompose(fromPeer -> fromPeer != null
+                        ? CompletableFuture.completedFuture(fromPeer) : loadAddress(cache, latitude, longitude, key)))
+                .exceptionally(ex -> (String) staleFallback(cache, key, ex));
+    }
+
+    private CompletableFuture<String> loadAddress(Cache cache, double latitude, double longitude, Object key) {
+        return timeLoadAsync("reverse-geocoding", () -> geocodingRepository.fetchPlaceForCoordinatesAsync(latitude, longitude))
+                .whenComplete((place, ex) -> rememberNoResult("reverse-geocoding", key, true, ex))
+                .thenApply(place -> {
+                    String address = place != null && place.getLabel() != null ? place.getLabel() : "";
+                    mappingAuditLog.recordAddress(latitude, longitude, address);
+                    // An empty result means the response could not be parsed, which must not be cached
+                    if (cache != null && !address.isEmpty()) {
+                        cache.put(key, address);
+                        spatialGridIndex.add(latitude, longitude, key);
+                    }
+                    crossCachePopulator.fromReverse(place);
+                    return address;
+                });
+    }
+
+    /**
+     * Reloads a 'reverse-geocoding' entry for refresh-ahead through the same path as a miss, coalesced with
+     * misses for the same key. A geohash key is queried at the centre of its cell.
+     *
+     * @param key the key the entry is cached under
+     * @return a future completed with the address, or an empty string if the response could not be parsed
+     */
+    public CompletableFuture<String> reloadAddress(Object key) {
+        double[] coordinates = ReverseGeocodingKeyGenerator.coordinatesOf(key);
+        return reverseGeocodingCoalescer.execute(key, () -> loadAddress(null, coordinates[0], coordinates[1], key));
     }
 
     /**
-     * Evicts a specific geocoding cache entry for the given address, if present.
+     * Looks up a cached address resolved for a coordinate within the nearest-neighbour radius.
+     * Index entries whose cache entry has been evicted are dropped on the way.
+     *
+     * @return the cached address, or null if the index is disabled or nothing cached is close enough
+     */
+    private String findNearbyAddress(Cache cache, double latitude, double longitude) {
+        if (cache == null || !spatialGridIndex.isEnabled()) {
+            return null;
+        }
+        SpatialGridIndex.Entry nearest = spatialGridIndex.nearest(latitude, longitude);
+        if (nearest == null) {
+            return null;
+        }
+        Cache.ValueWrapper cached = cache.get(nearest.getCacheKey());
+        if (cached == null || !(cached.get() instanceof String) || ((String) cached.get()).isEmpty()) {
+            spatialGridIndex.remove(nearest);
+            return null;
+        }
+        nearestAddressHits.increment();
+        log.debug("Answered coordinates ({}, {}) with cached address for nearby ({}, {})",
+                latitude, longitude, nearest.getLatitude(), nearest.getLongitude());
+        return (String) cached.get();
+    }
+
+    /**
+     * Records a definite "no result" answer from upstream in the negative cache. Other failures are transient and
+     * are ignored, so they are retried on the next request.
+     */
+    private void rememberNoResult(String cacheName, Object key, boolean cacheable, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cacheable && (cause instanceof InvalidAddressException || cause instanceof InvalidCoordinateException)) {
+            negativeResultCache.put(cacheName, key, cause.getMessage());
+        }
+    }
+
+    /**
+     * Answers a failed load with the last known value when upstream was not called because the circuit breaker is
+     * open or the rate limit is reached. The value is returned but not re-cached, so it keeps its original age.
+     *
+     * @return the stale value
+     * @throws CompletionException with the original failure if there is no stale value to serve
+     */
+    private Object staleFallback(Cache cache, Object key, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof UpstreamUnavailableException && cache instanceof TieredCache) {
+            Cache.ValueWrapper stale = ((TieredCache) cache).getStale(key);
+            if (stale != null && stale.get() != null && !"".equals(stale.get())) {
+                log.debug("Serving stale '{}' cache entry for {}: {}", cache.getName(), key, cause.getMessage());
+                Counter.builder("geocoding.cache.stale.served")
+                        .description("Stale cache entries served because upstream was unavailable")
+                        .tag("cache", cache.getName())
+                        .register(meterRegistry)
+                        .increment();
+                return stale.get();
+            }
+        }
+        throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(cause);
+    }
+
+    /**
+     * Times an upstream load started on a cache miss. Only the caller that starts the load is timed; callers that
+     * join it are counted in geocoding.coalesced.waiters.
+     */
+    private <T> CompletableFuture<T> timeLoadAsync(String cacheName, Supplier<CompletableFuture<T>> load) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return load.get().whenComplete((value, ex) -> sample.stop(loadTimer(cacheName, ex)));
+        } catch (RuntimeException ex) {
+            sample.stop(loadTimer(cacheName, ex));
+            throw ex;
+        }
+    }
+
+    private Timer loadTimer(String cacheName, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return Timer.builder("geocoding.cache.load")
+                .description("Time to load a missing cache entry from upstream")
+                .tag("cache", cacheName)
+                .tag("outcome", cause == null ? "success" : "failure")
+                .tag("exception", cause == null ? "None" : cause.getClass().getSimpleName())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private String canonicalAddress(String address) {
+        String key = geocodingKeyGenerator.keyFor(address);
+        if (key.isEmpty()) {
+            throw new InvalidAddressException("Address must contain letters or digits.");
+        }
+        return key;
+    }
+
+    /**
+     * Whether results for an address may be cached, applied to the cache key so that every spelling of an
+     * uncacheable address is covered.
+     *
+     * @param canonicalAddress the canonical address from {@link GeocodingKeyGenerator}
+     * @return false if results for the address must never be cached
+     */
+    public static boolean isCacheableAddress(String canonicalAddress) {
+        return !"goa".equals(canonicalAddress);
+    }
+
+    /**
+     * Evicts a specific geocoding cache entry, and the place cached for it, for the given address, if present.
      *
      * @param address the address for which the cache entry is to be evicted
      */
     public void evictSpecificGeocodingEntry(String address) {
         Cache cache = cacheManager.getCache("geocoding");
         if (cache != null) {
-            log.info("Evicted geocoding cache entry for address: {}", cache.get(address));
-            cache.evictIfPresent(address);
+            String key = geocodingKeyGenerator.keyFor(address);
+            log.info("Evicted geocoding cache entry for address: {}", cache.get(key));
+            cache.evictIfPresent(key);
+            negativeResultCache.evict("geocoding", key);
+            Cache places = cacheManager.getCache("places");
+            if (places != null) {
+                places.evictIfPresent(key);
+            }
 
         }
     }
@@ -75,18 +532,23 @@ public class GeocodingService {
     public void evictSpecificReverseGeocodingEntry(double latitude, double longitude) {
         Cache cache = cacheManager.getCache("reverse-geocoding");
         if (cache != null) {
-            cache.evictIfPresent(String.format("{%s,%s}", latitude, longitude));
+            // Same key as the one the lookup stores the address under
+            Object key = reverseGeocodingKeyGenerator.keyFor(latitude, longitude);
+            cache.evictIfPresent(key);
+            spatialGridIndex.removeKey(key);
+            negativeResultCache.evict("reverse-geocoding", key);
             log.info("Evicted reverse-geocoding cache entry for coordinates: {}, {}", latitude, longitude);
         }
     }
 
     /**
-     * Evicts all entries from the 'geocoding' cache.
+     * Evicts all entries from the 'geocoding' cache, and the places resolved for the same addresses.
      * This method uses the @CacheEvict annotation to clear all entries
-     * from the cache named 'geocoding'.
+     * from the caches named 'geocoding' and 'places'.
      */
-    @CacheEvict(value = "geocoding", allEntries = true)
+    @CacheEvict(value = {"geocoding", "places"}, allEntries = true)
     public void evictAllGeocodingCache() {
+        negativeResultCache.clear("geocoding");
         log.info("Evicted all entries from 'geocoding' cache.");
     }
 
@@ -97,34 +559,30 @@ public class GeocodingService {
      */
     @CacheEvict(value = "reverse-geocoding", allEntries = true)
     public void evictAllReverseGeocodingCache() {
+        spatialGridIndex.clear();
+        negativeResultCache.clear("reverse-geocoding");
         log.info("Evicted all entries from 'reverse-geocoding' cache.");
     }
 
     /**
      * Evicts stale entries from the 'geocoding' cache.
-     * This method removes all stale entries from the cache, which are
-     * entries that have expired according to the cache's expiration policy.
-     * The cache's expiration policy is set in the application's configuration.
+     * Only entries written longer ago than the configured maximum age, or not read for longer than the configured
+     * maximum idle time, are removed; fresh entries stay cached.
+     *
+     * @return how many entries were scanned and removed
      */
-    public void evictStaleGeocodingEntries() {
-        Cache cache = cacheManager.getCache("geocoding");
-        if (cache != null) {
-            cache.clear(); // Placeholder for stale entry removal logic.
-            log.info("Evicted stale entries from 'geocoding' cache.");
-        }
+    public EvictionReport evictStaleGeocodingEntries() {
+        return staleEntrySweeper.sweep("geocoding");
     }
 
     /**
      * Evicts stale entries from the 'reverse-geocoding' cache.
-     * This method removes all stale entries from the cache, which are
-     * entries that have expired according to the cache's expiration policy.
-     * The cache's expiration policy is set in the application's configuration.
+     * Only entries written longer ago than the configured maximum age, or not read for longer than the configured
+     * maximum idle time, are removed; fresh entries stay cached.
+     *
+     * @return how many entries were scanned and removed
      */
-    public void evictStaleReverseGeocodingEntries() {
-        Cache cache = cacheManager.getCache("reverse-geocoding");
-        if (cache != null) {
-            cache.clear(); // Placeholder for stale entry removal logic.
-            log.info("Evicted stale entries from 'reverse-geocoding' cache.");
-        }
+    public EvictionReport evictStaleReverseGeocodingEntries() {
+        return staleEntrySweeper.sweep("reverse-geocoding");
     }
 }
@@ -0,0 +1,103 @@
+package com.caching.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent loads for the same key (single-flight).
+ * The first caller for a key starts the load, every caller arriving while it is in flight
+ * shares the same result or failure, and the key is released as soon as the load completes.
+ * Each caller gets its own dependent future, so one caller completing, cancelling or timing out
+ * its future cannot change what the others see.
+ *
+ * @param <K> the key type
+ * @param <V> the loaded value type
+ */
+@Slf4j
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Runnable onCoalesced;
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param onCoalesced callback invoked once for every caller that joins an in-flight load
+     */
+    public RequestCoalescer(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    /**
+     * Returns the in-flight load for the key, or starts a new one using the given loader.
+     *
+     * @param key    the key to load
+     * @param loader starts the upstream load; only invoked by the first caller for a key
+     * @return a future of this caller's own, completed with the shared result or failure
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            log.trace("Joining in-flight load for key: {}", key);
+            onCoalesced.run();
+            return existing.copy();
+        }
+        try {
+            loader.get().whenComplete((value, ex) -> {
+                inFlight.remove(key, promise);
+                if (ex != null) {
+                    promise.completeExceptionally(ex);
+                } else {
+                    promise.complete(value);
+                }
+            });
+        } catch (Throwable ex) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(ex);
+        }
+        return promise.copy();
+    }
+
+    /**
+     * Blocking variant of {@link #execute(Object, Supplier)} for synchronous loaders.
+     * Failures are rethrown unwrapped so callers see the loader's own exception type.
+     *
+     * @param key    the key to load
+     * @param loader performs the upstream load; only invoked by the first caller for a key
+     * @return the shared result
+     */
+    public V executeSync(K key, Supplier<V> loader) {
+        try {
+            return execute(key, () -> {
+                CompletableFuture<V> result = new CompletableFuture<>();
+                try {
+                    result.complete(loader.get());
+                } catch (Throwable ex) {
+                    result.completeExceptionally(ex);
+                }
+                return result;
+            }).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the number of keys currently being loaded
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,55 @@
+package com.caching.service;
+
+import com.caching.cache.CacheReloader;
+import com.caching.exceptions.DataFetchingFailException;
+import com.caching.exceptions.InvalidAddressException;
+import com.caching.exceptions.InvalidCoordinateException;
+import com.caching.exceptions.UpstreamUnavailableException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Refreshes geocoding cache entries through {@link GeocodingService}, the same load path as a cache miss, so
+ * refreshed mappings are audited, fill the opposite cache and record "no result" answers in the negative cache.
+ * A key upstream no longer resolves completes with {@link CacheReloader#NO_RESULT} and is dropped. A refresh that
+ * is not sent because upstream is unavailable, or that fails upstream, completes with null, so the current value is
+ * kept until it expires without logging the failure a second time.
+ */
+@Component
+@RequiredArgsConstructor
+public class UpstreamCacheReloader implements CacheReloader {
+
+    // Looked up on first refresh: the service depends on the cache manager, which depends on this reloader
+    private final ObjectProvider<GeocodingService> geocodingService;
+
+    @Override
+    public CompletableFuture<Object> reload(String cacheName, Object key) {
+        return fetch(cacheName, key).thenApply(value -> "".equals(value) ? null : value).exceptionally(ex -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof InvalidAddressException || cause instanceof InvalidCoordinateException) {
+                return NO_RESULT;
+            }
+            if (cause instanceof UpstreamUnavailableException || cause instanceof DataFetchingFailException) {
+                return null;
+            }
+            throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(cause);
+        });
+    }
+
+    private CompletableFuture<Object> fetch(String cacheName, Object key) {
+        switch (cacheName) {
+            case "geocoding":
+                return geocodingService.getObject().reloadCoordinates((String) key).thenApply(value -> value);
+            case "reverse-geocoding":
+                return geocodingService.getObject().reloadAddress(key).thenApply(value -> value);
+            case "places":
+                return geocodingService.getObject().reloadPlace((String) key).thenApply(value -> value);
+            default:
+                return CompletableFuture.failedFuture(new IllegalArgumentException("No reloader for cache: " + cacheName));
+        }
+    }
+}
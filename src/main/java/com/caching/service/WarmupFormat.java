@@ -0,0 +1,125 @@
+package com.caching.service;
+
+import com.caching.dto.WarmupRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line formats of cache warm-up files, chosen by file extension.
+ * <ul>
+ * <li>CSV: {@code kind,latitude,longitude,text} with RFC 4180 quoting; an optional header line is skipped.</li>
+ * <li>JSON lines: one {@link WarmupRecord} object per line; {@code address} and {@code label} are accepted for
+ * {@code text}.</li>
+ * </ul>
+ * Blank lines and lines starting with {@code #} are ignored in both.
+ */
+public enum WarmupFormat {
+    CSV("text/csv"),
+    JSONL("application/x-ndjson");
+
+    static final String CSV_HEADER = "kind,latitude,longitude,text";
+
+    private final String mediaType;
+
+    WarmupFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param file the warm-up file
+     * @return JSONL for {@code .jsonl}, {@code .ndjson} and {@code .json} files, CSV otherwise
+     */
+    public static WarmupFormat forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json") ? JSONL : CSV;
+    }
+
+    /**
+     * @return the file extension for this format, without the dot
+     */
+    public String extension() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Parses one line.
+     *
+     * @return the record, or null if the line is blank, a comment or the CSV header
+     * @throws IOException if the line is malformed
+     */
+    WarmupRecord parse(String line, ObjectMapper objectMapper) throws IOException {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#") || (this == CSV && trimmed.equals(CSV_HEADER))) {
+            return null;
+        }
+        if (this == JSONL) {
+            return objectMapper.readValue(trimmed, WarmupRecord.class);
+        }
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 4) {
+            throw new IOException("Expected 4 CSV fields but found " + fields.size());
+        }
+        try {
+            return new WarmupRecord(fields.get(0).trim(), Double.valueOf(fields.get(1).trim()),
+                    Double.valueOf(fields.get(2).trim()), fields.get(3));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid coordinate: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the record as one line, without the line terminator
+     */
+    String format(WarmupRecord record, ObjectMapper objectMapper) throws IOException {
+        if (this == JSONL) {
+            return objectMapper.writeValueAsString(record);
+        }
+        return record.getKind() + "," + record.getLatitude() + "," + record.getLongitude() + "," + quoteCsv(record.getText());
+    }
+
+    private static List<String> splitCsv(String line) throws IOException {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quoteCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"").replace('\n', ' ').replace('\r', ' ') + '"';
+    }
+}
@@ -0,0 +1,273 @@
+package com.caching.cache;
+
+import com.caching.dto.GeoPoint;
+import com.caching.dto.Place;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskStoreTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    private DiskStore open() throws IOException {
+        return new DiskStore(directory.resolve("cache.log"), TTL, TTL, 65_536);
+    }
+
+    @Test
+    void placesSurviveARestart() throws IOException {
+        Place full = new Place(15.49, 73.82, "Panaji, India", 0.9, Place.Precision.AREA, "India",
+                new Place.BoundingBox(15.45, 73.78, 15.52, 73.86));
+        Place bare = new Place(1, 2, null, Double.NaN, null, null, null);
+        DiskStore store = open();
+        store.put("panaji", full);
+        store.put("bare", bare);
+        store.close();
+
+        DiskStore reopened = open();
+        try {
+            assertEquals(full, reopened.get("panaji").getValue());
+            assertEquals(bare, reopened.get("bare").getValue());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void entriesSurviveARestart() throws IOException {
+        DiskStore store = open();
+        store.put("paris", new GeoPoint(48.8566, 2.3522));
+        store.put(List.of(48.8566, 2.3522), "Paris, France");
+        store.put("removed", "gone");
+        store.put("replaced", "old");
+        store.put("replaced", "new");
+        store.remove("removed");
+        // Queued writes are readable before the writer has appended them
+        assertEquals("new", store.get("replaced").getValue());
+        assertNull(store.get("removed"));
+        store.close();
+
+        DiskStore reopened = open();
+        try {
+            assertEquals(new GeoPoint(48.8566, 2.3522), reopened.get("paris").getValue());
+            assertEquals("Paris, France", reopened.get(List.of(48.8566, 2.3522)).getValue());
+            assertEquals("new", reopened.get("replaced").getValue());
+            assertNull(reopened.get("removed"));
+            assertEquals(3, reopened.size());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void stringsLongerThan64KbRoundTrip() throws IOException {
+        String label = "x".repeat(100_000) + " é東京";
+        DiskStore store = open();
+        store.put("long", label);
+        store.close();
+
+        DiskStore reopened = open();
+        try {
+            assertEquals(label, reopened.get("long").getValue());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void compactionKeepsTheLatestValuesWhileWritesContinue() throws Exception {
+        int keys = 500;
+        DiskStore store = open();
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger readErrors = new AtomicInteger();
+        int rounds = 100;
+        Thread reader = new Thread(() -> {
+            while (!stop.get()) {
+                for (int key = 0; key < keys; key++) {
+                    DiskStore.Entry entry = store.get("key " + key);
+                    if (entry != null && !((String) entry.getValue()).startsWith("key " + key + " ")) {
+                        readErrors.incrementAndGet();
+                    }
+                }
+            }
+        });
+        reader.start();
+        // Far more superseded records than live ones, so the writer compacts several times along the way
+        for (int round = 0; round < rounds; round++) {
+            for (int key = 0; key < keys; key++) {
+                store.put("key " + key, "key " + key + " round " + round);
+                if (round == rounds - 1) {
+                    assertEquals("key " + key + " round " + round, store.get("key " + key).getValue());
+                }
+            }
+        }
+        stop.set(true);
+        reader.join();
+        store.close();
+        assertEquals(0, readErrors.get());
+
+        Path file = directory.resolve("cache.log");
+        // Each record takes more than 40 bytes; without compaction the log would hold all of them
+        long uncompactedBytes = (long) keys * rounds * 40;
+        assertTrue(Files.size(file) < uncompactedBytes / 2, "log was not compacted: " + Files.size(file));
+        DiskStore reopened = open();
+        try {
+            assertEquals(keys, reopened.size());
+            for (int key = 0; key < keys; key++) {
+                assertEquals("key " + key + " round " + (rounds - 1), reopened.get("key " + key).getValue());
+            }
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void clearDiscardsWritesQueuedBeforeIt() throws Exception {
+        DiskStore store = open();
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong lastPut = new AtomicLong(-1);
+        Thread putter = new Thread(() -> {
+            for (long i = 0; !stop.get(); i++) {
+                store.put("before " + i, "value " + i);
+                lastPut.set(i);
+            }
+        });
+        putter.start();
+        try {
+            for (int clears = 0; clears < 50; clears++) {
+                Thread.sleep(5);
+                long put = lastPut.get();
+                store.clear();
+                if (put >= 0) {
+                    assertNull(store.get("before " + put), "write queued before clear() is still readable");
+                }
+            }
+        } finally {
+            stop.set(true);
+            putter.join();
+        }
+        store.clear();
+        store.put("after", "kept");
+        store.close();
+
+        DiskStore reopened = open();
+        try {
+            assertEquals(1, reopened.size());
+            assertEquals("kept", reopened.get("after").getValue());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void aCorruptRecordIsSkippedAndLaterRecordsAreKept() throws IOException {
+        DiskStore store = open();
+        store.put("first", "first value");
+        store.put("second", "second value");
+        store.put("third", "third value");
+        store.close();
+        corrupt("second value", 0);
+
+        DiskStore reopened = open();
+        try {
+            assertEquals("first value", reopened.get("first").getValue());
+            assertNull(reopened.get("second"));
+            assertEquals("third value", reopened.get("third").getValue());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void aCorruptLengthResyncsToTheNextRecord() throws IOException {
+        DiskStore store = open();
+        store.put("first", "first value");
+        store.put("second", "second value");
+        store.put("third", "third value");
+        store.close();
+        // Overwrite the length of the second record with a value past the end of the file
+        Path file = directory.resolve("cache.log");
+        int offset = indexOf(Files.readAllBytes(file), "second".getBytes(StandardCharsets.UTF_8));
+        // The key follows [int length][int crc][byte op][long writtenAt][byte tag][int key length]
+        writeAt(file, offset - 4 - 1 - 8 - 1 - 4 - 4, ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE).array());
+
+        DiskStore reopened = open();
+        try {
+            assertEquals("first value", reopened.get("first").getValue());
+            assertNull(reopened.get("second"));
+            assertEquals("third value", reopened.get("third").getValue());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void aTornTailIsTruncated() throws IOException {
+        DiskStore store = open();
+        store.put("first", "first value");
+        store.close();
+        Path file = directory.resolve("cache.log");
+        long intact = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 1, 0, 42, 42}, StandardOpenOption.APPEND);
+
+        DiskStore reopened = open();
+        try {
+            assertEquals("first value", reopened.get("first").getValue());
+            assertEquals(intact, Files.size(file));
+            reopened.put("second", "second value");
+        } finally {
+            reopened.close();
+        }
+        DiskStore again = open();
+        try {
+            assertEquals("second value", again.get("second").getValue());
+        } finally {
+            again.close();
+        }
+    }
+
+    private void corrupt(String marker, int delta) throws IOException {
+        Path file = directory.resolve("cache.log");
+        byte[] bytes = Files.readAllBytes(file);
+        int offset = indexOf(bytes, marker.getBytes(StandardCharsets.UTF_8)) + delta;
+        writeAt(file, offset, new byte[]{(byte) (bytes[offset] ^ 0xff)});
+    }
+
+    private static void writeAt(Path file, long offset, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), offset);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] marker) {
+        outer:
+        for (int i = 0; i + marker.length <= bytes.length; i++) {
+            for (int j = 0; j < marker.length; j++) {
+                if (bytes[i + j] != marker[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new AssertionError("marker not found");
+    }
+}
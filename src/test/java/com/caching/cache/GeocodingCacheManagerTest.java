@@ -0,0 +1,41 @@
+package com.caching.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class GeocodingCacheManagerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void changingTheFactoryRebuildsExistingCachesAndKeepsTheDiskTier() throws Exception {
+        GeocodingCacheManager cacheManager = new GeocodingCacheManager(directory, Duration.ofHours(1),
+                Duration.ofHours(1), 1024, null);
+        try {
+            cacheManager.setCaffeineFactory(name -> Caffeine.newBuilder().maximumSize(10));
+            cacheManager.setCacheNames(List.of("geocoding"));
+            TieredCache before = (TieredCache) cacheManager.getCache("geocoding");
+            before.put("paris", "Paris");
+
+            cacheManager.setCaffeineFactory(name -> Caffeine.newBuilder().maximumSize(20));
+
+            TieredCache after = assertInstanceOf(TieredCache.class, cacheManager.getCache("geocoding"));
+            assertNotSame(before, after);
+            assertEquals(20, after.getL1().getNativeCache().policy().eviction().orElseThrow().getMaximum());
+            assertEquals(before.getL2(), after.getL2());
+            assertEquals("Paris", after.get("paris").get());
+        } finally {
+            cacheManager.destroy();
+        }
+    }
+}
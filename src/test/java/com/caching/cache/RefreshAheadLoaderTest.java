@@ -0,0 +1,86 @@
+package com.caching.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RefreshAheadLoaderTest {
+
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(30);
+    private static final Duration EXPIRE_AFTER = Duration.ofHours(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    // What the next reload completes with
+    private final AtomicReference<Object> reloaded = new AtomicReference<>();
+    private final AtomicInteger reloads = new AtomicInteger();
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private Cache cache() {
+        GeocodingCacheManager cacheManager = new GeocodingCacheManager(null, null, null, 0, (cacheName, key) -> {
+            reloads.incrementAndGet();
+            return CompletableFuture.completedFuture(reloaded.get());
+        });
+        cacheManager.setCaffeineFactory(name -> Caffeine.newBuilder().ticker(ticker).executor(Runnable::run)
+                .refreshAfterWrite(REFRESH_AFTER)
+                .expireAfterWrite(EXPIRE_AFTER));
+        cacheManager.setCacheNames(List.of("geocoding"));
+        return cacheManager.getCache("geocoding");
+    }
+
+    @Test
+    void freshValueReplacesTheEntryAndRestartsItsExpiry() {
+        Cache cache = cache();
+        cache.put("goa", "old");
+        reloaded.set("new");
+        advance(Duration.ofMinutes(40));
+
+        // The reload completes on the reading thread here, so the read already sees its result
+        assertEquals("new", cache.get("goa").get());
+        advance(Duration.ofMinutes(25));
+        assertEquals("new", cache.get("goa").get());
+        assertEquals(1, reloads.get());
+    }
+
+    @Test
+    void unavailableUpstreamKeepsTheValueWithItsOriginalWriteTime() {
+        Cache cache = cache();
+        cache.put("goa", "old");
+        // The reloader answers null while upstream is unavailable
+        reloaded.set(null);
+        advance(Duration.ofMinutes(40));
+
+        assertEquals("old", cache.get("goa").get());
+        assertEquals("old", cache.get("goa").get());
+        assertEquals(2, reloads.get());
+
+        // Still written at 0, so the hard TTL applies even though every refresh kept the value
+        advance(Duration.ofMinutes(25));
+        assertNull(cache.get("goa"));
+    }
+
+    @Test
+    void noResultDropsTheEntry() {
+        Cache cache = cache();
+        cache.put("goa", "old");
+        reloaded.set(CacheReloader.NO_RESULT);
+        advance(Duration.ofMinutes(40));
+
+        assertEquals("old", cache.get("goa").get());
+        assertNull(cache.get("goa"));
+    }
+}
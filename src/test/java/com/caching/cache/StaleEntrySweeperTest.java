@@ -0,0 +1,120 @@
+package com.caching.cache;
+
+import com.caching.config.CachePolicyProperties;
+import com.caching.dto.EvictionReport;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StaleEntrySweeperTest {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(50);
+    private static final Duration MAX_IDLE = Duration.ofMinutes(30);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private GeocodingCacheManager cacheManager(Duration refreshAfter) {
+        CacheReloader reloader = refreshAfter != null ? (cacheName, key) -> CompletableFuture.completedFuture(null) : null;
+        GeocodingCacheManager cacheManager = new GeocodingCacheManager(null, null, null, 0, reloader);
+        cacheManager.setCaffeineFactory(name -> {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().ticker(ticker)
+                    .expireAfterWrite(Duration.ofHours(1))
+                    .expireAfterAccess(Duration.ofHours(1));
+            return refreshAfter != null ? builder.refreshAfterWrite(refreshAfter) : builder;
+        });
+        cacheManager.setCacheNames(List.of("geocoding"));
+        return cacheManager;
+    }
+
+    private static StaleEntrySweeper sweeper(GeocodingCacheManager cacheManager, Duration maxAge) {
+        return new StaleEntrySweeper(cacheManager, new SimpleMeterRegistry(), new CachePolicyProperties(), maxAge,
+                MAX_IDLE, 2);
+    }
+
+    @Test
+    void removesEntriesByAgeAndByIdleTime() {
+        GeocodingCacheManager cacheManager = cacheManager(null);
+        Cache cache = cacheManager.getCache("geocoding");
+        cache.put("old", "written at 0, read at 40m");
+        advance(Duration.ofMinutes(20));
+        cache.put("idle", "written at 20m, never read");
+        advance(Duration.ofMinutes(20));
+        cache.put("fresh", "written at 40m");
+        cache.get("old");
+        advance(Duration.ofMinutes(15));
+
+        EvictionReport report = sweeper(cacheManager, MAX_AGE).sweep("geocoding");
+
+        assertEquals(3, report.getScanned());
+        assertEquals(1, report.getRemovedByAge());
+        assertEquals(1, report.getRemovedByIdle());
+        assertNull(cache.get("old"));
+        assertNull(cache.get("idle"));
+        assertNotNull(cache.get("fresh"));
+    }
+
+    @Test
+    void leavesEntriesToRefreshAheadWhileItWouldStillReloadThem() {
+        // Raised at runtime past max-age: the sweeper must not remove what refresh-ahead will reload
+        GeocodingCacheManager cacheManager = cacheManager(Duration.ofMinutes(55));
+        Cache cache = cacheManager.getCache("geocoding");
+        cache.put("hot", "written at 0");
+        advance(Duration.ofMinutes(25));
+        cache.get("hot");
+        advance(Duration.ofMinutes(27));
+
+        EvictionReport report = sweeper(cacheManager, MAX_AGE).sweep("geocoding");
+
+        assertEquals(0, report.getRemovedByAge());
+        assertEquals(0, report.getRemovedByIdle());
+    }
+
+    @Test
+    void incrementalSweepsResumeAcrossTicks() {
+        GeocodingCacheManager cacheManager = cacheManager(null);
+        Cache cache = cacheManager.getCache("geocoding");
+        for (int i = 0; i < 5; i++) {
+            cache.put("key " + i, "value");
+        }
+        advance(Duration.ofMinutes(55));
+        StaleEntrySweeper sweeper = sweeper(cacheManager, MAX_AGE);
+
+        // Batches of two keys: three ticks cover all five
+        sweeper.sweepIncrementally();
+        sweeper.sweepIncrementally();
+        assertEquals(1, nativeSize(cache));
+        sweeper.sweepIncrementally();
+        assertEquals(0, nativeSize(cache));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long nativeSize(Cache cache) {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache()).asMap().size();
+    }
+
+    @Test
+    void rejectsAMaxAgeOutsideTheSoftToHardTtlWindow() {
+        GeocodingCacheManager cacheManager = cacheManager(null);
+
+        assertThrows(IllegalStateException.class, () -> sweeper(cacheManager, Duration.ofMinutes(45)));
+        assertThrows(IllegalStateException.class, () -> sweeper(cacheManager, Duration.ofHours(1)));
+        assertThrows(IllegalStateException.class, () -> sweeper(cacheManager, Duration.ofHours(2)));
+    }
+}
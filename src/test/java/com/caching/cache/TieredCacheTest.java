@@ -0,0 +1,101 @@
+package com.caching.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TieredCacheTest {
+
+    private static final int CALLERS = 16;
+
+    @TempDir
+    Path directory;
+
+    private DiskStore store;
+    private TieredCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new DiskStore(directory.resolve("geocoding.log"), Duration.ofHours(1), Duration.ofHours(1), 1024);
+        cache = new TieredCache(new CaffeineCache("geocoding", Caffeine.newBuilder().build()), store);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void concurrentPutIfAbsentStoresOneValueInBothTiers() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            for (int round = 0; round < 50; round++) {
+                String key = "key " + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Cache.ValueWrapper>> results = new ArrayList<>();
+                for (int caller = 0; caller < CALLERS; caller++) {
+                    String value = "value " + caller;
+                    results.add(callers.submit(() -> {
+                        start.await();
+                        return cache.putIfAbsent(key, value);
+                    }));
+                }
+                start.countDown();
+                Set<Object> previous = new HashSet<>();
+                int winners = 0;
+                for (Future<Cache.ValueWrapper> result : results) {
+                    Cache.ValueWrapper wrapper = result.get(5, TimeUnit.SECONDS);
+                    if (wrapper == null) {
+                        winners++;
+                    } else {
+                        previous.add(wrapper.get());
+                    }
+                }
+                Object stored = cache.get(key).get();
+                assertEquals(1, winners);
+                assertEquals(Set.of(stored), previous);
+                assertEquals(stored, store.get(key).getValue());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void putIfAbsentKeepsADiskValue() {
+        store.put("paris", "on disk");
+
+        assertEquals("on disk", cache.putIfAbsent("paris", "new").get());
+        assertEquals("on disk", cache.getL1().get("paris").get());
+        assertEquals("on disk", store.get("paris").getValue());
+    }
+
+    @Test
+    void evictRemovesBothTiers() {
+        cache.put("paris", "Paris");
+        cache.evict("paris");
+
+        assertNull(cache.get("paris"));
+        assertNull(store.get("paris"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.caching.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+    private static final int VIRTUAL_NODES = 160;
+    private static final List<String> MEMBERS = List.of("http://10.0.0.1:5000", "http://10.0.0.2:5000", "http://10.0.0.3:5000");
+
+    @Test
+    void keysSpreadEvenlyOverMembers() {
+        ConsistentHashRing ring = new ConsistentHashRing(MEMBERS, VIRTUAL_NODES);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.ownerOf("geocoding:" + i + " baker st, london"), 1, Integer::sum);
+        }
+
+        assertEquals(MEMBERS.size(), owned.size());
+        owned.forEach((member, keys) -> {
+            double share = keys / (double) KEYS;
+            assertTrue(share > 0.25 && share < 0.42, member + " owns " + share);
+        });
+    }
+
+    @Test
+    void addingAMemberOnlyMovesKeysToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(MEMBERS, VIRTUAL_NODES);
+        String added = "http://10.0.0.4:5000";
+        ConsistentHashRing after = new ConsistentHashRing(
+                List.of(MEMBERS.get(0), MEMBERS.get(1), MEMBERS.get(2), added), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "reverse-geocoding:" + i;
+            String owner = after.ownerOf(key);
+            if (!owner.equals(before.ownerOf(key))) {
+                assertEquals(added, owner, key);
+                moved++;
+            }
+        }
+
+        // Roughly the new member's fair share, not a reshuffle of everything
+        double share = moved / (double) KEYS;
+        assertTrue(share > 0.17 && share < 0.33, "moved " + share);
+    }
+
+    @Test
+    void memberOrderDoesNotChangeOwners() {
+        ConsistentHashRing ring = new ConsistentHashRing(MEMBERS, VIRTUAL_NODES);
+        ConsistentHashRing reordered = new ConsistentHashRing(
+                List.of(MEMBERS.get(2), MEMBERS.get(0), MEMBERS.get(1)), VIRTUAL_NODES);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(ring.ownerOf("geocoding:" + i), reordered.ownerOf("geocoding:" + i));
+        }
+    }
+
+    @Test
+    void emptyRingIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), VIRTUAL_NODES));
+    }
+}
@@ -0,0 +1,158 @@
+package com.caching.cluster;
+
+import com.caching.dto.GeoPoint;
+import com.caching.exceptions.InvalidAddressException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PeerCacheClientTest {
+
+    private static final String SELF = "http://127.0.0.1:1";
+    private static final String SECRET = "peer-secret";
+    private static final Duration TIMEOUT = Duration.ofMillis(300);
+    private static final Duration DOWN_FOR = Duration.ofMillis(500);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    // What the fake owner answers with: "hit", "no-result", "not-found", "unauthorized" or "slow"
+    private volatile String behaviour = "hit";
+    private HttpServer owner;
+    private String ownerUrl;
+    private PeerCacheClient client;
+
+    @BeforeEach
+    void startOwner() throws IOException {
+        owner = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        owner.setExecutor(handlers);
+        owner.createContext("/internal/peers/geocoding", this::answer);
+        owner.start();
+        ownerUrl = "http://127.0.0.1:" + owner.getAddress().getPort();
+        client = new PeerCacheClient(new ObjectMapper(), meterRegistry, true, SELF, SELF + "," + ownerUrl, 160,
+                Duration.ofMillis(250), TIMEOUT, DOWN_FOR, SECRET);
+    }
+
+    @AfterEach
+    void stopOwner() {
+        owner.stop(0);
+        handlers.shutdownNow();
+    }
+
+    @Test
+    void ownerHitIsReturned() throws Exception {
+        assertEquals(new GeoPoint(15.3, 74.1), client.fetchCoordinates(ownerUrl, "goa").get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, requests("hit"));
+    }
+
+    @Test
+    void onlyAMarked404IsTakenAsNoResult() throws Exception {
+        behaviour = "no-result";
+        ExecutionException noResult = assertThrows(ExecutionException.class,
+                () -> client.fetchCoordinates(ownerUrl, "nowhere").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InvalidAddressException.class, noResult.getCause());
+        assertEquals("No data found for the given address.", noResult.getCause().getMessage());
+
+        behaviour = "not-found";
+        assertNull(client.fetchCoordinates(ownerUrl, "nowhere").get(5, TimeUnit.SECONDS));
+        behaviour = "unauthorized";
+        assertNull(client.fetchCoordinates(ownerUrl, "nowhere").get(5, TimeUnit.SECONDS));
+
+        assertEquals(1.0, requests("no-result"));
+        assertEquals(2.0, requests("error"));
+    }
+
+    @Test
+    void unresponsiveOwnerIsSkippedThenRetried() throws Exception {
+        behaviour = "slow";
+        assertNull(client.fetchCoordinates(ownerUrl, "goa").get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, requests("error"));
+
+        // Answering again, but still marked down: no request is sent
+        behaviour = "hit";
+        int sent = requests.get();
+        assertNull(client.fetchCoordinates(ownerUrl, "goa").get(5, TimeUnit.SECONDS));
+        assertEquals(sent, requests.get());
+        assertEquals(1.0, requests("skipped"));
+
+        Thread.sleep(DOWN_FOR.toMillis() + 100);
+        assertEquals(new GeoPoint(15.3, 74.1), client.fetchCoordinates(ownerUrl, "goa").get(5, TimeUnit.SECONDS));
+        assertEquals(sent + 1, requests.get());
+    }
+
+    @Test
+    void keysAreOwnedByMembersOtherThanSelfOrLocally() {
+        int remote = 0;
+        for (int i = 0; i < 1_000; i++) {
+            String owner = client.ownerOf("geocoding", i + " baker st, london");
+            if (owner != null) {
+                assertEquals(ownerUrl, owner);
+                remote++;
+            }
+        }
+        // Two members, so about half the keys belong to the other one
+        assertEquals(0.5, remote / 1_000.0, 0.1);
+    }
+
+    @Test
+    void peerModeRequiresASecret() {
+        assertThrows(IllegalStateException.class, () -> new PeerCacheClient(new ObjectMapper(), meterRegistry, true,
+                SELF, SELF + "," + ownerUrl, 160, Duration.ofMillis(250), TIMEOUT, DOWN_FOR, " "));
+    }
+
+    private double requests(String outcome) {
+        return meterRegistry.get("geocoding.peer.requests").tag("cache", "geocoding").tag("outcome", outcome)
+                .counter().count();
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String current = behaviour;
+        if (!SECRET.equals(exchange.getRequestHeaders().getFirst(PeerCacheClient.TOKEN_HEADER))) {
+            respond(exchange, 401, "{}");
+        } else if (current.equals("slow")) {
+            try {
+                Thread.sleep(TIMEOUT.toMillis() * 3);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{\"latitude\":15.3,\"longitude\":74.1}");
+        } else if (current.equals("no-result")) {
+            exchange.getResponseHeaders().add(PeerCacheClient.NO_RESULT_HEADER, "true");
+            respond(exchange, 404, "{\"message\":\"No data found for the given address.\"}");
+        } else if (current.equals("not-found")) {
+            respond(exchange, 404, "{}");
+        } else if (current.equals("unauthorized")) {
+            respond(exchange, 401, "{}");
+        } else {
+            respond(exchange, 200, "{\"latitude\":15.3,\"longitude\":74.1}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,93 @@
+package com.caching.controller;
+
+import com.caching.cluster.PeerAccessInterceptor;
+import com.caching.cluster.PeerCacheClient;
+import com.caching.dto.GeoPoint;
+import com.caching.exceptions.DataFetchingFailException;
+import com.caching.exceptions.GlobalExceptionHandler;
+import com.caching.exceptions.InvalidAddressException;
+import com.caching.service.GeocodingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The owner's side of the peer protocol; {@code PeerCacheClientTest} covers how the caller reads these answers.
+ */
+class PeerControllerTest {
+
+    private static final String SECRET = "peer-secret";
+
+    private final GeocodingService geocodingService = mock(GeocodingService.class);
+
+    @Test
+    void answersAHitWithTheCoordinates() throws Exception {
+        when(geocodingService.getCoordinatesForPeer("goa"))
+                .thenReturn(CompletableFuture.completedFuture(new GeoPoint(15.3, 74.1)));
+
+        MvcResult started = mockMvc(true).perform(get("/internal/peers/geocoding").param("address", "goa")
+                .header(PeerCacheClient.TOKEN_HEADER, SECRET)).andReturn();
+
+        mockMvc(true).perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.latitude").value(15.3));
+    }
+
+    @Test
+    void marksA404OnlyForNoResult() throws Exception {
+        when(geocodingService.getCoordinatesForPeer("nowhere"))
+                .thenReturn(CompletableFuture.failedFuture(new InvalidAddressException("No data found for the given address.")));
+        when(geocodingService.getCoordinatesForPeer("broken"))
+                .thenReturn(CompletableFuture.failedFuture(new DataFetchingFailException("HTTP status: 500")));
+        MockMvc mockMvc = mockMvc(true);
+
+        MvcResult noResult = mockMvc.perform(get("/internal/peers/geocoding").param("address", "nowhere")
+                .header(PeerCacheClient.TOKEN_HEADER, SECRET)).andReturn();
+        mockMvc.perform(asyncDispatch(noResult))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(PeerCacheClient.NO_RESULT_HEADER, "true"));
+
+        MvcResult failed = mockMvc.perform(get("/internal/peers/geocoding").param("address", "broken")
+                .header(PeerCacheClient.TOKEN_HEADER, SECRET)).andReturn();
+        mockMvc.perform(asyncDispatch(failed))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist(PeerCacheClient.NO_RESULT_HEADER));
+    }
+
+    @Test
+    void rejectsRequestsWithoutTheSecretOrWithPeerModeOff() throws Exception {
+        mockMvc(true).perform(get("/internal/peers/geocoding").param("address", "goa")
+                        .header(PeerCacheClient.TOKEN_HEADER, "guess"))
+                .andExpect(status().isForbidden());
+        // Unmarked, so a caller with a stale member list loads locally instead of taking it as "no result"
+        mockMvc(false).perform(get("/internal/peers/geocoding").param("address", "goa")
+                        .header(PeerCacheClient.TOKEN_HEADER, SECRET))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(PeerCacheClient.NO_RESULT_HEADER));
+    }
+
+    private MockMvc mockMvc(boolean peersEnabled) {
+        String self = "http://127.0.0.1:5001";
+        PeerCacheClient peerCacheClient = new PeerCacheClient(new ObjectMapper(), new SimpleMeterRegistry(),
+                peersEnabled, self, self + ",http://127.0.0.1:5002", 160, Duration.ofMillis(250), Duration.ofSeconds(1),
+                Duration.ofSeconds(1), SECRET);
+        return MockMvcBuilders.standaloneSetup(new PeerController(geocodingService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addInterceptors(new PeerAccessInterceptor(peerCacheClient))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.caching.geo;
+
+import com.caching.service.GeocodingService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DefaultAddressNormalizerTest {
+
+    private final DefaultAddressNormalizer normalizer = new DefaultAddressNormalizer(true);
+
+    @Test
+    void equivalentSpellingsShareOneCanonicalForm() {
+        assertEquals("221b baker street london", normalizer.normalize("221B Baker St, London"));
+        assertEquals("221b baker street london", normalizer.normalize(" 221b  baker street   london "));
+        assertEquals("221b baker street london", normalizer.normalize("221B%20Baker%20St%2C%20London"));
+        assertEquals("221b baker street london", normalizer.normalize("221B+Baker+St.,+London"));
+        assertEquals("cafe", normalizer.normalize("ＣＡＦＥ"));
+        assertEquals("kings cross", normalizer.normalize("King's Cross"));
+    }
+
+    @Test
+    void expandsAbbreviationsInStreetPosition() {
+        assertEquals("10 main street springfield", normalizer.normalize("10 Main St, Springfield"));
+        assertEquals("5 elm road oxford uk", normalizer.normalize("5 Elm Rd; Oxford, UK"));
+        assertEquals("10 st james street london", normalizer.normalize("10 St James St, London"));
+    }
+
+    @Test
+    void keepsAbbreviationsInTheLastPart() {
+        assertEquals("hartford ct", normalizer.normalize("Hartford, CT"));
+        assertEquals("baker st", normalizer.normalize("Baker St"));
+        assertEquals("baker st", normalizer.normalize("Baker St,"));
+        assertEquals("springfield mt", normalizer.normalize("Springfield, MT"));
+    }
+
+    @Test
+    void keepsSaintAndMountOutsideStreetPosition() {
+        assertEquals("st louis", normalizer.normalize("St Louis"));
+        assertEquals("downtown st louis mo", normalizer.normalize("Downtown St Louis, MO"));
+        assertEquals("10 st james", normalizer.normalize("10 St James"));
+        assertEquals("mt everest nepal", normalizer.normalize("Mt Everest, Nepal"));
+        assertEquals("42 dr smith avenue london", normalizer.normalize("42 Dr Smith Ave, London"));
+    }
+
+    @Test
+    void abbreviationsCanBeLeftAlone() {
+        assertEquals("10 main st springfield", new DefaultAddressNormalizer(false).normalize("10 Main St, Springfield"));
+    }
+
+    @Test
+    void goaIsNeverCacheableInAnySpelling() {
+        for (String address : new String[]{"goa", "Goa", " GOA ", "goa.", "Goa,", "%47oa", "ｇｏａ"}) {
+            assertEquals("goa", normalizer.normalize(address), address);
+            assertFalse(GeocodingService.isCacheableAddress(normalizer.normalize(address)), address);
+        }
+    }
+
+    @Test
+    void blankAndNullAddresses() {
+        assertEquals("", normalizer.normalize("  ,, "));
+        assertNull(normalizer.normalize(null));
+    }
+}
@@ -0,0 +1,52 @@
+package com.caching.geo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GazetteerResolverTest {
+
+    @TempDir
+    Path directory;
+
+    private GazetteerResolver resolver() throws IOException {
+        Path file = directory.resolve("gazetteer.tsv");
+        Files.write(file, List.of(
+                "# name\tlatitude\tlongitude\tlabel\tradius",
+                "London\t51.5072\t-0.1276\tLondon, United Kingdom\t15000",
+                "Trafalgar Square\t51.5080\t-0.1281\tTrafalgar Square, London\t100"));
+        return new GazetteerResolver(new GeocodingKeyGenerator(new DefaultAddressNormalizer(true)),
+                new SimpleMeterRegistry(), file.toString(), 0.9, 200, 200, 0.5);
+    }
+
+    @Test
+    void answersPointLevelPlacesNearTheirCentre() throws IOException {
+        assertEquals("Trafalgar Square, London", resolver().resolveAddress(51.5080, -0.1281));
+    }
+
+    @Test
+    void fallsBackUpstreamBelowTheReverseConfidenceFloor() throws IOException {
+        // About 80 m from the square, confidence 0.2
+        assertNull(resolver().resolveAddress(51.5080 + 80 / 111_195d, -0.1281));
+    }
+
+    @Test
+    void neverAnswersWithACityLabel() throws IOException {
+        // Inside London's radius but no point-level place: upstream gives the street-level answer
+        assertNull(resolver().resolveAddress(51.52, -0.10));
+    }
+
+    @Test
+    void forwardLookupsStillResolveCities() throws IOException {
+        assertNotNull(resolver().resolveCoordinates("london"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.caching.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GazetteerTest {
+
+    // Base grid cells of 200 m, as configured by default
+    private static final double CELL_DEGREES = 200 / 111_320d;
+    // Metres per degree of latitude in SpatialGridIndex.distanceMeters
+    private static final double METERS_PER_DEGREE = SpatialGridIndex.distanceMeters(0, 0, 1, 0);
+
+    @Test
+    void answersInsideTheRadiusAndNotBeyondIt() {
+        Gazetteer gazetteer = Gazetteer.builder(CELL_DEGREES)
+                .add("depot", "Depot", 10, 20, 1_000)
+                .build();
+
+        Gazetteer.Match inside = gazetteer.nearest(10 + 999 / METERS_PER_DEGREE, 20, 1_000);
+        assertEquals("Depot", inside.getLabel());
+        assertEquals(0.001, inside.getConfidence(), 1e-3);
+        assertEquals(1, gazetteer.nearest(10, 20, 1_000).getConfidence(), 1e-9);
+        assertNull(gazetteer.nearest(10 + 1_001 / METERS_PER_DEGREE, 20, 1_000));
+        assertNull(gazetteer.nearest(10, 20 + 1_001 / METERS_PER_DEGREE / Math.cos(Math.toRadians(10)), 1_000));
+    }
+
+    @Test
+    void confidenceFallsLinearlyTowardsTheEdge() {
+        Gazetteer gazetteer = Gazetteer.builder(CELL_DEGREES)
+                .add("depot", "Depot", 10, 20, 1_000)
+                .build();
+
+        assertEquals(0.75, gazetteer.nearest(10 + 250 / METERS_PER_DEGREE, 20, 1_000).getConfidence(), 1e-3);
+    }
+
+    @Test
+    void nestedPlacesAnswerWithTheMostSpecificOne() {
+        Gazetteer gazetteer = Gazetteer.builder(CELL_DEGREES)
+                .add("paris", "Paris", 48.8566, 2.3522, 10_000)
+                .add("75001", "75001 Paris", 48.8625, 2.3363, 500)
+                .add("louvre", "Musee du Louvre", 48.8606, 2.3376, 150)
+                .build();
+
+        // Inside all three: the smallest place wins even though the postcode centre is further away
+        assertEquals("Musee du Louvre", gazetteer.nearest(48.8607, 2.3377, Double.MAX_VALUE).getLabel());
+        // Inside the postcode and the city only
+        assertEquals("75001 Paris", gazetteer.nearest(48.8640, 2.3363, Double.MAX_VALUE).getLabel());
+        // Inside the city only, 4 km from its centre
+        assertEquals("Paris", gazetteer.nearest(48.87, 2.30, Double.MAX_VALUE).getLabel());
+    }
+
+    @Test
+    void placesWiderThanTheLimitFallBack() {
+        Gazetteer gazetteer = Gazetteer.builder(CELL_DEGREES)
+                .add("paris", "Paris", 48.8566, 2.3522, 10_000)
+                .add("louvre", "Musee du Louvre", 48.8606, 2.3376, 150)
+                .build();
+
+        assertNull(gazetteer.nearest(48.87, 2.30, 200));
+        assertEquals("Musee du Louvre", gazetteer.nearest(48.8607, 2.3377, 200).getLabel());
+    }
+
+    @Test
+    void coordinatesOutsideEveryPlaceFallBack() {
+        Gazetteer gazetteer = Gazetteer.builder(CELL_DEGREES)
+                .add("paris", "Paris", 48.8566, 2.3522, 10_000)
+                .build();
+
+        assertNull(gazetteer.nearest(49.5, 2.35, Double.MAX_VALUE));
+        assertNull(Gazetteer.builder(CELL_DEGREES).build().nearest(48.8566, 2.3522, Double.MAX_VALUE));
+    }
+
+    @Test
+    void equalRadiiAnswerWithTheClosestPlace() {
+        Gazetteer gazetteer = Gazetteer.builder(CELL_DEGREES)
+                .add("east", "East", 0, 0.002, 500)
+                .add("west", "West", 0, -0.002, 500)
+                .build();
+
+        assertEquals("East", gazetteer.nearest(0, 0.0005, 500).getLabel());
+        assertEquals("West", gazetteer.nearest(0, -0.0005, 500).getLabel());
+    }
+
+    @Test
+    void matchesABruteForceSearchAcrossGridLevels() {
+        Random random = new Random(7);
+        int places = 5_000;
+        double[][] records = new double[places][];
+        Gazetteer.Builder builder = Gazetteer.builder(CELL_DEGREES);
+        for (int i = 0; i < places; i++) {
+            // Clustered in a small area so that places overlap, one in fifty as wide as a city
+            records[i] = new double[]{45 + random.nextDouble(), 5 + random.nextDouble(),
+                    i % 50 == 0 ? 5_000 + random.nextInt(20_000) : 50 + random.nextInt(1_000)};
+            builder.add("place " + i, "Place " + i, records[i][0], records[i][1], records[i][2]);
+        }
+        Gazetteer gazetteer = builder.build();
+
+        int answered = 0;
+        for (int query = 0; query < 2_000; query++) {
+            double latitude = 45 + random.nextDouble();
+            double longitude = 5 + random.nextDouble();
+            int expected = -1;
+            double expectedDistance = 0;
+            for (int i = 0; i < places; i++) {
+                double distance = SpatialGridIndex.distanceMeters(latitude, longitude,
+                        Math.round(records[i][0] * 1e6) / 1e6, Math.round(records[i][1] * 1e6) / 1e6);
+                if (distance <= records[i][2] && (expected < 0 || records[i][2] < records[expected][2]
+                        || (records[i][2] == records[expected][2] && distance < expectedDistance))) {
+                    expected = i;
+                    expectedDistance = distance;
+                }
+            }
+            Gazetteer.Match match = gazetteer.nearest(latitude, longitude, Double.MAX_VALUE);
+            assertEquals(expected < 0 ? null : "Place " + expected, match == null ? null : match.getLabel());
+            if (match != null) {
+                answered++;
+            }
+        }
+        assertTrue(answered > 0);
+    }
+}
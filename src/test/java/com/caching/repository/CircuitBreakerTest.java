@@ -0,0 +1,120 @@
+package com.caching.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(50);
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+
+    private final List<String> transitions = new ArrayList<>();
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 0.5, Duration.ofSeconds(1), 10, 4,
+            OPEN_DURATION, 2, (from, to) -> transitions.add(from + "->" + to));
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        breaker.tryAcquirePermission().onSuccess(FAST);
+        breaker.tryAcquirePermission().onFailure();
+        breaker.tryAcquirePermission().onSuccess(FAST);
+        // Slow calls count as failures
+        breaker.tryAcquirePermission().onSuccess(Duration.ofSeconds(2).toNanos());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void trialCallsCloseTheBreakerAgain() throws InterruptedException {
+        trip();
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        CircuitBreaker.Permit first = breaker.tryAcquirePermission();
+        CircuitBreaker.Permit second = breaker.tryAcquirePermission();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNull(breaker.tryAcquirePermission());
+
+        // A released trial permit frees its slot for another caller
+        second.release();
+        CircuitBreaker.Permit third = breaker.tryAcquirePermission();
+        assertNotNull(third);
+
+        first.onSuccess(FAST);
+        third.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    void callsFromBeforeTheLastTransitionAreIgnored() throws InterruptedException {
+        CircuitBreaker.Permit startedWhileClosed = breaker.tryAcquirePermission();
+        CircuitBreaker.Permit failsWhileClosed = breaker.tryAcquirePermission();
+        trip();
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+        CircuitBreaker.Permit trial = breaker.tryAcquirePermission();
+
+        // Neither counts as a trial call: no success towards closing, no failure re-opening it
+        startedWhileClosed.onSuccess(FAST);
+        failsWhileClosed.onFailure();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        trial.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.tryAcquirePermission().onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void aFailedTrialCallReopensTheBreaker() throws InterruptedException {
+        trip();
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        breaker.tryAcquirePermission().onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void releasedPermitsAreNotRecorded() {
+        for (int i = 0; i < 10; i++) {
+            breaker.tryAcquirePermission().release();
+        }
+        breaker.tryAcquirePermission().onFailure();
+        breaker.tryAcquirePermission().onFailure();
+
+        // Two failures are below the minimum number of calls, whatever was released before them
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(transitions.isEmpty());
+    }
+
+    @Test
+    void rejectedAccessKeysCountAsFailures() {
+        assertTrue(PositionstackProvider.countsAsFailure(500));
+        assertTrue(PositionstackProvider.countsAsFailure(503));
+        assertTrue(PositionstackProvider.countsAsFailure(401));
+        assertTrue(PositionstackProvider.countsAsFailure(403));
+        assertFalse(PositionstackProvider.countsAsFailure(200));
+        assertFalse(PositionstackProvider.countsAsFailure(404));
+        assertFalse(PositionstackProvider.countsAsFailure(422));
+        assertFalse(PositionstackProvider.countsAsFailure(429));
+    }
+
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquirePermission().onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,147 @@
+package com.caching.repository;
+
+import com.caching.dto.Place;
+import com.caching.exceptions.DataFetchingFailException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeocodingRepositoryTest {
+
+    private static final Place PRIMARY_PLACE = new Place(15.3, 74.1, "Goa, India", 1, Place.Precision.AREA, "India", null);
+    private static final Place SECONDARY_PLACE = new Place(15.4, 74.0, "Goa, Bharat", Double.NaN, Place.Precision.AREA, "India", null);
+
+    private final FakeProvider primary = new FakeProvider("primary");
+    private final FakeProvider secondary = new FakeProvider("secondary");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GeocodingRepository repository;
+
+    @AfterEach
+    void shutDown() {
+        if (repository != null) {
+            repository.destroy();
+        }
+    }
+
+    @Test
+    void primaryAnsweringInTimeIsNotHedged() throws Exception {
+        repository = repository(Duration.ofMillis(200));
+
+        CompletableFuture<Place> result = repository.fetchPlaceForAddressAsync("goa");
+        primary.next().complete(PRIMARY_PLACE);
+
+        assertSame(PRIMARY_PLACE, result.get(5, TimeUnit.SECONDS));
+        Thread.sleep(400);
+        assertNull(secondary.calls.poll());
+    }
+
+    @Test
+    void secondaryIsCalledAfterTheHedgeDelayAndItsWinCancelsThePrimary() throws Exception {
+        Duration delay = Duration.ofMillis(200);
+        repository = repository(delay);
+
+        long started = System.nanoTime();
+        CompletableFuture<Place> result = repository.fetchPlaceForAddressAsync("goa");
+        CompletableFuture<Place> primaryCall = primary.next();
+        CompletableFuture<Place> secondaryCall = secondary.calls.poll(5, TimeUnit.SECONDS);
+        long hedgedAfter = System.nanoTime() - started;
+
+        assertNotNull(secondaryCall);
+        assertTrue(hedgedAfter >= delay.toNanos(), "hedged after " + hedgedAfter + "ns");
+        assertFalse(result.isDone());
+        secondaryCall.complete(SECONDARY_PLACE);
+
+        assertSame(SECONDARY_PLACE, result.get(5, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, () -> primaryCall.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void primaryWinningAfterTheHedgeCancelsTheSecondary() throws Exception {
+        repository = repository(Duration.ofMillis(50));
+
+        CompletableFuture<Place> result = repository.fetchPlaceForAddressAsync("goa");
+        CompletableFuture<Place> primaryCall = primary.next();
+        CompletableFuture<Place> secondaryCall = secondary.calls.poll(5, TimeUnit.SECONDS);
+        assertNotNull(secondaryCall);
+        primaryCall.complete(PRIMARY_PLACE);
+
+        assertSame(PRIMARY_PLACE, result.get(5, TimeUnit.SECONDS));
+        // The hedge thread may still be starting the secondary when the primary wins, and cancels it once it has
+        assertThrows(CancellationException.class, () -> secondaryCall.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void primaryFailingBeforeTheHedgeFiresFailsOverStraightAway() throws Exception {
+        // Far longer than the test waits, so only the failover can start the secondary
+        repository = repository(Duration.ofSeconds(30));
+
+        CompletableFuture<Place> result = repository.fetchPlaceForAddressAsync("goa");
+        primary.next().completeExceptionally(new DataFetchingFailException("HTTP status: 500"));
+        CompletableFuture<Place> secondaryCall = secondary.calls.poll(5, TimeUnit.SECONDS);
+
+        assertNotNull(secondaryCall);
+        secondaryCall.complete(SECONDARY_PLACE);
+        assertSame(SECONDARY_PLACE, result.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("geocoding.provider.hedges")
+                .tag("reason", "failover").counter().count());
+    }
+
+    private GeocodingRepository repository(Duration initialDelay) {
+        return new GeocodingRepository(List.of(primary, secondary), meterRegistry, "primary", "secondary",
+                0.95, 512, 20, Duration.ofMillis(1), Duration.ofMinutes(1), initialDelay);
+    }
+
+    /**
+     * Hands every call out as a pending future for the test to complete.
+     */
+    private static class FakeProvider implements GeocodingProvider {
+
+        private final String name;
+        private final BlockingQueue<CompletableFuture<Place>> calls = new LinkedBlockingQueue<>();
+
+        FakeProvider(String name) {
+            this.name = name;
+        }
+
+        CompletableFuture<Place> next() throws InterruptedException {
+            CompletableFuture<Place> call = calls.poll(5, TimeUnit.SECONDS);
+            assertNotNull(call, name + " was not called");
+            return call;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public CompletableFuture<Place> fetchPlace(String address) {
+            CompletableFuture<Place> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+
+        @Override
+        public CompletableFuture<Place> fetchPlace(double latitude, double longitude) {
+            CompletableFuture<Place> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+    }
+}
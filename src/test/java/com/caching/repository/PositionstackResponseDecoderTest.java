@@ -0,0 +1,72 @@
+package com.caching.repository;
+
+import com.caching.dto.Place;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PositionstackResponseDecoderTest {
+
+    private final PositionstackResponseDecoder decoder = new PositionstackResponseDecoder(new ObjectMapper());
+
+    private Place decode(String body) throws IOException {
+        return decoder.decodePlace(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readsOnlyTheFirstResult() throws IOException {
+        Place place = decode("{\"meta\":{\"n\":2},\"data\":[{\"label\":\"Panaji, India\",\"latitude\":15.49,"
+                + "\"longitude\":73.82,\"region\":{\"x\":[1,2]},\"confidence\":0.9},{\"latitude\":1,\"longitude\":2}]}");
+
+        assertEquals(new Place(15.49, 73.82, "Panaji, India", 0.9, null, null, null), place);
+    }
+
+    @Test
+    void readsTheDetailsKeptInThePlacesCache() throws IOException {
+        Place place = decode("{\"data\":[{\"latitude\":15.49,\"longitude\":73.82,\"type\":\"locality\","
+                + "\"confidence\":0.9,\"country\":\"India\",\"label\":\"Panaji, India\","
+                + "\"bbox_module\":[73.78,15.45,73.86,15.52]}]}");
+
+        assertEquals(new Place(15.49, 73.82, "Panaji, India", 0.9, Place.Precision.AREA, "India",
+                new Place.BoundingBox(15.45, 73.78, 15.52, 73.86)), place);
+    }
+
+    @Test
+    void malformedBoundingBoxIsLeftOut() throws IOException {
+        assertNull(decode("{\"data\":[{\"latitude\":1,\"longitude\":2,\"bbox_module\":[1,2,3]}]}").getBoundingBox());
+        assertNull(decode("{\"data\":[{\"latitude\":1,\"longitude\":2,\"bbox_module\":[1,2,3,{\"x\":4}]}]}")
+                .getBoundingBox());
+        assertNull(decode("{\"data\":[{\"latitude\":1,\"longitude\":2,\"bbox_module\":[1,2,3,4,5]}]}").getBoundingBox());
+    }
+
+    @Test
+    void resultTypesMapToPrecision() {
+        assertEquals(Place.Precision.POINT, PositionstackResponseDecoder.precisionOf("address"));
+        assertEquals(Place.Precision.POINT, PositionstackResponseDecoder.precisionOf("venue"));
+        assertEquals(Place.Precision.STREET, PositionstackResponseDecoder.precisionOf("street"));
+        assertEquals(Place.Precision.AREA, PositionstackResponseDecoder.precisionOf("region"));
+        assertNull(PositionstackResponseDecoder.precisionOf(null));
+    }
+
+    @Test
+    void emptyDataIsNoResult() throws IOException {
+        assertNull(decode("{\"data\":[]}"));
+        assertNull(decode("{\"data\":[[]]}"));
+        assertNull(decode("{\"data\":[{\"label\":\"No coordinates\"}]}"));
+    }
+
+    @Test
+    void missingOrNonArrayDataIsMalformed() {
+        assertThrows(IOException.class, () -> decode("{}"));
+        assertThrows(IOException.class, () -> decode("{\"meta\":{\"data\":[]}}"));
+        assertThrows(IOException.class, () -> decode("{\"data\":null}"));
+        assertThrows(IOException.class, () -> decode("[]"));
+        assertThrows(IOException.class, () -> decode("not json"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.caching.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void allowsTheBurstThenRefillsAtTheRate() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(20, 3);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        // 20 per second refills a token every 50ms
+        Thread.sleep(80);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void throttlingHalvesTheRateDownToAFloor() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(16, 1);
+
+        limiter.onThrottled();
+        assertEquals(8, limiter.getRate(), 1e-9);
+        for (int i = 0; i < 10; i++) {
+            limiter.onThrottled();
+        }
+        assertEquals(1, limiter.getRate(), 1e-9);
+    }
+
+    @Test
+    void throttlingEmptiesTheBucket() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 5);
+
+        limiter.onThrottled();
+
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void successesRecoverTheRateUpToTheQuota() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 1);
+        limiter.onThrottled();
+
+        limiter.onSuccess();
+        assertEquals(51, limiter.getRate(), 1e-9);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(100, limiter.getRate(), 1e-9);
+    }
+}
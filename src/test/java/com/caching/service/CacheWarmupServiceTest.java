@@ -0,0 +1,88 @@
+package com.caching.service;
+
+import com.caching.cache.DiskStore;
+import com.caching.cache.TieredCache;
+import com.caching.dto.GeoPoint;
+import com.caching.geo.DefaultAddressNormalizer;
+import com.caching.geo.GeocodingKeyGenerator;
+import com.caching.geo.ReverseGeocodingKeyGenerator;
+import com.caching.geo.SpatialGridIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class CacheWarmupServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private CacheWarmupService warmupService(Cache... caches) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(caches));
+        cacheManager.afterPropertiesSet();
+        return new CacheWarmupService(cacheManager, new GeocodingKeyGenerator(new DefaultAddressNormalizer(true)),
+                new ReverseGeocodingKeyGenerator("geohash", 8), mock(SpatialGridIndex.class), new ObjectMapper(),
+                "", Duration.ofMinutes(1), 1, 10);
+    }
+
+    @Test
+    void warmedEntriesAreNotWrittenToTheDiskTier() throws Exception {
+        Path log = directory.resolve("cache.log");
+        DiskStore store = diskStore(log);
+        TieredCache cache = new TieredCache(new CaffeineCache("geocoding", Caffeine.newBuilder().build()), store);
+        store.put("10 downing st london", new GeoPoint(51.5, -0.12));
+        Path file = Files.writeString(directory.resolve("warm.csv"), String.join("\n",
+                "kind,latitude,longitude,text",
+                "forward,15.3,74.1,Panaji",
+                "forward,1,1,10 Downing St London"));
+
+        warmupService(cache).preload(file);
+
+        assertEquals(new GeoPoint(15.3, 74.1), cache.get("panaji").get());
+        // The disk value wins over the warm-up record
+        assertEquals(new GeoPoint(51.5, -0.12), cache.get("10 downing st london").get());
+        store.close();
+        DiskStore reopened = diskStore(log);
+        try {
+            assertNull(reopened.get("panaji"));
+            assertEquals(new GeoPoint(51.5, -0.12), reopened.get("10 downing st london").getValue());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static DiskStore diskStore(Path log) throws IOException {
+        return new DiskStore(log, Duration.ofHours(1), Duration.ofHours(1), 65_536);
+    }
+
+    @Test
+    void exportOfAnUnboundedCacheKeepsToTheLimit() throws Exception {
+        CaffeineCache cache = new CaffeineCache("geocoding", Caffeine.newBuilder().build());
+        for (int i = 0; i < 50; i++) {
+            cache.put(i + " main st", new GeoPoint(i, i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        warmupService(cache).export(WarmupFormat.CSV, 10, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+        assertEquals(1 + 10, lines.size());
+    }
+}
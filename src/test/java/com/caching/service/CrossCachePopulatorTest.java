@@ -0,0 +1,71 @@
+package com.caching.service;
+
+import com.caching.cluster.PeerCacheClient;
+import com.caching.dto.GeoPoint;
+import com.caching.dto.Place;
+import com.caching.geo.DefaultAddressNormalizer;
+import com.caching.geo.GeocodingKeyGenerator;
+import com.caching.geo.ReverseGeocodingKeyGenerator;
+import com.caching.geo.SpatialGridIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class CrossCachePopulatorTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("geocoding", "reverse-geocoding");
+    private final GeocodingKeyGenerator geocodingKeyGenerator = new GeocodingKeyGenerator(new DefaultAddressNormalizer(true));
+    private final ReverseGeocodingKeyGenerator reverseGeocodingKeyGenerator = new ReverseGeocodingKeyGenerator("geohash", 8);
+    private final CrossCachePopulator populator = new CrossCachePopulator(cacheManager, new SimpleMeterRegistry(),
+            geocodingKeyGenerator, reverseGeocodingKeyGenerator, mock(SpatialGridIndex.class),
+            mock(PeerCacheClient.class), true, 0.8);
+
+    @Test
+    void pointAndStreetPlacesFillTheOppositeCache() {
+        Place address = place("10 Downing Street, London", 51.5034, -0.1276, Place.Precision.POINT);
+        Place street = place("Baker Street, London", 51.5226, -0.1571, Place.Precision.STREET);
+
+        populator.fromForward(address);
+        populator.fromReverse(street);
+
+        assertEquals("10 Downing Street, London", reverse(address));
+        assertEquals(new GeoPoint(51.5226, -0.1571), forward(street));
+    }
+
+    @Test
+    void areasAndPlacesOfUnknownPrecisionAreNotUsed() {
+        // The centroid of a region is not the address of the spot it lands on
+        Place region = place("Goa, India", 15.3, 74.1, Place.Precision.AREA);
+        Place unknown = place("Somewhere, Fakeland", 10, 10, null);
+
+        populator.fromForward(region);
+        populator.fromReverse(region);
+        populator.fromForward(unknown);
+        populator.fromReverse(unknown);
+
+        assertNull(reverse(region));
+        assertNull(forward(region));
+        assertNull(reverse(unknown));
+        assertNull(forward(unknown));
+    }
+
+    private static Place place(String label, double latitude, double longitude, Place.Precision precision) {
+        return new Place(latitude, longitude, label, 1, precision, null, null);
+    }
+
+    private Object reverse(Place place) {
+        Cache.ValueWrapper cached = cacheManager.getCache("reverse-geocoding")
+                .get(reverseGeocodingKeyGenerator.keyFor(place.getLatitude(), place.getLongitude()));
+        return cached != null ? cached.get() : null;
+    }
+
+    private Object forward(Place place) {
+        Cache.ValueWrapper cached = cacheManager.getCache("geocoding").get(geocodingKeyGenerator.keyFor(place.getLabel()));
+        return cached != null ? cached.get() : null;
+    }
+}
@@ -0,0 +1,132 @@
+package com.caching.service;
+
+import com.caching.audit.MappingAuditLog;
+import com.caching.cache.NegativeResultCache;
+import com.caching.cache.StaleEntrySweeper;
+import com.caching.cluster.PeerCacheClient;
+import com.caching.dto.GeoPoint;
+import com.caching.dto.Place;
+import com.caching.geo.DefaultAddressNormalizer;
+import com.caching.geo.GazetteerResolver;
+import com.caching.geo.GeocodingKeyGenerator;
+import com.caching.geo.ReverseGeocodingKeyGenerator;
+import com.caching.geo.SpatialGridIndex;
+import com.caching.repository.GeocodingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeocodingServiceTest {
+
+    private static final int CALLERS = 16;
+    private static final String ADDRESS = "10 Downing St, London";
+    private static final Place DOWNING_STREET = new Place(51.5034, -0.1276, "10 Downing Street, London", 1,
+            Place.Precision.POINT, "United Kingdom", null);
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GeocodingRepository geocodingRepository = mock(GeocodingRepository.class);
+    private final PeerCacheClient peerCacheClient = mock(PeerCacheClient.class);
+    private final ConcurrentMapCacheManager cacheManager =
+            new ConcurrentMapCacheManager("geocoding", "reverse-geocoding", "places");
+    private final GeocodingService service = new GeocodingService(geocodingRepository,
+            cacheManager, meterRegistry,
+            new GeocodingKeyGenerator(new DefaultAddressNormalizer(true)), new ReverseGeocodingKeyGenerator("geohash", 8),
+            mock(SpatialGridIndex.class), mock(StaleEntrySweeper.class), mock(NegativeResultCache.class),
+            mock(GazetteerResolver.class), peerCacheClient, mock(MappingAuditLog.class), mock(CrossCachePopulator.class));
+
+    @AfterEach
+    void shutDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesMakeOneUpstreamCall() throws Exception {
+        CompletableFuture<Place> upstream = new CompletableFuture<>();
+        when(geocodingRepository.fetchPlaceForAddressAsync(anyString())).thenReturn(upstream);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<GeoPoint>>> lookups = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            lookups.add(callers.submit(() -> {
+                start.await();
+                return service.getCoordinatesAsync(ADDRESS);
+            }));
+        }
+        start.countDown();
+        List<CompletableFuture<GeoPoint>> results = new ArrayList<>();
+        for (Future<CompletableFuture<GeoPoint>> lookup : lookups) {
+            results.add(lookup.get(5, TimeUnit.SECONDS));
+        }
+        // Every lookup has returned while upstream is still pending, so all but one joined the in-flight call
+        assertEquals(CALLERS - 1, meterRegistry.get("geocoding.coalesced.waiters").tag("cache", "geocoding").counter().count());
+
+        // One caller giving up must not cancel the shared call for the others
+        assertTrue(results.get(0).cancel(false));
+        upstream.complete(DOWNING_STREET);
+
+        for (CompletableFuture<GeoPoint> result : results.subList(1, CALLERS)) {
+            assertEquals(new GeoPoint(51.5034, -0.1276), result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(new GeoPoint(51.5034, -0.1276), service.getCoordinates(ADDRESS));
+        verify(geocodingRepository, times(1)).fetchPlaceForAddressAsync(anyString());
+    }
+
+    @Test
+    void refreshAndConcurrentMissShareOneUpstreamCall() throws Exception {
+        CompletableFuture<Place> upstream = new CompletableFuture<>();
+        when(geocodingRepository.fetchPlaceForAddressAsync(anyString())).thenReturn(upstream);
+        String key = new GeocodingKeyGenerator(new DefaultAddressNormalizer(true)).keyFor(ADDRESS);
+
+        CompletableFuture<GeoPoint> refresh = service.reloadCoordinates(key);
+        CompletableFuture<GeoPoint> miss = service.getCoordinatesAsync(ADDRESS);
+        upstream.complete(DOWNING_STREET);
+
+        assertEquals(new GeoPoint(51.5034, -0.1276), refresh.get(5, TimeUnit.SECONDS));
+        assertEquals(new GeoPoint(51.5034, -0.1276), miss.get(5, TimeUnit.SECONDS));
+        verify(geocodingRepository, times(1)).fetchPlaceForAddressAsync(anyString());
+    }
+
+    @Test
+    void placeLookupIsCachedWithItsDetailsAndFillsTheCoordinates() throws Exception {
+        when(geocodingRepository.fetchPlaceForAddressAsync(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(DOWNING_STREET));
+
+        assertEquals(DOWNING_STREET, service.getPlaceAsync(ADDRESS).get(5, TimeUnit.SECONDS));
+        assertEquals(DOWNING_STREET, service.getPlaceAsync("10 downing street london").get(5, TimeUnit.SECONDS));
+        assertEquals(new GeoPoint(51.5034, -0.1276), service.getCoordinates(ADDRESS));
+
+        verify(geocodingRepository, times(1)).fetchPlaceForAddressAsync(anyString());
+        assertEquals(1.0, meterRegistry.get("geocoding.cache.requests").tag("cache", "places").tag("result", "hit")
+                .counter().count());
+    }
+
+    @Test
+    void coordinatesLookupAlsoCachesThePlace() throws Exception {
+        when(geocodingRepository.fetchPlaceForAddressAsync(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(DOWNING_STREET));
+
+        service.getCoordinates(ADDRESS);
+
+        assertEquals(DOWNING_STREET, service.getPlaceAsync(ADDRESS).get(5, TimeUnit.SECONDS));
+        verify(geocodingRepository, times(1)).fetchPlaceForAddressAsync(anyString());
+    }
+}
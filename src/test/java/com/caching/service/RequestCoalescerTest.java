@@ -0,0 +1,127 @@
+package com.caching.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+
+    private static final int CALLERS = 16;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void shutDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneUpstreamCall() throws Exception {
+        CountDownLatch joined = new CountDownLatch(CALLERS - 1);
+        RequestCoalescer<String, Object> coalescer = new RequestCoalescer<>(joined::countDown);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CompletableFuture<Object> upstream = new CompletableFuture<>();
+
+        List<Future<CompletableFuture<Object>>> results = submitAll(() ->
+                coalescer.execute("goa", () -> {
+                    upstreamCalls.incrementAndGet();
+                    return upstream;
+                }));
+        // Hold the upstream answer until every other caller has joined the in-flight load
+        assertTrue(joined.await(5, TimeUnit.SECONDS));
+        assertEquals(1, coalescer.inFlightCount());
+        Object value = new Object();
+        upstream.complete(value);
+
+        for (Future<CompletableFuture<Object>> result : results) {
+            assertSame(value, result.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void concurrentCallersShareOneFailure() throws Exception {
+        CountDownLatch joined = new CountDownLatch(CALLERS - 1);
+        RequestCoalescer<String, Object> coalescer = new RequestCoalescer<>(joined::countDown);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CompletableFuture<Object> upstream = new CompletableFuture<>();
+
+        List<Future<CompletableFuture<Object>>> results = submitAll(() ->
+                coalescer.execute("goa", () -> {
+                    upstreamCalls.incrementAndGet();
+                    return upstream;
+                }));
+        assertTrue(joined.await(5, TimeUnit.SECONDS));
+        IllegalStateException failure = new IllegalStateException("upstream down");
+        upstream.completeExceptionally(failure);
+
+        for (Future<CompletableFuture<Object>> result : results) {
+            CompletableFuture<Object> shared = result.get(5, TimeUnit.SECONDS);
+            CompletionException thrown = assertThrows(CompletionException.class, shared::join);
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void keyIsReleasedOnceTheLoadCompletes() {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>(() -> { });
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        assertEquals("first", coalescer.executeSync("goa", () -> {
+            upstreamCalls.incrementAndGet();
+            return "first";
+        }));
+        assertEquals(0, coalescer.inFlightCount());
+        assertEquals("second", coalescer.executeSync("goa", () -> {
+            upstreamCalls.incrementAndGet();
+            return "second";
+        }));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void keyIsReleasedWhenTheLoaderThrows() {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>(() -> { });
+
+        IllegalArgumentException failure = new IllegalArgumentException("bad address");
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> coalescer.executeSync("goa", () -> {
+                    throw failure;
+                }));
+        assertSame(failure, thrown);
+        assertEquals(0, coalescer.inFlightCount());
+        assertEquals("retried", coalescer.executeSync("goa", () -> "retried"));
+    }
+
+    private <T> List<Future<T>> submitAll(Callable<T> call) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+}